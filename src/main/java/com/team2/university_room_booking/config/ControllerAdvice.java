@@ -73,5 +73,14 @@ public class ControllerAdvice {
     public ResponseEntity<Map<String,Object>> handleAccessDeniedException(AccessDeniedException ex, HttpServletRequest request){
         return buildResponse(HttpStatus.FORBIDDEN, ex.getMessage(),request);
     }
-}
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Map<String,Object>> handleServiceUnavailableException(ServiceUnavailableException ex, HttpServletRequest request){
+        return buildResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(),request);
+    }
+
+    @ExceptionHandler(QuotaExceededException.class)
+    public ResponseEntity<Map<String,Object>> handleQuotaExceededException(QuotaExceededException ex, HttpServletRequest request){
+        return buildResponse(HttpStatus.CONFLICT, ex.getMessage(),request);
+    }
+}
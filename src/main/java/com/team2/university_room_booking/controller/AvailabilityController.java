@@ -8,10 +8,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.team2.university_room_booking.dto.request.AvailabilityRequestDto;
+import com.team2.university_room_booking.dto.request.BulkAvailabilityRequestDto;
+import com.team2.university_room_booking.dto.response.RoomWindowAvailabilityDto;
 import com.team2.university_room_booking.service.AvailabilityService;
 
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/availability")
 @RequiredArgsConstructor
@@ -23,4 +28,9 @@ public class AvailabilityController {
         boolean isAvailable = availabilityService.isRoomAvailable(roomName, dto);
         return ResponseEntity.ok(isAvailable);
     }
+
+    @PostMapping("/rooms")
+    public ResponseEntity<List<RoomWindowAvailabilityDto>> areRoomsAvailable(@Valid @RequestBody BulkAvailabilityRequestDto dto) {
+        return ResponseEntity.ok(availabilityService.areRoomsAvailable(dto.getWindows()));
+    }
 }
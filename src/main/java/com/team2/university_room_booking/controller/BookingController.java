@@ -1,16 +1,30 @@
 package com.team2.university_room_booking.controller;
 
+import com.team2.university_room_booking.dto.request.BatchBookingRequestDto;
+import com.team2.university_room_booking.dto.request.BulkApproveRequestDto;
+import com.team2.university_room_booking.dto.request.BulkRejectRequestDto;
 import com.team2.university_room_booking.dto.request.CreateBookingRequestDto;
+import com.team2.university_room_booking.dto.request.RecurringBookingRequestDto;
 import com.team2.university_room_booking.dto.request.RejectBookingDto;
+import com.team2.university_room_booking.dto.response.BatchBookingResponseDto;
 import com.team2.university_room_booking.dto.response.BookingDto;
+import com.team2.university_room_booking.dto.response.BookingTicketDto;
+import com.team2.university_room_booking.dto.response.BulkBookingActionResponseDto;
+import com.team2.university_room_booking.dto.response.RecurringBookingResponseDto;
 import com.team2.university_room_booking.dto.response.TopRecurringRoomDto;
 import com.team2.university_room_booking.enums.BookingStatus;
 import com.team2.university_room_booking.model.Booking;
+import com.team2.university_room_booking.model.User;
+import com.team2.university_room_booking.service.BookingBatchService;
 import com.team2.university_room_booking.service.BookingService;
+import com.team2.university_room_booking.service.idempotency.IdempotencyService;
+import com.team2.university_room_booking.service.intake.BookingIntakeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,13 +39,55 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingBatchService bookingBatchService;
+    private final BookingIntakeService bookingIntakeService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('STUDENT', 'FACULTY_MEMBER')")
-    public ResponseEntity<Void> createBooking(@Valid @RequestBody CreateBookingRequestDto request) {
-        Booking created = bookingService.createBooking(request);
-        URI location = URI.create("/bookings/" + created.getId());
-        return ResponseEntity.created(location).build();
+    public ResponseEntity<Void> createBooking(@Valid @RequestBody CreateBookingRequestDto request,
+                                              @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings", request, Void.class, () -> {
+            Booking created = bookingService.createBooking(request);
+            URI location = URI.create("/bookings/" + created.getId());
+            return ResponseEntity.created(location).build();
+        });
+    }
+
+    // 202 once the ticket is stored; it is processed even if the application restarts meanwhile
+    @PostMapping("/async")
+    @PreAuthorize("hasAnyRole('STUDENT', 'FACULTY_MEMBER')")
+    public ResponseEntity<BookingTicketDto> submitBooking(@Valid @RequestBody CreateBookingRequestDto request,
+                                                          @AuthenticationPrincipal User user,
+                                                          @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings/async", request, BookingTicketDto.class, () -> {
+            BookingTicketDto ticket = bookingIntakeService.submit(request, user);
+            URI location = URI.create("/api/bookings/tickets/" + ticket.getTicketId());
+            return ResponseEntity.accepted().location(location).body(ticket);
+        });
+    }
+
+    @GetMapping("/tickets/{ticketId}")
+    public ResponseEntity<BookingTicketDto> getTicket(@PathVariable String ticketId, @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(bookingIntakeService.getTicket(ticketId, user));
+    }
+
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('FACULTY_MEMBER')")
+    public ResponseEntity<BatchBookingResponseDto> createBookings(@Valid @RequestBody BatchBookingRequestDto request,
+                                                                  @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings/batch", request, BatchBookingResponseDto.class,
+                () -> ResponseEntity.ok(bookingBatchService.createBookings(request)));
+    }
+
+    @PostMapping("/recurring")
+    @PreAuthorize("hasAnyRole('STUDENT', 'FACULTY_MEMBER')")
+    public ResponseEntity<RecurringBookingResponseDto> createRecurringSeries(@Valid @RequestBody RecurringBookingRequestDto request,
+                                                                             @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings/recurring", request, RecurringBookingResponseDto.class, () -> {
+            RecurringBookingResponseDto created = bookingBatchService.createRecurringSeries(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        });
     }
 
     @GetMapping("/users/{userId}/recurring-bookings")
@@ -50,22 +106,44 @@ public class BookingController {
 
     }
 
+    @PostMapping("/approve")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkBookingActionResponseDto> approveBookings(@Valid @RequestBody BulkApproveRequestDto request,
+                                                                        @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings/approve", request, BulkBookingActionResponseDto.class,
+                () -> ResponseEntity.ok(bookingBatchService.approveAll(request)));
+    }
+
+    @PostMapping("/reject")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkBookingActionResponseDto> rejectBookings(@Valid @RequestBody BulkRejectRequestDto request,
+                                                                       @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings/reject", request, BulkBookingActionResponseDto.class,
+                () -> ResponseEntity.ok(bookingBatchService.rejectAll(request)));
+    }
+
     @PostMapping("/{id}/approve")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<BookingDto> approveBooking(@PathVariable Long id) {
-        return ResponseEntity.ok(bookingService.approveBooking(id));
+    public ResponseEntity<BookingDto> approveBooking(@PathVariable Long id,
+                                                     @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings/" + id + "/approve", null, BookingDto.class,
+                () -> ResponseEntity.ok(bookingService.approveBooking(id)));
 
     }
 
     @PostMapping("/{id}/reject")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<BookingDto> rejectBooking(@PathVariable Long id, @Valid @RequestBody RejectBookingDto rejectBookingDto) {
-        return ResponseEntity.ok(bookingService.rejectBooking(id, rejectBookingDto));
+    public ResponseEntity<BookingDto> rejectBooking(@PathVariable Long id, @Valid @RequestBody RejectBookingDto rejectBookingDto,
+                                                    @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings/" + id + "/reject", rejectBookingDto, BookingDto.class,
+                () -> ResponseEntity.ok(bookingService.rejectBooking(id, rejectBookingDto)));
     }
 
     @PostMapping("/{id}/cancel")
     @PreAuthorize("hasAnyRole('STUDENT', 'FACULTY_MEMBER')")
-    public ResponseEntity<BookingDto> cancelBooking(@PathVariable Long id) {
-        return ResponseEntity.ok(bookingService.cancelBooking(id));
+    public ResponseEntity<BookingDto> cancelBooking(@PathVariable Long id,
+                                                    @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings/" + id + "/cancel", null, BookingDto.class,
+                () -> ResponseEntity.ok(bookingService.cancelBooking(id)));
     }
 }
@@ -1,8 +1,10 @@
 package com.team2.university_room_booking.controller;
 
+import com.team2.university_room_booking.dto.response.AuditWriterStatsDto;
 import com.team2.university_room_booking.dto.response.BookingHistoryDto;
 import com.team2.university_room_booking.enums.BookingStatus;
 import com.team2.university_room_booking.service.BookingHistoryService;
+import com.team2.university_room_booking.service.audit.AuditWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +22,7 @@ import java.util.List;
 public class BookingHistoryController{
 
     private final BookingHistoryService bookingHistoryService;
+    private final AuditWriter auditWriter;
 
     @GetMapping("/booking-history")
     public ResponseEntity<List<BookingHistoryDto>> getAuditTrail(
@@ -33,4 +36,10 @@ public class BookingHistoryController{
                 userId, bookingId, status, dateFrom, dateTo);
         return ResponseEntity.ok(result);
     }
+
+    // Queue depth and flush latency of the asynchronous audit writer
+    @GetMapping("/booking-history/writer-stats")
+    public ResponseEntity<AuditWriterStatsDto> getWriterStats() {
+        return ResponseEntity.ok(auditWriter.stats());
+    }
 }
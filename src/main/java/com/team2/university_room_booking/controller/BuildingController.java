@@ -1,14 +1,20 @@
 package com.team2.university_room_booking.controller;
 
 import com.team2.university_room_booking.dto.request.CreateBuildingDto;
+import com.team2.university_room_booking.dto.response.AvailabilityGridDto;
 import com.team2.university_room_booking.dto.response.BuildingDto;
 import com.team2.university_room_booking.service.BuildingService;
+import com.team2.university_room_booking.service.RoomService;
+import com.team2.university_room_booking.service.version.ResourceVersions;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -17,6 +23,8 @@ import java.util.List;
 public class BuildingController {
 
     private final BuildingService buildingService;
+    private final RoomService roomService;
+    private final ResourceVersions resourceVersions;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -25,8 +33,12 @@ public class BuildingController {
     }
 
     @GetMapping
-    public ResponseEntity<List<BuildingDto>> getAllBuildings() {
-        return ResponseEntity.ok(buildingService.getAllBuildings());
+    public ResponseEntity<List<BuildingDto>> getAllBuildings(WebRequest webRequest) {
+        String etag = resourceVersions.catalogETag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(buildingService.getAllBuildings());
     }
 
     @GetMapping("/{id}")
@@ -46,4 +58,10 @@ public class BuildingController {
         buildingService.deleteBuilding(id);
         return ResponseEntity.noContent().build();
     }
+
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<AvailabilityGridDto> getBuildingAvailability(@PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(roomService.getBuildingAvailability(id, date));
+    }
 }
@@ -1,14 +1,18 @@
 package com.team2.university_room_booking.controller;
 
 import com.team2.university_room_booking.dto.request.CreateDepartmentDto;
+import com.team2.university_room_booking.dto.response.AvailabilityGridDto;
 import com.team2.university_room_booking.dto.response.DepartmentDto;
 import com.team2.university_room_booking.service.DepartmentService;
+import com.team2.university_room_booking.service.RoomService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -17,6 +21,7 @@ import java.util.List;
 public class DepartmentController {
 
     private final DepartmentService departmentService;
+    private final RoomService roomService;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -45,4 +50,10 @@ public class DepartmentController {
     public void delete(@PathVariable Long id) {
         departmentService.deleteDepartment(id);
     }
+
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<AvailabilityGridDto> getDepartmentAvailability(@PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(roomService.getDepartmentAvailability(id, date));
+    }
 }
@@ -6,7 +6,9 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.team2.university_room_booking.dto.request.HolidayRequestDto;
 import com.team2.university_room_booking.dto.response.HolidayDto;
+import com.team2.university_room_booking.dto.response.HolidayImpactDto;
 import com.team2.university_room_booking.service.HolidayService;
+import com.team2.university_room_booking.service.version.ResourceVersions;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +23,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequiredArgsConstructor
@@ -28,6 +31,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 public class HolidayController {
     
     private final HolidayService holidayService;
+    private final ResourceVersions resourceVersions;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -37,9 +41,20 @@ public class HolidayController {
         return ResponseEntity.created(URI.create("/api/holidays/" + saved.getId())).body(saved);
     }
     
+    // Dry run: how many existing bookings saving this holiday would cancel
+    @PostMapping("/impact")
+    @PreAuthorize("hasRole('ADMIN')")
+    public HolidayImpactDto previewImpact(@RequestBody HolidayRequestDto dto) {
+        return holidayService.previewImpact(dto);
+    }
+
     @GetMapping
-    public List<HolidayDto> getHolidays() {
-        return holidayService.getAllHolidays();
+    public ResponseEntity<List<HolidayDto>> getHolidays(WebRequest webRequest) {
+        String etag = resourceVersions.holidaysETag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(holidayService.getAllHolidays());
     }
 
     @GetMapping("/{name}")
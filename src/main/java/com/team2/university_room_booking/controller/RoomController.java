@@ -1,20 +1,31 @@
 package com.team2.university_room_booking.controller;
 
 import com.team2.university_room_booking.dto.request.AvailabilityRequestDto;
+import com.team2.university_room_booking.dto.request.EarliestSlotRequestDto;
 import com.team2.university_room_booking.dto.request.RoomRequestDto;
+import com.team2.university_room_booking.dto.request.RoomSearchRequestDto;
 import com.team2.university_room_booking.dto.response.AvailableRoomTimesDto;
+import com.team2.university_room_booking.dto.response.AvailableSlotDto;
 import com.team2.university_room_booking.dto.response.RoomDto;
+import com.team2.university_room_booking.dto.response.RoomSearchResponseDto;
 import com.team2.university_room_booking.service.BookingService;
 import com.team2.university_room_booking.service.RoomService;
+import com.team2.university_room_booking.service.slot.EarliestSlotFinder;
+import com.team2.university_room_booking.service.stream.RoomAvailabilityStream;
+import com.team2.university_room_booking.service.version.ResourceVersions;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/rooms")
@@ -22,6 +33,9 @@ import java.util.List;
 public class RoomController {
 
     private final RoomService roomService;
+    private final ResourceVersions resourceVersions;
+    private final RoomAvailabilityStream roomAvailabilityStream;
+    private final EarliestSlotFinder earliestSlotFinder;
 
     // Create room
     @PostMapping
@@ -33,8 +47,31 @@ public class RoomController {
 
     // Get all rooms
     @GetMapping
-    public ResponseEntity<List<RoomDto>> getAllRooms() {
-        return ResponseEntity.ok(roomService.getAllRooms());
+    public ResponseEntity<List<RoomDto>> getAllRooms(WebRequest webRequest) {
+        String etag = resourceVersions.catalogETag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(roomService.getAllRooms());
+    }
+
+    // Search rooms free for a whole time window
+    @GetMapping("/search")
+    public ResponseEntity<RoomSearchResponseDto> searchFreeRooms(@Valid @ModelAttribute RoomSearchRequestDto request) {
+        return ResponseEntity.ok(roomService.searchFreeRooms(request));
+    }
+
+    // Earliest slots of a given length in any matching room
+    @GetMapping("/earliest-slots")
+    public ResponseEntity<List<AvailableSlotDto>> findEarliestSlots(@Valid @ModelAttribute EarliestSlotRequestDto request) {
+        return ResponseEntity.ok(earliestSlotFinder.findEarliest(request));
+    }
+
+    // Server-Sent Events feed of booking changes in the given rooms and buildings (all rooms when neither is given)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@RequestParam(required = false) Set<Long> roomIds,
+                                         @RequestParam(required = false) Set<Long> buildingIds) {
+        return roomAvailabilityStream.subscribe(roomIds, buildingIds);
     }
 
     // Get room by ID
@@ -62,6 +99,23 @@ public class RoomController {
         return ResponseEntity.noContent().build();
     }
 
+    // Pollable variant of the POST below, answering 304 while the room's bookings are unchanged
+    @GetMapping("/{roomId}/availability")
+    public ResponseEntity<List<AvailableRoomTimesDto>> getRoomAvailability(
+            @PathVariable Long roomId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            WebRequest webRequest
+    ) {
+        String etag = resourceVersions.roomAvailabilityETag(roomId);
+        // A window that has slipped into the past must reach the service to be rejected
+        if (start.isAfter(LocalDateTime.now()) && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<AvailableRoomTimesDto> freeSlots = roomService.getRoomAvailability(roomId, new AvailabilityRequestDto(start, end));
+        return ResponseEntity.ok().eTag(etag).body(freeSlots);
+    }
+
     @PostMapping("/{roomId}/availability")
     public ResponseEntity<List<AvailableRoomTimesDto>> getRoomAvailability(@PathVariable Long roomId, @Valid @RequestBody AvailabilityRequestDto dto) {
         List<AvailableRoomTimesDto> freeSlots = roomService.getRoomAvailability(roomId, dto);
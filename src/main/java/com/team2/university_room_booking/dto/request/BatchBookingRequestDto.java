@@ -0,0 +1,16 @@
+package com.team2.university_room_booking.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchBookingRequestDto {
+
+    @NotEmpty
+    @Size(max = 200, message = "A batch can contain at most 200 bookings")
+    private List<@Valid CreateBookingRequestDto> bookings;
+}
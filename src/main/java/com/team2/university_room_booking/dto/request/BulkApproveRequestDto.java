@@ -0,0 +1,16 @@
+package com.team2.university_room_booking.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkApproveRequestDto {
+
+    @NotEmpty
+    @Size(max = 500, message = "At most 500 bookings can be approved at once")
+    private List<@NotNull Long> bookingIds;
+}
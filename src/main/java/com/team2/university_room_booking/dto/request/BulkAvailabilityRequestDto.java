@@ -0,0 +1,16 @@
+package com.team2.university_room_booking.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkAvailabilityRequestDto {
+    @NotEmpty
+    @Size(max = 500)
+    @Valid
+    private List<RoomWindowDto> windows;
+}
@@ -0,0 +1,20 @@
+package com.team2.university_room_booking.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkRejectRequestDto {
+
+    @NotEmpty
+    @Size(max = 500, message = "At most 500 bookings can be rejected at once")
+    private List<@NotNull Long> bookingIds;
+
+    @NotBlank(message = "Reason is required for rejection")
+    private String reason;
+}
@@ -1,6 +1,8 @@
 package com.team2.university_room_booking.dto.request;
 
+import com.team2.university_room_booking.enums.RoomType;
 import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -11,9 +13,16 @@ import java.util.Set;
 @Data
 public class CreateBookingRequestDto {
 
-    @NotNull
+    // Optional: when omitted, the smallest free room matching roomType and requiredFeatureIds is chosen
     private Long roomId;
 
+    // Optional: only used when roomId is omitted
+    private RoomType roomType;
+
+    // Optional: only rooms seating at least this many people are auto-selected
+    @Min(1)
+    private Integer attendeeCount;
+
     @NotNull
     @FutureOrPresent
     private LocalDateTime startTime;
@@ -0,0 +1,35 @@
+package com.team2.university_room_booking.dto.request;
+
+import com.team2.university_room_booking.enums.RoomType;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Data
+public class EarliestSlotRequestDto {
+
+    @NotNull
+    @Min(1)
+    private Integer durationMinutes;
+
+    // Optional filters
+    private RoomType type;
+    private Set<Long> featureIds;
+    @Min(0)
+    private Integer minCapacity;
+
+    // Search horizon; defaults to now .. now + 7 days
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    @Min(1)
+    @Max(50)
+    private int limit = 5;
+}
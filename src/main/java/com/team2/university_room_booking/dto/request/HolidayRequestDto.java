@@ -1,5 +1,7 @@
 package com.team2.university_room_booking.dto.request;
 
+import com.team2.university_room_booking.enums.HolidayRecurrence;
+
 import java.time.LocalDateTime;
 
 import lombok.AllArgsConstructor;
@@ -15,4 +17,6 @@ public class HolidayRequestDto {
     private String name;
     private LocalDateTime startDate;
     private LocalDateTime endDate;
+    private HolidayRecurrence recurrence;
+    private Integer recurrenceEndYear;
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.team2.university_room_booking.dto.request;
+
+import com.team2.university_room_booking.enums.RoomType;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Data
+public class RoomSearchRequestDto {
+
+    @NotNull
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime start;
+
+    @NotNull
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime end;
+
+    // Optional filters
+    private RoomType type;
+    private Set<Long> featureIds;
+    @Min(0)
+    private Integer minCapacity;
+
+    // "capacity" (default) or "building"
+    private String sort;
+
+    // Opaque value from the previous page's nextCursor
+    private String cursor;
+
+    @Min(1)
+    @Max(100)
+    private int size = 20;
+}
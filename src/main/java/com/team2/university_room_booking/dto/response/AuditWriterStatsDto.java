@@ -0,0 +1,23 @@
+package com.team2.university_room_booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditWriterStatsDto {
+    // Committed audit entries waiting in the writer's queue
+    private int queueDepth;
+    private int queueCapacity;
+    // Entries that found the queue full and were left in the outbox for the sweep
+    private long overflowed;
+    private long flushes;
+    private long failedFlushes;
+    private long entriesWritten;
+    // From the start of a flush until its rows are committed
+    private double lastFlushMillis;
+    private double maxFlushMillis;
+    private double avgFlushMillis;
+}
@@ -0,0 +1,17 @@
+package com.team2.university_room_booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityGridDto {
+    private LocalDate date;
+    // One row per room, ordered by room id
+    private List<AvailabilityGridRowDto> rooms;
+}
@@ -0,0 +1,16 @@
+package com.team2.university_room_booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityGridRowDto {
+    private Long roomId;
+    private String roomName;
+    private List<AvailableRoomTimesDto> free;
+}
@@ -0,0 +1,25 @@
+package com.team2.university_room_booking.dto.response;
+
+import com.team2.university_room_booking.enums.BatchItemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBookingItemResultDto {
+    // Position of the item in the submitted batch
+    private int index;
+    private BatchItemStatus status;
+    private Long bookingId;
+    private String error;
+
+    public static BatchBookingItemResultDto created(int index, Long bookingId) {
+        return new BatchBookingItemResultDto(index, BatchItemStatus.CREATED, bookingId, null);
+    }
+
+    public static BatchBookingItemResultDto failed(int index, String error) {
+        return new BatchBookingItemResultDto(index, BatchItemStatus.FAILED, null, error);
+    }
+}
@@ -0,0 +1,21 @@
+package com.team2.university_room_booking.dto.response;
+
+import com.team2.university_room_booking.enums.IntakeStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingTicketDto {
+    private String ticketId;
+    private IntakeStatus status;
+    // Set once the booking is CREATED
+    private Long bookingId;
+    // Set once the booking is FAILED
+    private String error;
+    private LocalDateTime submittedAt;
+}
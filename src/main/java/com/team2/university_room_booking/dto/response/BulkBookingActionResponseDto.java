@@ -0,0 +1,17 @@
+package com.team2.university_room_booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkBookingActionResponseDto {
+    private List<Long> succeeded;
+    // Booking id to the reason it was skipped
+    private Map<Long, String> failed;
+}
@@ -1,6 +1,7 @@
 // dto/response/HolidayDto.java
 package com.team2.university_room_booking.dto.response;
 
+import com.team2.university_room_booking.enums.HolidayRecurrence;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -14,4 +15,6 @@ public class HolidayDto {
     private String name;
     private LocalDateTime startDate;
     private LocalDateTime endDate;
+    private HolidayRecurrence recurrence;
+    private Integer recurrenceEndYear;
 }
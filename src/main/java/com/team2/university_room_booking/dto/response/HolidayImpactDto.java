@@ -0,0 +1,17 @@
+package com.team2.university_room_booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HolidayImpactDto {
+    // PENDING and APPROVED bookings the holiday would cancel
+    private long affectedBookings;
+    private LocalDateTime checkedFrom;
+    private LocalDateTime checkedUntil;
+}
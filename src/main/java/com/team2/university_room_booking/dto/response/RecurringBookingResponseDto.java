@@ -10,6 +10,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class RecurringBookingResponseDto {
+    private String seriesId;
     private List<Long> bookingIds;
     private int count;
 }
@@ -0,0 +1,17 @@
+package com.team2.university_room_booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomAvailabilityEventDto {
+    // Rooms of the subscription whose bookings changed since the previous event
+    private List<Long> roomIds;
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,16 @@
+package com.team2.university_room_booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomSearchResponseDto {
+    private List<RoomDto> rooms;
+    // null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,17 @@
+package com.team2.university_room_booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomWindowAvailabilityDto {
+    private Long roomId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private boolean available;
+}
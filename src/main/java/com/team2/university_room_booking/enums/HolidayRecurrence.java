@@ -0,0 +1,12 @@
+package com.team2.university_room_booking.enums;
+
+/**
+ * How a holiday repeats. The occurrence rule is read off the holiday's first start date:
+ * a fixed date repeats on the same month and day, an nth weekday repeats on the same ordinal
+ * weekday of the same month (a fifth weekday means the last one).
+ */
+public enum HolidayRecurrence {
+    NONE,
+    YEARLY_FIXED_DATE,
+    YEARLY_NTH_WEEKDAY
+}
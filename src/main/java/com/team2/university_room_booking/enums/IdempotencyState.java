@@ -0,0 +1,6 @@
+package com.team2.university_room_booking.enums;
+
+public enum IdempotencyState {
+    PENDING,
+    COMPLETED
+}
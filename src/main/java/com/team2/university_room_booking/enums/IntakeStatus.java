@@ -0,0 +1,7 @@
+package com.team2.university_room_booking.enums;
+
+public enum IntakeStatus {
+    PENDING,
+    CREATED,
+    FAILED
+}
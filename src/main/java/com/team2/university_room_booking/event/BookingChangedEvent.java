@@ -0,0 +1,44 @@
+package com.team2.university_room_booking.event;
+
+import com.team2.university_room_booking.enums.BookingStatus;
+import com.team2.university_room_booking.model.Booking;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by the booking services whenever a booking is created or changes status.
+ * In-memory views of the schedule listen for it after the surrounding transaction commits.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookingChangedEvent {
+
+    private final Long bookingId;
+    private final Long roomId;
+    private final Long userId;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    // null when the booking was just created
+    private final BookingStatus previousStatus;
+    private final BookingStatus status;
+
+    public static BookingChangedEvent of(Booking booking, BookingStatus previousStatus) {
+        return new BookingChangedEvent(
+                booking.getId(),
+                booking.getRoom() == null ? null : booking.getRoom().getId(),
+                booking.getUser() == null ? null : booking.getUser().getId(),
+                booking.getStartTime(),
+                booking.getEndTime(),
+                previousStatus,
+                booking.getStatus()
+        );
+    }
+
+    public boolean isActive() {
+        return status == BookingStatus.PENDING || status == BookingStatus.APPROVED;
+    }
+}
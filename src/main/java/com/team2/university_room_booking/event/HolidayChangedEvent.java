@@ -0,0 +1,21 @@
+package com.team2.university_room_booking.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published whenever a holiday is created, updated or deleted, so anything derived from the
+ * holiday table can be refreshed once the change has committed.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class HolidayChangedEvent {
+
+    // Holiday that was created or updated; null when it was deleted
+    private final Long holidayId;
+
+    // Short description of what changed, for logging
+    private final String reason;
+}
@@ -0,0 +1,18 @@
+package com.team2.university_room_booking.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published whenever rooms, room features, buildings or departments are created, updated or deleted, so in-memory views of
+ * the room catalog can be rebuilt once the change has committed.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class RoomCatalogChangedEvent {
+
+    // Short description of what changed, for logging
+    private final String reason;
+}
@@ -0,0 +1,7 @@
+package com.team2.university_room_booking.exceptions;
+
+public class QuotaExceededException extends RuntimeException {
+    public QuotaExceededException(String message) {
+        super(message);
+    }
+}
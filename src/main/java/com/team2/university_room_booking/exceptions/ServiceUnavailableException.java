@@ -0,0 +1,7 @@
+package com.team2.university_room_booking.exceptions;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -12,11 +12,17 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_series_id", columnList = "series_id"),
+        // Covers the per-room overlap checks and the NOT EXISTS of the free-room search
+        @Index(name = "idx_bookings_room_time", columnList = "room_id, start_time, end_time")
+})
 public class Booking {
 
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
@@ -24,6 +30,10 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
+    // Shared by all occurrences of a recurring series, null for one-off bookings
+    @Column(name = "series_id", length = 36)
+    private String seriesId;
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     private User user;
@@ -0,0 +1,43 @@
+package com.team2.university_room_booking.model;
+
+import com.team2.university_room_booking.enums.BookingStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking audit entry committed with the change it records and not yet copied to
+ * booking_history. Plain ids and no secondary indexes keep the insert on the request path cheap.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "booking_audit_outbox")
+public class BookingAuditOutboxEntry {
+
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_audit_outbox_seq")
+    @SequenceGenerator(name = "booking_audit_outbox_seq", sequenceName = "booking_audit_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+
+    private String reason;
+
+    private LocalDateTime timestamp;
+}
@@ -19,8 +19,10 @@ import java.time.LocalDateTime;
 })
 public class BookingHistory {
 
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_history_seq")
+    @SequenceGenerator(name = "booking_history_seq", sequenceName = "booking_history_seq", allocationSize = 50)
     private Long id;
 
     private LocalDateTime timestamp;
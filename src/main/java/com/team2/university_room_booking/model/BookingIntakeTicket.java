@@ -0,0 +1,58 @@
+package com.team2.university_room_booking.model;
+
+import com.team2.university_room_booking.enums.IntakeStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An asynchronous booking request, stored before it is acknowledged with {@code 202 Accepted} and
+ * completed in the same transaction that inserts its booking, so no accepted request is lost or
+ * booked twice across a restart.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "booking_intake_tickets", indexes = {
+        @Index(name = "idx_intake_status_submitted_at", columnList = "status, submitted_at"),
+        @Index(name = "idx_intake_completed_at", columnList = "completed_at")
+})
+public class BookingIntakeTicket {
+
+    @Id
+    @Column(name = "ticket_id", length = 36)
+    private String id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    // The CreateBookingRequestDto as JSON
+    @Lob
+    @Column(name = "payload", columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private IntakeStatus status;
+
+    // Set once the booking is CREATED
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    // Set once the booking is FAILED
+    @Column(length = 500)
+    private String error;
+
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
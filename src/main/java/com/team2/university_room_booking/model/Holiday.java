@@ -1,5 +1,6 @@
 package com.team2.university_room_booking.model;
 
+import com.team2.university_room_booking.enums.HolidayRecurrence;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -20,4 +21,11 @@ public class Holiday {
     private String name;
     private LocalDateTime startDate;
     private LocalDateTime endDate;
+
+    // Null for holidays created before recurrence existed, treated as NONE
+    @Enumerated(EnumType.STRING)
+    private HolidayRecurrence recurrence;
+
+    // Last year a recurring holiday occurs in, null for no end
+    private Integer recurrenceEndYear;
 }
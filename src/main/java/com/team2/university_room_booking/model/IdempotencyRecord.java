@@ -0,0 +1,60 @@
+package com.team2.university_room_booking.model;
+
+import com.team2.university_room_booking.enums.IdempotencyState;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The stored response of a mutation sent with an {@code Idempotency-Key} header, replayed for
+ * retries of the same request until it expires. The row is inserted PENDING before the mutation
+ * runs and completed in the mutation's transaction, so the primary key decides which request owns
+ * a key across instances.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "idempotency_records", indexes = {
+        @Index(name = "idx_idempotency_expires_at", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+
+    // SHA-256 of scope, username and client key
+    @Id
+    @Column(name = "record_key", length = 64)
+    private String recordKey;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false)
+    private String scope;
+
+    // SHA-256 of the request body, to reject a key reused for a different request
+    @Column(name = "request_hash", length = 64, nullable = false)
+    private String requestHash;
+
+    // Null on rows written before states existed, which were all completed
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private IdempotencyState state;
+
+    @Column(name = "status_code", nullable = false)
+    private int statusCode;
+
+    private String location;
+
+    @Lob
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -12,7 +12,9 @@ import java.util.Set;
 @Data
 @AllArgsConstructor
 @Entity
-@Table(name = "rooms")
+@Table(name = "rooms", indexes = {
+        @Index(name = "idx_rooms_type_capacity", columnList = "type, capacity")
+})
 @NoArgsConstructor
 public class Room {
 
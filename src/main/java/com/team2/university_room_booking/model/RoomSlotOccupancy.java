@@ -0,0 +1,43 @@
+package com.team2.university_room_booking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One fixed-size time slot of a room claimed by a booking. The primary key on
+ * (room_id, slot_start) turns an overlapping booking into a constraint violation on insert.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@IdClass(RoomSlotOccupancy.SlotKey.class)
+@Table(name = "room_slot_occupancy", indexes = {
+        @Index(name = "idx_slot_booking_id", columnList = "booking_id")
+})
+public class RoomSlotOccupancy {
+
+    @Id
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Id
+    @Column(name = "slot_start")
+    private LocalDateTime slotStart;
+
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class SlotKey implements Serializable {
+        private Long roomId;
+        private LocalDateTime slotStart;
+    }
+}
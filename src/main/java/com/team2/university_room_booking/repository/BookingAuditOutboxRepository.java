@@ -0,0 +1,24 @@
+package com.team2.university_room_booking.repository;
+
+import com.team2.university_room_booking.model.BookingAuditOutboxEntry;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BookingAuditOutboxRepository extends JpaRepository<BookingAuditOutboxEntry, Long> {
+
+    @Query("SELECT e.id FROM BookingAuditOutboxEntry e WHERE e.timestamp < :cutoff ORDER BY e.id")
+    List<Long> findIdsRecordedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM BookingAuditOutboxEntry e WHERE e.id IN :ids ORDER BY e.id")
+    List<BookingAuditOutboxEntry> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,31 @@
+package com.team2.university_room_booking.repository;
+
+import com.team2.university_room_booking.enums.IntakeStatus;
+import com.team2.university_room_booking.model.BookingIntakeTicket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BookingIntakeTicketRepository extends JpaRepository<BookingIntakeTicket, String> {
+
+    List<BookingIntakeTicket> findByStatusAndSubmittedAtBeforeOrderBySubmittedAt(IntakeStatus status, LocalDateTime submittedBefore);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM BookingIntakeTicket t WHERE t.id IN :ids")
+    List<BookingIntakeTicket> findAllByIdForUpdate(@Param("ids") Collection<String> ids);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BookingIntakeTicket t WHERE t.status <> :pending AND t.completedAt < :cutoff")
+    int deleteFinishedBefore(@Param("pending") IntakeStatus pending, @Param("cutoff") LocalDateTime cutoff);
+}
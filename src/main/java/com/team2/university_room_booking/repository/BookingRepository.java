@@ -5,7 +5,10 @@ import com.team2.university_room_booking.model.Booking;
 
 import java.time.LocalDateTime;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Pageable;
@@ -49,16 +52,39 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     @Query("""
         SELECT COUNT(b) FROM Booking b
-        WHERE b.room.name = :roomName
-          AND (b.status IS NULL OR b.status <> 'CANCELLED')
+        WHERE b.room.id = :roomId
+          AND b.status IN :statuses
           AND b.startTime < :end
           AND b.endTime   > :start
         """)
-    Long countOverlaps(@Param("roomName") String roomName,
+    Long countOverlaps(@Param("roomId") Long roomId,
+                       @Param("statuses") Collection<BookingStatus> statuses,
                        @Param("start") LocalDateTime start,
                        @Param("end") LocalDateTime end);
 
 
+    // Bookings in any room overlapping a window, for holiday reconciliation
+    @Query("""
+    SELECT b.id FROM Booking b
+    WHERE b.status IN :statuses
+      AND b.startTime < :end
+      AND b.endTime   > :start
+    ORDER BY b.id
+    """)
+    List<Long> findIdsOverlapping(@Param("statuses") Collection<BookingStatus> statuses,
+                                  @Param("start") LocalDateTime start,
+                                  @Param("end") LocalDateTime end);
+
+    @Query("""
+    SELECT COUNT(b) FROM Booking b
+    WHERE b.status IN :statuses
+      AND b.startTime < :end
+      AND b.endTime   > :start
+    """)
+    long countOverlapping(@Param("statuses") Collection<BookingStatus> statuses,
+                          @Param("start") LocalDateTime start,
+                          @Param("end") LocalDateTime end);
+
     @Query("""
     SELECT b FROM Booking b
     WHERE b.room.id = :roomId
@@ -73,4 +99,80 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             @Param("end") LocalDateTime end
     );
 
+    // Moves a booking to a new status only if it is still in one of the expected ones; returns 0 when another request got there first
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :target WHERE b.id = :id AND b.status IN :expected")
+    int transitionStatus(
+            @Param("id") Long id,
+            @Param("expected") Collection<BookingStatus> expected,
+            @Param("target") BookingStatus target
+    );
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id IN :ids")
+    List<Booking> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :target WHERE b.id IN :ids AND b.status IN :expected")
+    int transitionStatuses(
+            @Param("ids") Collection<Long> ids,
+            @Param("expected") Collection<BookingStatus> expected,
+            @Param("target") BookingStatus target
+    );
+
+    // Projection used to build in-memory schedule views without loading users and rooms
+    interface BookingSlot {
+        Long getId();
+        Long getRoomId();
+        LocalDateTime getStartTime();
+        LocalDateTime getEndTime();
+    }
+
+    @Query("""
+    SELECT b.id AS id, b.room.id AS roomId, b.startTime AS startTime, b.endTime AS endTime
+    FROM Booking b
+    WHERE b.status IN :statuses
+      AND b.endTime > :after
+    """)
+    List<BookingSlot> findActiveSlots(
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("after") LocalDateTime after
+    );
+
+    // Active bookings with their owner, for rebuilding quota counters
+    interface BookingUsage {
+        Long getId();
+        Long getUserId();
+        Long getRoomId();
+        LocalDateTime getStartTime();
+        LocalDateTime getEndTime();
+    }
+
+    @Query("""
+    SELECT b.id AS id, b.user.id AS userId, b.room.id AS roomId, b.startTime AS startTime, b.endTime AS endTime
+    FROM Booking b
+    WHERE b.status IN :statuses
+      AND b.endTime > :after
+    """)
+    List<BookingUsage> findActiveUsage(
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("after") LocalDateTime after
+    );
+
+    @Query("""
+    SELECT b.id AS id, b.room.id AS roomId, b.startTime AS startTime, b.endTime AS endTime
+    FROM Booking b
+    WHERE b.room.id IN :roomIds
+      AND b.status IN :statuses
+      AND b.startTime < :end
+      AND b.endTime > :start
+    ORDER BY b.room.id, b.startTime
+    """)
+    List<BookingSlot> findSlotsForRooms(
+            @Param("roomIds") Collection<Long> roomIds,
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
 }
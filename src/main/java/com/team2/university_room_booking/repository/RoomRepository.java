@@ -1,9 +1,16 @@
 package com.team2.university_room_booking.repository;
 
+import com.team2.university_room_booking.enums.BookingStatus;
+import com.team2.university_room_booking.enums.RoomType;
 import com.team2.university_room_booking.model.Room;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import org.springframework.data.jpa.repository.Query;
@@ -19,4 +26,132 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
     @Query("SELECT r FROM Room r LEFT JOIN FETCH r.features WHERE r.name = :name")
     Optional<Room> findByNameWithFeatures(@Param("name") String name);
 
+    @Query("SELECT DISTINCT r FROM Room r LEFT JOIN FETCH r.features WHERE r.id IN :ids")
+    List<Room> findAllWithFeaturesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Every room with its features and building in one query, for the in-memory catalog
+    @Query("SELECT DISTINCT r FROM Room r LEFT JOIN FETCH r.features LEFT JOIN FETCH r.building")
+    List<Room> findAllForCatalog();
+
+    // Rows of the building and department availability grids
+    interface RoomName {
+        Long getId();
+        String getName();
+    }
+
+    @Query("SELECT r.id AS id, r.name AS name FROM Room r WHERE r.building.id = :buildingId ORDER BY r.id")
+    List<RoomName> findNamesByBuildingId(@Param("buildingId") Long buildingId);
+
+    @Query("SELECT r.id AS id, r.name AS name FROM Room r WHERE r.building.department.id = :departmentId ORDER BY r.id")
+    List<RoomName> findNamesByDepartmentId(@Param("departmentId") Long departmentId);
+
+    // Id and capacity of a free room, all the allocation strategies need
+    interface FreeRoom {
+        Long getId();
+        int getCapacity();
+    }
+
+    // Available rooms of the type (any when null) seating minCapacity, having every required feature and no active booking in the window
+    @Query("""
+        SELECT r.id AS id, r.capacity AS capacity FROM Room r
+        WHERE r.available = true
+          AND (:type IS NULL OR r.type = :type)
+          AND r.capacity >= :minCapacity
+          AND (:featureCount = 0 OR r.id IN (
+                SELECT fr.id FROM Room fr JOIN fr.features f
+                WHERE f.id IN :featureIds
+                GROUP BY fr.id
+                HAVING COUNT(DISTINCT f.id) = :featureCount))
+          AND NOT EXISTS (
+                SELECT b.id FROM Booking b
+                WHERE b.room = r
+                  AND b.status IN :statuses
+                  AND b.startTime < :end
+                  AND b.endTime > :start)
+        ORDER BY r.capacity ASC, r.id ASC
+    """)
+    List<FreeRoom> findFreeRooms(
+            @Param("type") RoomType type,
+            @Param("minCapacity") int minCapacity,
+            @Param("featureIds") Collection<Long> featureIds,
+            @Param("featureCount") long featureCount,
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    default List<FreeRoom> findFreeRooms(RoomType type, int minCapacity, Set<Long> featureIds,
+                                         Collection<BookingStatus> statuses, LocalDateTime start, LocalDateTime end) {
+        boolean anyFeature = featureIds == null || featureIds.isEmpty();
+        // An empty IN list is not portable, so pass a placeholder that the featureCount check short-circuits
+        return findFreeRooms(type, minCapacity, anyFeature ? Set.of(-1L) : featureIds, anyFeature ? 0 : featureIds.size(),
+                statuses, start, end);
+    }
+
+    // Free-room search pages, keyset-paginated on (capacity, id)
+    @Query("""
+        SELECT r FROM Room r LEFT JOIN FETCH r.building bd
+        WHERE r.available = true
+          AND (:type IS NULL OR r.type = :type)
+          AND r.capacity >= :minCapacity
+          AND (:featureCount = 0 OR r.id IN (
+                SELECT fr.id FROM Room fr JOIN fr.features f
+                WHERE f.id IN :featureIds
+                GROUP BY fr.id
+                HAVING COUNT(DISTINCT f.id) = :featureCount))
+          AND NOT EXISTS (
+                SELECT b.id FROM Booking b
+                WHERE b.room = r
+                  AND b.status IN :statuses
+                  AND b.startTime < :end
+                  AND b.endTime > :start)
+          AND (r.capacity > :afterCapacity OR (r.capacity = :afterCapacity AND r.id > :afterId))
+        ORDER BY r.capacity ASC, r.id ASC
+    """)
+    List<Room> searchFreeRoomsByCapacity(
+            @Param("type") RoomType type,
+            @Param("minCapacity") int minCapacity,
+            @Param("featureIds") Collection<Long> featureIds,
+            @Param("featureCount") long featureCount,
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("afterCapacity") int afterCapacity,
+            @Param("afterId") long afterId,
+            Pageable pageable
+    );
+
+    // Free-room search pages, keyset-paginated on (building name, id)
+    @Query("""
+        SELECT r FROM Room r LEFT JOIN FETCH r.building bd
+        WHERE r.available = true
+          AND (:type IS NULL OR r.type = :type)
+          AND r.capacity >= :minCapacity
+          AND (:featureCount = 0 OR r.id IN (
+                SELECT fr.id FROM Room fr JOIN fr.features f
+                WHERE f.id IN :featureIds
+                GROUP BY fr.id
+                HAVING COUNT(DISTINCT f.id) = :featureCount))
+          AND NOT EXISTS (
+                SELECT b.id FROM Booking b
+                WHERE b.room = r
+                  AND b.status IN :statuses
+                  AND b.startTime < :end
+                  AND b.endTime > :start)
+          AND (COALESCE(bd.name, '') > :afterBuilding OR (COALESCE(bd.name, '') = :afterBuilding AND r.id > :afterId))
+        ORDER BY COALESCE(bd.name, '') ASC, r.id ASC
+    """)
+    List<Room> searchFreeRoomsByBuilding(
+            @Param("type") RoomType type,
+            @Param("minCapacity") int minCapacity,
+            @Param("featureIds") Collection<Long> featureIds,
+            @Param("featureCount") long featureCount,
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("afterBuilding") String afterBuilding,
+            @Param("afterId") long afterId,
+            Pageable pageable
+    );
+
 }
@@ -0,0 +1,18 @@
+package com.team2.university_room_booking.repository;
+
+import com.team2.university_room_booking.model.RoomSlotOccupancy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface RoomSlotOccupancyRepository extends JpaRepository<RoomSlotOccupancy, RoomSlotOccupancy.SlotKey> {
+
+    @Modifying
+    @Query("DELETE FROM RoomSlotOccupancy s WHERE s.bookingId IN :bookingIds")
+    int deleteByBookingIds(@Param("bookingIds") Collection<Long> bookingIds);
+}
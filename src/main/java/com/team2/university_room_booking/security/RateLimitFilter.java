@@ -0,0 +1,157 @@
+package com.team2.university_room_booking.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user and per-IP rate limiting for the endpoint groups in {@link RateLimitProperties}. Runs
+ * right after {@link JwtFilter}, so the user bucket is keyed by the authenticated username (the
+ * JWT subject). Requests over a limit get {@code 429} with a {@code Retry-After} in seconds.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final List<Rule> rules;
+    private final LongSupplier clock;
+    private final TokenBuckets buckets;
+
+    private record Rule(String name, Set<String> methods, List<PathPattern> paths,
+                        TokenBuckets.Rate perUser, TokenBuckets.Rate perIp) {
+
+        boolean matches(String method, PathContainer path) {
+            if (!methods.isEmpty() && !methods.contains(method)) {
+                return false;
+            }
+            for (PathPattern pattern : paths) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    @Autowired
+    public RateLimitFilter(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    RateLimitFilter(RateLimitProperties properties, LongSupplier clock) {
+        this.enabled = properties.isEnabled();
+        this.rules = compile(properties.getGroups());
+        this.clock = clock;
+        this.buckets = new TokenBuckets(clock.getAsLong());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || rules.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        Rule rule = match(request);
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = clock.getAsLong();
+        long waitNanos = 0;
+        String limitedBy = null;
+        if (rule.perIp() != null) {
+            waitNanos = buckets.tryAcquire(rule.name() + "|ip|" + request.getRemoteAddr(), rule.perIp(), now);
+            limitedBy = "ip";
+        }
+        String username = currentUsername();
+        if (waitNanos == 0 && rule.perUser() != null && username != null) {
+            waitNanos = buckets.tryAcquire(rule.name() + "|user|" + username, rule.perUser(), now);
+            limitedBy = "user";
+        }
+
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            log.warn("rate-limit.rejected group={} by={} ip={} user={} retryAfterSeconds={}",
+                    rule.name(), limitedBy, request.getRemoteAddr(), username, retryAfter);
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests, retry in " + retryAfter + " seconds");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private Rule match(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        if (contextPath != null && !contextPath.isEmpty() && uri.startsWith(contextPath)) {
+            uri = uri.substring(contextPath.length());
+        }
+        PathContainer path = PathContainer.parsePath(uri);
+        String method = request.getMethod();
+        for (Rule rule : rules) {
+            if (rule.matches(method, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || !authentication.isAuthenticated() ? null : authentication.getName();
+    }
+
+    private static List<Rule> compile(Map<String, RateLimitProperties.Group> groups) {
+        List<Rule> rules = new ArrayList<>(groups.size());
+        for (Map.Entry<String, RateLimitProperties.Group> entry : groups.entrySet()) {
+            RateLimitProperties.Group group = entry.getValue();
+            if (group.getPaths().isEmpty() || (group.getPerUser() == null && group.getPerIp() == null)) {
+                throw new IllegalArgumentException("booking.rate-limit.groups." + entry.getKey() + " needs paths and a per-user or per-ip limit");
+            }
+            rules.add(new Rule(
+                    entry.getKey(),
+                    group.getMethods().stream().map(m -> m.trim().toUpperCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet()),
+                    group.getPaths().stream().map(p -> PathPatternParser.defaultInstance.parse(p.trim())).toList(),
+                    rate(group.getPerUser()),
+                    rate(group.getPerIp())));
+        }
+        return List.copyOf(rules);
+    }
+
+    private static TokenBuckets.Rate rate(RateLimitProperties.Limit limit) {
+        return limit == null ? null : TokenBuckets.Rate.of(limit.getCapacity(), limit.getRefillPerMinute());
+    }
+}
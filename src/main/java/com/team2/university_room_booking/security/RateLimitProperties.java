@@ -0,0 +1,40 @@
+package com.team2.university_room_booking.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request rate limits, bound from {@code booking.rate-limit.*}. Each endpoint group names the
+ * methods and path patterns it covers and the bucket each user and each client IP gets; a request
+ * is counted against the first group that matches it.
+ */
+@Data
+@ConfigurationProperties(prefix = "booking.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    @Data
+    public static class Group {
+        // Empty means any method
+        private List<String> methods = new ArrayList<>();
+        private List<String> paths = new ArrayList<>();
+        private Limit perUser;
+        private Limit perIp;
+    }
+
+    @Data
+    public static class Limit {
+        // Requests allowed in a burst
+        private int capacity;
+        // Sustained requests per minute
+        private int refillPerMinute;
+    }
+}
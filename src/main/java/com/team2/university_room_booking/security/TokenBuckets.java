@@ -0,0 +1,77 @@
+package com.team2.university_room_booking.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets, one per key, kept as a single {@link AtomicLong} each using the generic
+ * cell rate algorithm: the stored value is the time at which the bucket will be full again, and a
+ * request is admitted if taking one more token would not push that time further than the burst
+ * allows. Admission is one CAS in the common case.
+ * <p>
+ * A bucket whose time has passed is full, which is the same as having no entry, so idle keys are
+ * dropped by a sweep that runs at most once a minute.
+ */
+final class TokenBuckets {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ConcurrentMap<String, AtomicLong> fullAt = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepAt;
+
+    TokenBuckets(long now) {
+        this.nextSweepAt = new AtomicLong(now + SWEEP_INTERVAL_NANOS);
+    }
+
+    /**
+     * Nanoseconds between tokens and the burst tolerance, i.e. how far ahead of now the bucket's
+     * full-again time may run.
+     */
+    record Rate(long intervalNanos, long toleranceNanos) {
+
+        static Rate of(int capacity, int refillPerMinute) {
+            if (capacity < 1 || refillPerMinute < 1) {
+                throw new IllegalArgumentException("rate limit capacity and refill-per-minute must be positive");
+            }
+            long interval = TimeUnit.MINUTES.toNanos(1) / refillPerMinute;
+            return new Rate(interval, interval * capacity);
+        }
+    }
+
+    /**
+     * Takes a token from the key's bucket. Returns 0 if one was available, otherwise how many
+     * nanoseconds until one will be.
+     */
+    long tryAcquire(String key, Rate rate, long now) {
+        sweepIfDue(now);
+        AtomicLong bucket = fullAt.get(key);
+        if (bucket == null) {
+            bucket = fullAt.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long current = bucket.get();
+            long next = Math.max(current, now) + rate.intervalNanos();
+            long ahead = next - now;
+            if (ahead > rate.toleranceNanos()) {
+                return ahead - rate.toleranceNanos();
+            }
+            if (bucket.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    int size() {
+        return fullAt.size();
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweepAt.get();
+        if (now - due >= 0 && nextSweepAt.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+            // A bucket refilled concurrently with its removal loses at most that one token
+            fullAt.values().removeIf(bucket -> bucket.get() - now <= 0);
+        }
+    }
+}
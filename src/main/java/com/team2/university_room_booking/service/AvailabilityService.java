@@ -2,7 +2,14 @@ package com.team2.university_room_booking.service;
 
 
 import com.team2.university_room_booking.dto.request.AvailabilityRequestDto;
+import com.team2.university_room_booking.dto.request.RoomWindowDto;
+import com.team2.university_room_booking.dto.response.RoomWindowAvailabilityDto;
+
+import java.util.List;
 
 public interface AvailabilityService {
     boolean isRoomAvailable(String roomName, AvailabilityRequestDto dto);
+
+    // One answer per window, in request order
+    List<RoomWindowAvailabilityDto> areRoomsAvailable(List<RoomWindowDto> windows);
 }
@@ -0,0 +1,495 @@
+package com.team2.university_room_booking.service;
+
+import com.team2.university_room_booking.dto.request.BatchBookingRequestDto;
+import com.team2.university_room_booking.dto.request.BulkApproveRequestDto;
+import com.team2.university_room_booking.dto.request.BulkRejectRequestDto;
+import com.team2.university_room_booking.dto.request.CreateBookingRequestDto;
+import com.team2.university_room_booking.dto.request.RecurringBookingRequestDto;
+import com.team2.university_room_booking.dto.response.BatchBookingItemResultDto;
+import com.team2.university_room_booking.dto.response.BatchBookingResponseDto;
+import com.team2.university_room_booking.dto.response.BulkBookingActionResponseDto;
+import com.team2.university_room_booking.dto.response.RecurringBookingResponseDto;
+import com.team2.university_room_booking.enums.BatchItemStatus;
+import com.team2.university_room_booking.enums.BookingStatus;
+import com.team2.university_room_booking.event.BookingChangedEvent;
+import com.team2.university_room_booking.exceptions.BadRequestException;
+import com.team2.university_room_booking.exceptions.QuotaExceededException;
+import com.team2.university_room_booking.exceptions.ResourceConflictException;
+import com.team2.university_room_booking.exceptions.ResourceNotFoundException;
+import com.team2.university_room_booking.model.Booking;
+import com.team2.university_room_booking.model.Room;
+import com.team2.university_room_booking.model.User;
+import com.team2.university_room_booking.repository.BookingRepository;
+import com.team2.university_room_booking.repository.RoomRepository;
+import com.team2.university_room_booking.service.holiday.HolidayCalendar;
+import com.team2.university_room_booking.service.index.BookingIntervalIndex;
+import com.team2.university_room_booking.service.lock.RoomLockManager;
+import com.team2.university_room_booking.service.policy.BookingPolicy;
+import com.team2.university_room_booking.service.quota.BookingQuotas;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates many bookings in one transaction, either as a batch of independent requests or as the
+ * occurrences of a recurring series, and approves or rejects many pending bookings at once.
+ * Validation is set-based: one holiday query for the whole set and one range query per room, with
+ * status changes applied as one UPDATE and audit rows inserted through JDBC batching.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingBatchService {
+
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+    private final HolidayCalendar holidayCalendar;
+    private final BookingQuotas bookingQuotas;
+    private final BookingService bookingService;
+    private final BookingHistoryService bookingHistoryService;
+    private final RoomLockManager roomLockManager;
+    private final SlotOccupancyService slotOccupancyService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * A booking request together with the user it is created for.
+     */
+    public record OwnedBookingRequest(CreateBookingRequestDto request, User owner) {
+    }
+
+    // READ COMMITTED for the same reason as createAll, which runs inside this transaction
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public BatchBookingResponseDto createBookings(BatchBookingRequestDto request) {
+        User currentUser = bookingService.resolveCurrentUser();
+        List<OwnedBookingRequest> items = request.getBookings().stream()
+                .map(b -> new OwnedBookingRequest(b, currentUser))
+                .toList();
+
+        List<BatchBookingItemResultDto> results = createAll(items);
+        int created = (int) results.stream().filter(r -> r.getStatus() == BatchItemStatus.CREATED).count();
+        return new BatchBookingResponseDto(results, created, results.size() - created);
+    }
+
+    /**
+     * Validates and inserts the given requests. Each item succeeds or fails on its own; a failed
+     * item never rolls back the others. Quotas are checked per item, counting the items of the
+     * batch accepted before it. With slot occupancy enabled, items are also checked against the
+     * claimed slots first; only a slot claimed by a concurrent transaction in between still fails
+     * the whole insert.
+     * <p>
+     * The rooms are locked before they are first read, and the transaction runs at READ COMMITTED,
+     * so the overlap queries see bookings committed while this batch waited for the locks.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<BatchBookingItemResultDto> createAll(List<OwnedBookingRequest> items) {
+        BatchBookingItemResultDto[] results = new BatchBookingItemResultDto[items.size()];
+
+        // Per-item checks that need no I/O
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            CreateBookingRequestDto request = items.get(i).request();
+            if (request.getRoomId() == null) {
+                results[i] = BatchBookingItemResultDto.failed(i, "roomId is required for batch bookings");
+                continue;
+            }
+            try {
+                bookingService.validateAgainstPolicy(request.getStartTime(), request.getEndTime());
+                pending.add(i);
+            } catch (BadRequestException e) {
+                results[i] = BatchBookingItemResultDto.failed(i, e.getMessage());
+            }
+        }
+
+        // Rooms locked before their first read, then loaded with their features in one query
+        Set<Long> roomIds = pending.stream().map(i -> items.get(i).request().getRoomId()).collect(Collectors.toSet());
+        if (!roomIds.isEmpty() && !slotOccupancyService.isEnabled()) {
+            roomLockManager.lockAllForCurrentTransaction(roomIds);
+        }
+        Map<Long, Room> rooms = roomIds.isEmpty() ? Map.of() : roomRepository.findAllWithFeaturesByIdIn(roomIds).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+        pending.removeIf(i -> {
+            CreateBookingRequestDto request = items.get(i).request();
+            Room room = rooms.get(request.getRoomId());
+            if (room == null) {
+                results[i] = BatchBookingItemResultDto.failed(i, "Room not found");
+                return true;
+            }
+            if (!bookingService.hasRequiredFeatures(request.getRequiredFeatureIds(), room)) {
+                results[i] = BatchBookingItemResultDto.failed(i, "Room is missing required features");
+                return true;
+            }
+            return false;
+        });
+
+        // Holidays come from the in-memory calendar, no query per item
+        if (!pending.isEmpty()) {
+            pending.removeIf(i -> {
+                CreateBookingRequestDto request = items.get(i).request();
+                Optional<HolidayCalendar.HolidayPeriod> holiday = holidayCalendar.firstOverlapping(request.getStartTime(), request.getEndTime());
+                holiday.ifPresent(h -> results[i] = BatchBookingItemResultDto.failed(i, "Booking falls on a holiday: " + h.name()));
+                return holiday.isPresent();
+            });
+        }
+
+        // One range query per room, checked against existing bookings and earlier items of this batch
+        Map<Long, List<Integer>> pendingByRoom = pending.stream()
+                .collect(Collectors.groupingBy(i -> items.get(i).request().getRoomId(), TreeMap::new, Collectors.toList()));
+
+        Map<Long, List<LocalDateTime[]>> busyByRoom = new HashMap<>();
+        Map<Long, Set<LocalDateTime>> slotsByRoom = new HashMap<>();
+        for (Map.Entry<Long, List<Integer>> entry : pendingByRoom.entrySet()) {
+            List<Integer> roomItems = entry.getValue();
+            LocalDateTime from = roomItems.stream().map(i -> items.get(i).request().getStartTime()).min(Comparator.naturalOrder()).orElseThrow();
+            LocalDateTime to = roomItems.stream().map(i -> items.get(i).request().getEndTime()).max(Comparator.naturalOrder()).orElseThrow();
+
+            List<LocalDateTime[]> busy = new ArrayList<>();
+            for (Booking existing : bookingRepository.findAllOverlappingBookings(entry.getKey(), BookingIntervalIndex.ACTIVE_STATUSES, from, to)) {
+                busy.add(new LocalDateTime[]{existing.getStartTime(), existing.getEndTime()});
+            }
+            busyByRoom.put(entry.getKey(), busy);
+            if (slotOccupancyService.isEnabled()) {
+                // Claimed slots too, so an item sharing a partial slot fails alone instead of the whole insert
+                slotsByRoom.put(entry.getKey(), slotOccupancyService.claimedSlots(entry.getKey(), from, to));
+            }
+        }
+
+        // Items in request order, so quotas count the earlier items of this batch
+        BookingQuotas.Claims claims = bookingQuotas.newClaims();
+        List<Booking> toInsert = new ArrayList<>();
+        Map<Booking, Integer> positions = new IdentityHashMap<>();
+        for (Integer i : pending) {
+            OwnedBookingRequest item = items.get(i);
+            CreateBookingRequestDto request = item.request();
+            List<LocalDateTime[]> busy = busyByRoom.get(request.getRoomId());
+            if (overlapsAny(busy, request.getStartTime(), request.getEndTime())) {
+                results[i] = BatchBookingItemResultDto.failed(i, "Requested time overlaps with an existing booking");
+                continue;
+            }
+            Set<LocalDateTime> claimedSlots = slotsByRoom.get(request.getRoomId());
+            List<LocalDateTime> slots = claimedSlots == null ? List.of() : slotOccupancyService.slotsFor(request.getStartTime(), request.getEndTime());
+            if (claimedSlots != null && slots.stream().anyMatch(claimedSlots::contains)) {
+                results[i] = BatchBookingItemResultDto.failed(i, "Requested time overlaps with an existing booking");
+                continue;
+            }
+            try {
+                bookingQuotas.enforce(item.owner(), request.getRoomId(), request.getStartTime(), request.getEndTime(), claims);
+            } catch (QuotaExceededException e) {
+                results[i] = BatchBookingItemResultDto.failed(i, e.getMessage());
+                continue;
+            }
+            busy.add(new LocalDateTime[]{request.getStartTime(), request.getEndTime()});
+            if (claimedSlots != null) {
+                claimedSlots.addAll(slots);
+            }
+
+            Booking booking = new Booking();
+            booking.setRoom(rooms.get(request.getRoomId()));
+            booking.setStartTime(request.getStartTime());
+            booking.setEndTime(request.getEndTime());
+            booking.setPurpose(request.getPurpose());
+            booking.setStatus(BookingStatus.PENDING);
+            booking.setUser(item.owner());
+            toInsert.add(booking);
+            positions.put(booking, i);
+        }
+
+        List<Booking> saved = insertAll(toInsert);
+        for (Booking booking : saved) {
+            int i = positions.get(booking);
+            results[i] = BatchBookingItemResultDto.created(i, booking.getId());
+        }
+
+        log.info("booking.batch.create.success requested={} created={}", items.size(), saved.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Creates every occurrence of a weekly series, or none of them. The whole series is checked with
+     * one holiday query and one booking range query over its span. Like {@link #createAll}, the
+     * room is locked before it is read and the range query runs at READ COMMITTED.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public RecurringBookingResponseDto createRecurringSeries(RecurringBookingRequestDto request) {
+        List<LocalDateTime> starts = expandOccurrences(request);
+        Duration duration = Duration.between(request.getStartTime(), request.getEndTime());
+        for (LocalDateTime start : starts) {
+            bookingService.validateAgainstPolicy(start, start.plus(duration));
+        }
+
+        if (!slotOccupancyService.isEnabled()) {
+            roomLockManager.lockForCurrentTransaction(request.getRoomId());
+        }
+        Room room = roomRepository.findAllWithFeaturesByIdIn(Set.of(request.getRoomId())).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Room not found"));
+        if (!bookingService.hasRequiredFeatures(request.getRequiredFeatureIds(), room)) {
+            log.warn("booking.series.features.missing roomId={}", room.getId());
+            throw new BadRequestException("Room is missing required features");
+        }
+
+        LocalDateTime seriesStart = starts.get(0);
+        LocalDateTime seriesEnd = starts.get(starts.size() - 1).plus(duration);
+
+        List<LocalDate> onHolidays = new ArrayList<>();
+        for (LocalDateTime start : starts) {
+            if (holidayCalendar.firstOverlapping(start, start.plus(duration)).isPresent()) {
+                onHolidays.add(start.toLocalDate());
+            }
+        }
+        if (!onHolidays.isEmpty()) {
+            log.warn("booking.series.holiday.conflict roomId={} dates={}", room.getId(), onHolidays);
+            throw new ResourceConflictException("Series occurrences fall on holidays: " + onHolidays);
+        }
+
+        List<LocalDateTime[]> busy = new ArrayList<>();
+        for (Booking existing : bookingRepository.findAllOverlappingBookings(room.getId(), BookingIntervalIndex.ACTIVE_STATUSES, seriesStart, seriesEnd)) {
+            busy.add(new LocalDateTime[]{existing.getStartTime(), existing.getEndTime()});
+        }
+        List<LocalDate> conflicting = new ArrayList<>();
+        for (LocalDateTime start : starts) {
+            if (overlapsAny(busy, start, start.plus(duration))) {
+                conflicting.add(start.toLocalDate());
+            }
+        }
+        if (!conflicting.isEmpty()) {
+            log.warn("booking.series.overlap.conflict roomId={} dates={}", room.getId(), conflicting);
+            throw new ResourceConflictException("Series occurrences overlap existing bookings: " + conflicting);
+        }
+
+        User currentUser = bookingService.resolveCurrentUser();
+        List<LocalDateTime[]> occurrences = new ArrayList<>(starts.size());
+        for (LocalDateTime start : starts) {
+            occurrences.add(new LocalDateTime[]{start, start.plus(duration)});
+        }
+        bookingQuotas.enforce(currentUser, room.getId(), occurrences);
+
+        String seriesId = UUID.randomUUID().toString();
+        List<Booking> bookings = new ArrayList<>(starts.size());
+        for (LocalDateTime start : starts) {
+            Booking booking = new Booking();
+            booking.setRoom(room);
+            booking.setStartTime(start);
+            booking.setEndTime(start.plus(duration));
+            booking.setPurpose(request.getPurpose());
+            booking.setStatus(BookingStatus.PENDING);
+            booking.setUser(currentUser);
+            booking.setSeriesId(seriesId);
+            bookings.add(booking);
+        }
+
+        List<Long> bookingIds = insertAll(bookings).stream().map(Booking::getId).toList();
+        log.info("booking.series.create.success seriesId={} userId={} roomId={} occurrences={}",
+                seriesId, currentUser.getId(), room.getId(), bookingIds.size());
+        return new RecurringBookingResponseDto(seriesId, bookingIds, bookingIds.size());
+    }
+
+    /**
+     * Start times of all occurrences: every requested weekday from the first start on, at the same
+     * time of day, until {@code until} or {@code occurrences} is reached. Never looks further ahead
+     * than the booking horizon.
+     */
+    List<LocalDateTime> expandOccurrences(RecurringBookingRequestDto request) {
+        LocalDateTime first = request.getStartTime();
+        if (first == null || request.getEndTime() == null || !first.isBefore(request.getEndTime())) {
+            throw new BadRequestException("Start time must be before end time");
+        }
+        if (request.getUntil() == null && request.getOccurrences() == null) {
+            throw new BadRequestException("Either 'until' or 'occurrences' must be provided");
+        }
+        if (request.getOccurrences() != null && request.getOccurrences() <= 0) {
+            throw new BadRequestException("Occurrences must be greater than zero");
+        }
+        if (request.getUntil() != null && request.getUntil().isBefore(first)) {
+            throw new BadRequestException("'until' must not be before the first occurrence");
+        }
+
+        long maxDays = BookingPolicy.MAX_HORIZON.toDays() + 1;
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (long day = 0; day <= maxDays; day++) {
+            LocalDateTime start = first.plusDays(day);
+            if (request.getUntil() != null && start.isAfter(request.getUntil())) {
+                break;
+            }
+            if (request.getOccurrences() != null && starts.size() >= request.getOccurrences()) {
+                break;
+            }
+            if (request.getDaysOfWeek().contains(start.getDayOfWeek())) {
+                starts.add(start);
+            }
+        }
+
+        if (starts.isEmpty()) {
+            throw new BadRequestException("The series has no occurrences");
+        }
+        if (request.getOccurrences() != null && starts.size() < request.getOccurrences()) {
+            throw new BadRequestException("Series cannot extend more than " + BookingPolicy.MAX_HORIZON.toDays() + " days in advance");
+        }
+        return starts;
+    }
+
+    /**
+     * Approves every listed booking that is still PENDING and still passes the holiday and policy
+     * checks. The bookings are row-locked, re-validated against one holiday query and moved to
+     * APPROVED with one UPDATE; the rest are reported back with the reason they were skipped.
+     */
+    @Transactional
+    public BulkBookingActionResponseDto approveAll(BulkApproveRequestDto request) {
+        Map<Long, String> failed = new LinkedHashMap<>();
+        List<Booking> pending = loadPendingForUpdate(request.getBookingIds(), failed, "approved");
+
+        List<Booking> eligible = new ArrayList<>(pending.size());
+        for (Booking booking : pending) {
+            try {
+                bookingService.validateAgainstPolicy(booking.getStartTime(), booking.getEndTime());
+                eligible.add(booking);
+            } catch (BadRequestException e) {
+                failed.put(booking.getId(), e.getMessage());
+            }
+        }
+
+        if (!eligible.isEmpty()) {
+            eligible.removeIf(booking -> {
+                Optional<HolidayCalendar.HolidayPeriod> holiday = holidayCalendar.firstOverlapping(booking.getStartTime(), booking.getEndTime());
+                holiday.ifPresent(h -> failed.put(booking.getId(), "Booking falls on a holiday: " + h.name()));
+                return holiday.isPresent();
+            });
+        }
+
+        // Approved bookings keep the slots they claimed while PENDING
+        List<Long> succeeded = transitionAll(eligible, BookingStatus.APPROVED, null);
+        log.info("booking.bulk.approve.success requested={} approved={} failed={}",
+                request.getBookingIds().size(), succeeded.size(), failed.size());
+        return new BulkBookingActionResponseDto(succeeded, failed);
+    }
+
+    /**
+     * Rejects every listed booking that is still PENDING with one UPDATE and releases their slots.
+     */
+    @Transactional
+    public BulkBookingActionResponseDto rejectAll(BulkRejectRequestDto request) {
+        Map<Long, String> failed = new LinkedHashMap<>();
+        List<Booking> pending = loadPendingForUpdate(request.getBookingIds(), failed, "rejected");
+
+        List<Long> succeeded = transitionAll(pending, BookingStatus.REJECTED, request.getReason());
+        slotOccupancyService.release(succeeded);
+        log.info("booking.bulk.reject.success requested={} rejected={} failed={}",
+                request.getBookingIds().size(), succeeded.size(), failed.size());
+        return new BulkBookingActionResponseDto(succeeded, failed);
+    }
+
+    /**
+     * Cancels the listed bookings that are still PENDING or APPROVED and overlap {@code [start, end)}.
+     * Rows are locked first, so bookings changed since they were found are skipped rather than
+     * overwritten. Used by holiday reconciliation, which has no current user; the audit rows name
+     * the booking owner as actor.
+     */
+    @Transactional
+    public List<Long> cancelOverlapping(Collection<Long> bookingIds, LocalDateTime start, LocalDateTime end, String reason) {
+        List<Booking> affected = bookingRepository.findAllByIdForUpdate(bookingIds).stream()
+                .filter(b -> BookingIntervalIndex.ACTIVE_STATUSES.contains(b.getStatus()))
+                .filter(b -> b.getStartTime().isBefore(end) && b.getEndTime().isAfter(start))
+                .toList();
+        if (affected.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = affected.stream().map(Booking::getId).toList();
+        int updated = bookingRepository.transitionStatuses(ids, BookingIntervalIndex.ACTIVE_STATUSES, BookingStatus.CANCELLED);
+        if (updated != ids.size()) {
+            throw new ResourceConflictException("Bookings were changed by another request, please retry");
+        }
+
+        Map<Long, BookingStatus> previous = new HashMap<>();
+        for (Booking booking : affected) {
+            previous.put(booking.getId(), booking.getStatus());
+            booking.setStatus(BookingStatus.CANCELLED);
+        }
+        bookingHistoryService.createAuditEntries(affected, BookingStatus.CANCELLED, null, reason);
+        slotOccupancyService.release(ids);
+        for (Booking booking : affected) {
+            eventPublisher.publishEvent(BookingChangedEvent.of(booking, previous.get(booking.getId())));
+        }
+        return ids;
+    }
+
+    /**
+     * Loads and row-locks the listed bookings, keeping the PENDING ones in request order and
+     * recording why the others cannot be changed.
+     */
+    private List<Booking> loadPendingForUpdate(List<Long> bookingIds, Map<Long, String> failed, String action) {
+        Set<Long> ids = new LinkedHashSet<>(bookingIds);
+        Map<Long, Booking> found = bookingRepository.findAllByIdForUpdate(ids).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<Booking> pending = new ArrayList<>(found.size());
+        for (Long id : ids) {
+            Booking booking = found.get(id);
+            if (booking == null) {
+                failed.put(id, "Booking not found with id " + id);
+            } else if (booking.getStatus() != BookingStatus.PENDING) {
+                failed.put(id, "Only PENDING bookings can be " + action);
+            } else {
+                pending.add(booking);
+            }
+        }
+        return pending;
+    }
+
+    private List<Long> transitionAll(List<Booking> bookings, BookingStatus target, String reason) {
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = bookings.stream().map(Booking::getId).toList();
+        int updated = bookingRepository.transitionStatuses(ids, Set.of(BookingStatus.PENDING), target);
+        if (updated != ids.size()) {
+            // Cannot happen while the rows are locked; roll back rather than audit changes that did not apply
+            throw new ResourceConflictException("Bookings were changed by another request, please retry");
+        }
+
+        User actor = bookingService.resolveCurrentUser();
+        for (Booking booking : bookings) {
+            booking.setStatus(target);
+        }
+        bookingHistoryService.createAuditEntries(bookings, target, actor, reason);
+        for (Booking booking : bookings) {
+            eventPublisher.publishEvent(BookingChangedEvent.of(booking, BookingStatus.PENDING));
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts already validated PENDING bookings, claims their slots, writes their audit rows and
+     * publishes their change events.
+     */
+    List<Booking> insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return bookings;
+        }
+        List<Booking> saved = bookingRepository.saveAll(bookings);
+        slotOccupancyService.claim(saved);
+        bookingHistoryService.createAuditEntries(saved, BookingStatus.PENDING, null, null);
+        for (Booking booking : saved) {
+            eventPublisher.publishEvent(BookingChangedEvent.of(booking, null));
+        }
+        return saved;
+    }
+
+    private static boolean overlapsAny(List<LocalDateTime[]> busy, LocalDateTime start, LocalDateTime end) {
+        for (LocalDateTime[] interval : busy) {
+            if (interval[0].isBefore(end) && interval[1].isAfter(start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
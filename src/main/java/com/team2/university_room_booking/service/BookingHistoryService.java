@@ -7,11 +7,14 @@ import com.team2.university_room_booking.model.Booking;
 import com.team2.university_room_booking.model.BookingHistory;
 import com.team2.university_room_booking.model.User;
 import com.team2.university_room_booking.repository.BookingHistoryRepository;
+import com.team2.university_room_booking.service.audit.AuditWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,8 +24,9 @@ public class BookingHistoryService {
 
     private final BookingHistoryRepository bookingHistoryRepository;
     private final DtoMapper dtoMapper;
+    private final AuditWriter auditWriter;
 
-    // Create audit entry
+    // Create audit entry; stored in the audit outbox with the transaction and copied to booking_history shortly after it commits
     public void createAuditEntry(Booking booking, BookingStatus status, User actor, String reason) {
         BookingHistory history = new BookingHistory();
         history.setBooking(booking);
@@ -32,7 +36,25 @@ public class BookingHistoryService {
         history.setTimestamp(LocalDateTime.now());
         history.setReason(reason);
 
-        bookingHistoryRepository.save(history);
+        auditWriter.append(history);
+    }
+
+    // Create audit entries for many bookings in one outbox batch; a null actor means each booking's owner
+    public void createAuditEntries(Collection<Booking> bookings, BookingStatus status, User actor, String reason) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingHistory> entries = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            BookingHistory history = new BookingHistory();
+            history.setBooking(booking);
+            history.setUser(booking.getUser());
+            history.setActor(actor != null ? actor : booking.getUser());
+            history.setStatus(status);
+            history.setTimestamp(now);
+            history.setReason(reason);
+            entries.add(history);
+        }
+
+        auditWriter.appendAll(entries);
     }
 
     // GET /api/admin/booking-history (with all possible filters)
@@ -5,27 +5,36 @@ import com.team2.university_room_booking.dto.request.RejectBookingDto;
 import com.team2.university_room_booking.dto.response.BookingDto;
 import com.team2.university_room_booking.dto.response.TopRecurringRoomDto;
 import com.team2.university_room_booking.enums.BookingStatus;
+import com.team2.university_room_booking.event.BookingChangedEvent;
 import com.team2.university_room_booking.exceptions.*;
 import com.team2.university_room_booking.mapper.DtoMapper;
 import com.team2.university_room_booking.model.Booking;
-import com.team2.university_room_booking.model.Holiday;
 import com.team2.university_room_booking.model.Room;
 import com.team2.university_room_booking.model.RoomFeature;
 import com.team2.university_room_booking.model.User;
 import com.team2.university_room_booking.repository.BookingRepository;
-import com.team2.university_room_booking.repository.HolidayRepository;
 import com.team2.university_room_booking.repository.RoomRepository;
 import com.team2.university_room_booking.security.JwtUtil;
+import com.team2.university_room_booking.service.allocation.RoomAllocationStrategy.AllocationRequest;
+import com.team2.university_room_booking.service.allocation.RoomAllocationStrategy.RoomCandidate;
+import com.team2.university_room_booking.service.allocation.RoomAllocator;
+import com.team2.university_room_booking.service.catalog.RoomCatalog;
+import com.team2.university_room_booking.service.holiday.HolidayCalendar;
+import com.team2.university_room_booking.service.index.BookingIntervalIndex;
+import com.team2.university_room_booking.service.lock.RoomLockManager;
 import com.team2.university_room_booking.service.policy.BookingPolicy;
+import com.team2.university_room_booking.service.quota.BookingQuotas;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -33,6 +42,7 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -44,13 +54,25 @@ public class BookingService {
 
     private final BookingRepository bookingRepository;
     private final RoomRepository roomRepository;
-    private final HolidayRepository holidayRepository;
+    private final HolidayCalendar holidayCalendar;
     private final CustomUserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
     private final DtoMapper dtoMapper;
     private final BookingHistoryService bookingHistoryService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final RoomCatalog roomCatalog;
+    private final RoomAllocator roomAllocator;
+    private final RoomLockManager roomLockManager;
+    private final SlotOccupancyService slotOccupancyService;
+    private final BookingQuotas bookingQuotas;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Transactional
+    /**
+     * Runs at READ COMMITTED so the overlap query issued after the room lock is acquired sees bookings
+     * committed while this transaction waited; under REPEATABLE READ the snapshot taken by the first
+     * read would hide them.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Booking createBooking(CreateBookingRequestDto request) {
         // Always validate against holidays first
         checkForHolidayConflicts(request.getStartTime(), request.getEndTime());
@@ -61,11 +83,12 @@ public class BookingService {
         // Resolve the room based on the provided parameters
         Room room;
         if (request.getRoomId() != null) {
-            // Explicit room booking
+            // Explicit room booking: lock before the first read of the room
+            lockRoom(request.getRoomId());
             room = roomRepository.findById(request.getRoomId())
                     .orElseThrow(() -> new NotFoundException("Room not found"));
             validateRequiredFeatures(request, room);
-            checkForBookingConflicts(room.getId(), request.getStartTime(), request.getEndTime());
+            guardAgainstConflicts(room.getId(), request.getStartTime(), request.getEndTime());
         } else {
             // No explicit room: find a suitable available room by type and/or features
             room = selectAvailableRoomForRequest(request);
@@ -76,10 +99,12 @@ public class BookingService {
                 throw new ResourceNotFoundException("No available rooms match the requested criteria and time period");
             }
             validateRequiredFeatures(request, room);
-            checkForBookingConflicts(room.getId(), request.getStartTime(), request.getEndTime());
+            lockRoom(room.getId());
+            guardAgainstConflicts(room.getId(), request.getStartTime(), request.getEndTime());
         }
 
         User currentUser = resolveCurrentUser();
+        bookingQuotas.enforce(currentUser, room.getId(), request.getStartTime(), request.getEndTime());
 
         Booking booking = new Booking();
         booking.setRoom(room);
@@ -90,7 +115,9 @@ public class BookingService {
         booking.setUser(currentUser);
 
         Booking saved = bookingRepository.save(booking);
+        slotOccupancyService.claim(saved);
         bookingHistoryService.createAuditEntry(saved, BookingStatus.PENDING, currentUser, null);
+        eventPublisher.publishEvent(BookingChangedEvent.of(saved, null));
 
         log.info("booking.create.success bookingId={} userId={} roomId={} start={} end={} status={}",
                 saved.getId(), currentUser.getId(), room.getId(), saved.getStartTime(), saved.getEndTime(), saved.getStatus());
@@ -133,10 +160,12 @@ public class BookingService {
             throw new AccessDeniedException("Booking cannot be cancelled in status: " + booking.getStatus());
         }
 
-        booking.setStatus(BookingStatus.CANCELLED);
-        bookingRepository.save(booking);
+        BookingStatus previousStatus = booking.getStatus();
+        transition(booking, BookingIntervalIndex.ACTIVE_STATUSES, BookingStatus.CANCELLED, currentUsername);
+        slotOccupancyService.release(bookingId);
         User currentUser = resolveCurrentUser();
         bookingHistoryService.createAuditEntry(booking, BookingStatus.CANCELLED, currentUser, null);
+        eventPublisher.publishEvent(BookingChangedEvent.of(booking, previousStatus));
         log.info("booking.cancel.success bookingId={} actorUsername={}", bookingId, currentUsername);
 
         return dtoMapper.toBookingDto(booking);
@@ -157,12 +186,13 @@ public class BookingService {
             throw new BadRequestException("Only pending bookings can be rejected");
         }
 
-        booking.setStatus(BookingStatus.REJECTED);
-        bookingRepository.save(booking);
+        transition(booking, Set.of(BookingStatus.PENDING), BookingStatus.REJECTED, actor);
+        slotOccupancyService.release(bookingId);
 
         User actorUsername = resolveCurrentUser();
         String rejectionReason = rejectBookingDto.getReason();
         bookingHistoryService.createAuditEntry(booking,BookingStatus.REJECTED,actorUsername,rejectionReason);
+        eventPublisher.publishEvent(BookingChangedEvent.of(booking, BookingStatus.PENDING));
 
         log.info("booking.reject.success bookingId={} actorUsername={}", bookingId, actor);
 
@@ -190,11 +220,12 @@ public class BookingService {
         checkForHolidayConflicts(booking.getStartTime(), booking.getEndTime());
         validateAgainstPolicy(booking.getStartTime(), booking.getEndTime());
 
-        booking.setStatus(BookingStatus.APPROVED);
-        bookingRepository.save(booking);
+        // Approved bookings keep the slots they claimed while PENDING
+        transition(booking, Set.of(BookingStatus.PENDING), BookingStatus.APPROVED, actor);
 
         User actorUsername = resolveCurrentUser();
         bookingHistoryService.createAuditEntry(booking,BookingStatus.APPROVED,actorUsername,null);
+        eventPublisher.publishEvent(BookingChangedEvent.of(booking, BookingStatus.PENDING));
 
         log.info("booking.approve.success bookingId={} actorUsername={}", bookingId, actor);
 
@@ -204,64 +235,56 @@ public class BookingService {
     }
 
     /**
-     * Finds the first available room that matches the given criteria and has no booking conflicts within the time range.
+     * Applies a status change as one conditional UPDATE, so two requests acting on the same booking
+     * cannot both succeed. The status checks done before only produce friendlier errors; the row
+     * count decides.
+     */
+    private void transition(Booking booking, Collection<BookingStatus> expected, BookingStatus target, String actor) {
+        int updated = bookingRepository.transitionStatus(booking.getId(), expected, target);
+        if (updated == 0) {
+            log.warn("booking.transition.lost bookingId={} actorUsername={} target={}", booking.getId(), actor, target);
+            throw new ResourceConflictException("Booking was changed by another request, please reload it");
+        }
+        booking.setStatus(target);
+    }
+
+    /**
+     * Picks an available room that matches the given criteria and has no booking conflicts within the time range.
      * Criteria considered:
      * - room.available must be true
      * - if request has roomType, room.type must match
      * - if request has requiredFeatureIds, room must contain all those features
+     * - if request has attendeeCount, room.capacity must be at least that
+     * The in-memory catalog rules out requests no room can satisfy; otherwise a single query lists the free rooms
+     * and the configured allocation strategy chooses among them.
      */
     private Room selectAvailableRoomForRequest(CreateBookingRequestDto request) {
-        List<Room> allRooms = roomRepository.findAll();
-
-        List<Room> candidates = allRooms.stream()
-                .filter(Room::isAvailable)
-                .filter(r -> {
-                    try {
-                        var method = request.getClass().getMethod("getRoomType");
-                        Object roomType = method.invoke(request);
-                        return roomType == null || roomType.equals(r.getType());
-                    } catch (Exception e) {
-                        // If request doesn't expose getRoomType(), ignore type filtering
-                        return true;
-                    }
-                })
-                .filter(r -> hasRequiredFeatures(request.getRequiredFeatureIds(), r))
-                .toList();
-
-        int featuresCount = request.getRequiredFeatureIds() == null ? 0 : request.getRequiredFeatureIds().size();
-        Object roomTypeForLog = null;
-        try {
-            var method = request.getClass().getMethod("getRoomType");
-            roomTypeForLog = method.invoke(request);
-        } catch (Exception ignored) {
-        }
-
+        int attendees = request.getAttendeeCount() == null ? 1 : request.getAttendeeCount();
+        List<RoomCatalog.CatalogRoom> candidates = roomCatalog.candidates(request.getRoomType(), request.getRequiredFeatureIds(), attendees);
         if (candidates.isEmpty()) {
             return null;
         }
 
-        List<BookingStatus> conflictingStatuses = List.of(BookingStatus.PENDING, BookingStatus.APPROVED);
-        for (Room candidate : candidates) {
-            boolean overlaps = bookingRepository.existsByRoomIdAndStatusInAndStartTimeLessThanAndEndTimeGreaterThan(
-                    candidate.getId(),
-                    conflictingStatuses,
-                    request.getEndTime(),
-                    request.getStartTime()
-            );
-            if (!overlaps) {
-                log.info("booking.room.autoselect.success criteria={{type:{}, featuresCount:{}}} selectedRoomId={}",
-                        roomTypeForLog, featuresCount, candidate.getId());
-                return candidate;
-            }
+        List<RoomCandidate> free = roomRepository.findFreeRooms(request.getRoomType(), attendees, request.getRequiredFeatureIds(),
+                        BookingIntervalIndex.ACTIVE_STATUSES, request.getStartTime(), request.getEndTime()).stream()
+                .map(r -> new RoomCandidate(r.getId(), r.getCapacity()))
+                .toList();
+        RoomCandidate chosen = roomAllocator.choose(free, new AllocationRequest(request.getStartTime(), request.getEndTime(), attendees));
+        if (chosen == null) {
+            return null;
         }
-        return null;
+
+        int featuresCount = request.getRequiredFeatureIds() == null ? 0 : request.getRequiredFeatureIds().size();
+        log.info("booking.room.autoselect.success criteria={{type:{}, featuresCount:{}, attendees:{}}} free={} strategy={} selectedRoomId={}",
+                request.getRoomType(), featuresCount, attendees, free.size(), roomAllocator.strategyName(), chosen.roomId());
+        return roomRepository.findById(chosen.roomId()).orElse(null);
     }
 
     private void checkForHolidayConflicts(LocalDateTime startTime, LocalDateTime endTime) {
-        List<Holiday> overlappingHolidays = holidayRepository.findOverlappingHolidays(startTime, endTime);
+        List<HolidayCalendar.HolidayPeriod> overlappingHolidays = holidayCalendar.overlapping(startTime, endTime);
         if (!overlappingHolidays.isEmpty()) {
             String holidayNames = overlappingHolidays.stream()
-                    .map(Holiday::getName)
+                    .map(HolidayCalendar.HolidayPeriod::name)
                     .collect(Collectors.joining(", "));
             log.warn("booking.holiday.conflict count={} names={} start={} end={}",
                     overlappingHolidays.size(), holidayNames, startTime, endTime);
@@ -269,7 +292,39 @@ public class BookingService {
         }
     }
 
+    /**
+     * Serializes check-and-insert per room until this transaction commits. Not needed with slot
+     * occupancy enabled, where the unique key on claimed slots is the guard.
+     */
+    private void lockRoom(Long roomId) {
+        if (!slotOccupancyService.isEnabled()) {
+            roomLockManager.lockForCurrentTransaction(roomId);
+        }
+    }
+
+    /**
+     * Makes sure the room is free before a booking is inserted. With slot occupancy enabled only the
+     * in-memory index is consulted; otherwise the room must already be locked and the overlap query is run.
+     */
+    private void guardAgainstConflicts(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (slotOccupancyService.isEnabled()) {
+            checkIndexForConflicts(roomId, startTime, endTime);
+            return;
+        }
+        checkForBookingConflicts(roomId, startTime, endTime);
+    }
+
+    private void checkIndexForConflicts(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (bookingIntervalIndex.overlaps(roomId, startTime, endTime)) {
+            log.warn("booking.overlap.conflict roomId={} start={} end={} source={}", roomId, startTime, endTime, "INDEX");
+            throw new ResourceConflictException("Requested time overlaps with an existing booking");
+        }
+    }
+
     private void checkForBookingConflicts(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        // Cheap in-memory rejection first; the database query below stays as the final guard
+        checkIndexForConflicts(roomId, startTime, endTime);
+
         List<BookingStatus> conflictingStatuses = List.of(BookingStatus.PENDING, BookingStatus.APPROVED);
         boolean overlaps = bookingRepository.existsByRoomIdAndStatusInAndStartTimeLessThanAndEndTimeGreaterThan(
                 roomId,
@@ -284,7 +339,7 @@ public class BookingService {
         }
     }
 
-    private boolean hasRequiredFeatures(Set<Long> requiredFeatureIds, Room room) {
+    boolean hasRequiredFeatures(Set<Long> requiredFeatureIds, Room room) {
         if (requiredFeatureIds == null || requiredFeatureIds.isEmpty()) {
             return true;
         }
@@ -326,7 +381,7 @@ public class BookingService {
         return result;
     }
 
-    private User resolveCurrentUser() {
+    User resolveCurrentUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || !auth.isAuthenticated()) {
             log.warn("auth.resolve failed reason={}", "UNAUTHENTICATED");
@@ -377,7 +432,7 @@ public class BookingService {
     }
 
     // --- Policy validation using BookingPolicy ---
-    private void validateAgainstPolicy(LocalDateTime startTime, LocalDateTime endTime) {
+    void validateAgainstPolicy(LocalDateTime startTime, LocalDateTime endTime) {
         if (startTime == null || endTime == null) {
             log.warn("booking.policy.violation reason={} start={} end={}", "NULL_TIME", startTime, endTime);
             throw new BadRequestException("Start time and end time are required");
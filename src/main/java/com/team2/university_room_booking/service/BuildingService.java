@@ -2,6 +2,7 @@ package com.team2.university_room_booking.service;
 
 import com.team2.university_room_booking.dto.request.CreateBuildingDto;
 import com.team2.university_room_booking.dto.response.BuildingDto;
+import com.team2.university_room_booking.event.RoomCatalogChangedEvent;
 import com.team2.university_room_booking.exceptions.BadRequestException;
 import com.team2.university_room_booking.exceptions.ResourceNotFoundException;
 import com.team2.university_room_booking.mapper.DtoMapper;
@@ -11,6 +12,7 @@ import com.team2.university_room_booking.repository.BuildingRepository;
 import com.team2.university_room_booking.repository.DepartmentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,7 @@ public class BuildingService {
     private final BuildingRepository buildingRepository;
     private final DepartmentRepository departmentRepository;
     private final DtoMapper dtoMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public BuildingDto createBuilding(CreateBuildingDto dto) {
@@ -43,6 +46,7 @@ public class BuildingService {
 
         Building saved = buildingRepository.save(building);
         log.info("Building created successfully with id {}", saved.getId());
+        eventPublisher.publishEvent(new RoomCatalogChangedEvent("building created id=" + saved.getId()));
         return dtoMapper.toBuildingDto(saved);
     }
 
@@ -86,6 +90,7 @@ public class BuildingService {
 
         Building updated = buildingRepository.save(building);
         log.info("Building updated successfully with id {}", updated.getId());
+        eventPublisher.publishEvent(new RoomCatalogChangedEvent("building updated id=" + updated.getId()));
         return dtoMapper.toBuildingDto(updated);
     }
 
@@ -102,5 +107,6 @@ public class BuildingService {
         }
         buildingRepository.deleteById(id);
         log.info("Building deleted successfully with id {}", id);
+        eventPublisher.publishEvent(new RoomCatalogChangedEvent("building deleted id=" + id));
     }
 }
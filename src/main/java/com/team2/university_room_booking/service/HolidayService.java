@@ -3,14 +3,19 @@ package com.team2.university_room_booking.service;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.team2.university_room_booking.dto.request.HolidayRequestDto;
 import com.team2.university_room_booking.dto.response.HolidayDto;
+import com.team2.university_room_booking.dto.response.HolidayImpactDto;
+import com.team2.university_room_booking.enums.HolidayRecurrence;
+import com.team2.university_room_booking.event.HolidayChangedEvent;
 import com.team2.university_room_booking.exceptions.BadRequestException;
 import com.team2.university_room_booking.mapper.DtoMapper;
 import com.team2.university_room_booking.model.Holiday;
 import com.team2.university_room_booking.repository.HolidayRepository;
+import com.team2.university_room_booking.service.holiday.HolidayReconciler;
 
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -21,14 +26,24 @@ public class HolidayService {
 
     private final HolidayRepository holidayRepository;
     private final DtoMapper dtoMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HolidayReconciler holidayReconciler;
 
     @Transactional
     public HolidayDto createHoliday(HolidayRequestDto dto) {
-        if (dto.getStartDate().isAfter(dto.getEndDate())) {
-            throw new BadRequestException("End date must be after start date.");
-        }
+        validate(dto);
 
-        return dtoMapper.toHolidayDto(holidayRepository.save(dtoMapper.toHolidayEntity(dto)));
+        Holiday saved = holidayRepository.save(dtoMapper.toHolidayEntity(dto));
+        eventPublisher.publishEvent(new HolidayChangedEvent(saved.getId(), "holiday created id=" + saved.getId()));
+        return dtoMapper.toHolidayDto(saved);
+    }
+
+    /**
+     * Counts the bookings a holiday would cancel if it were saved as given. Nothing is written.
+     */
+    public HolidayImpactDto previewImpact(HolidayRequestDto dto) {
+        validate(dto);
+        return holidayReconciler.preview(dtoMapper.toHolidayEntity(dto));
     }
 
     public List<HolidayDto> getAllHolidays() {
@@ -42,15 +57,21 @@ public class HolidayService {
                 .orElseThrow(() -> new BadRequestException("Holiday not found.")));
     } 
 
+    @Transactional
     public HolidayDto updateHoliday(Long id, HolidayRequestDto dto) {
         Holiday holiday = holidayRepository.findById(id)
                 .orElseThrow(() -> new BadRequestException("Holiday not found."));
+        validate(dto);
 
         holiday.setName(dto.getName());
         holiday.setStartDate(dto.getStartDate());
         holiday.setEndDate(dto.getEndDate());
+        holiday.setRecurrence(dto.getRecurrence());
+        holiday.setRecurrenceEndYear(dto.getRecurrenceEndYear());
 
-        return dtoMapper.toHolidayDto(holidayRepository.save(holiday));
+        Holiday saved = holidayRepository.save(holiday);
+        eventPublisher.publishEvent(new HolidayChangedEvent(id, "holiday updated id=" + id));
+        return dtoMapper.toHolidayDto(saved);
     }
 
     @Transactional
@@ -60,5 +81,25 @@ public class HolidayService {
         }
 
         holidayRepository.deleteByName(name);
+        eventPublisher.publishEvent(new HolidayChangedEvent(null, "holiday deleted name=" + name));
+    }
+
+    private void validate(HolidayRequestDto dto) {
+        if (dto.getStartDate().isAfter(dto.getEndDate())) {
+            throw new BadRequestException("End date must be after start date.");
+        }
+        if (dto.getRecurrence() == null || dto.getRecurrence() == HolidayRecurrence.NONE) {
+            if (dto.getRecurrenceEndYear() != null) {
+                throw new BadRequestException("Recurrence end year requires a recurring holiday.");
+            }
+            return;
+        }
+        // An occurrence may not run into the next one
+        if (!dto.getEndDate().isBefore(dto.getStartDate().plusYears(1))) {
+            throw new BadRequestException("A recurring holiday must be shorter than a year.");
+        }
+        if (dto.getRecurrenceEndYear() != null && dto.getRecurrenceEndYear() < dto.getStartDate().getYear()) {
+            throw new BadRequestException("Recurrence end year must not be before the first occurrence.");
+        }
     }
 }
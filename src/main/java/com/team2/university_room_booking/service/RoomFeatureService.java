@@ -2,6 +2,7 @@ package com.team2.university_room_booking.service;
 
 import com.team2.university_room_booking.dto.request.CreateRoomFeatureDto;
 import com.team2.university_room_booking.dto.response.RoomFeatureDto;
+import com.team2.university_room_booking.event.RoomCatalogChangedEvent;
 import com.team2.university_room_booking.exceptions.BadRequestException;
 import com.team2.university_room_booking.exceptions.ResourceNotFoundException;
 import com.team2.university_room_booking.mapper.DtoMapper;
@@ -9,6 +10,7 @@ import com.team2.university_room_booking.model.RoomFeature;
 import com.team2.university_room_booking.repository.RoomFeatureRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -21,6 +23,7 @@ public class RoomFeatureService {
 
     private final RoomFeatureRepository repository;
     private final DtoMapper dtoMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     public RoomFeatureDto create(CreateRoomFeatureDto dto) {
         log.info("Creating RoomFeature with name={}", dto.getName());
@@ -34,6 +37,7 @@ public class RoomFeatureService {
         RoomFeatureDto response = dtoMapper.toRoomFeatureDto(saved);
 
         log.info("RoomFeature created successfully with id={}", response.getId());
+        eventPublisher.publishEvent(new RoomCatalogChangedEvent("feature created id=" + saved.getId()));
         return response;
     }
 
@@ -73,6 +77,7 @@ public class RoomFeatureService {
         RoomFeatureDto response = dtoMapper.toRoomFeatureDto(updated);
 
         log.info("RoomFeature updated successfully: id={}, newName={}", response.getId(), response.getName());
+        eventPublisher.publishEvent(new RoomCatalogChangedEvent("feature updated id=" + updated.getId()));
         return response;
     }
 
@@ -91,5 +96,6 @@ public class RoomFeatureService {
 
         repository.deleteById(id);
         log.info("RoomFeature deleted successfully with id={}", id);
+        eventPublisher.publishEvent(new RoomCatalogChangedEvent("feature deleted id=" + id));
     }
 }
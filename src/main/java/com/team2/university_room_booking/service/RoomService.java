@@ -2,9 +2,14 @@ package com.team2.university_room_booking.service;
 
 import com.team2.university_room_booking.dto.request.AvailabilityRequestDto;
 import com.team2.university_room_booking.dto.request.RoomRequestDto;
+import com.team2.university_room_booking.dto.request.RoomSearchRequestDto;
+import com.team2.university_room_booking.dto.response.AvailabilityGridDto;
+import com.team2.university_room_booking.dto.response.AvailabilityGridRowDto;
 import com.team2.university_room_booking.dto.response.AvailableRoomTimesDto;
 import com.team2.university_room_booking.dto.response.RoomDto;
+import com.team2.university_room_booking.dto.response.RoomSearchResponseDto;
 import com.team2.university_room_booking.enums.BookingStatus;
+import com.team2.university_room_booking.event.RoomCatalogChangedEvent;
 import com.team2.university_room_booking.exceptions.BadRequestException;
 import com.team2.university_room_booking.exceptions.ResourceConflictException;
 import com.team2.university_room_booking.exceptions.ResourceNotFoundException;
@@ -14,13 +19,21 @@ import com.team2.university_room_booking.model.Building;
 import com.team2.university_room_booking.model.Room;
 import com.team2.university_room_booking.model.RoomFeature;
 import com.team2.university_room_booking.repository.BuildingRepository;
+import com.team2.university_room_booking.repository.DepartmentRepository;
 import com.team2.university_room_booking.repository.RoomFeatureRepository;
 import com.team2.university_room_booking.repository.RoomRepository;
 import com.team2.university_room_booking.repository.BookingRepository;
+import com.team2.university_room_booking.service.index.BookingIntervalIndex;
+import com.team2.university_room_booking.service.index.RoomOccupancyBitmaps;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -34,7 +47,10 @@ public class RoomService {
     private final RoomRepository roomRepository;
     private final RoomFeatureRepository roomFeatureRepository;
     private final BuildingRepository buildingRepository;
+    private final DepartmentRepository departmentRepository;
     private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RoomOccupancyBitmaps roomOccupancyBitmaps;
 
     // create room
     @Transactional
@@ -63,6 +79,7 @@ public class RoomService {
         room.setFeatures(features);
         Room savedRoom = roomRepository.save(room);
         log.info("Room created successfully with id={}", savedRoom.getId());
+        eventPublisher.publishEvent(new RoomCatalogChangedEvent("room created id=" + savedRoom.getId()));
 
         RoomDto roomDto = dtoMapper.toRoomDto(savedRoom);
         roomDto.setFeaturesFromEntities(room.getFeatures());
@@ -112,6 +129,7 @@ public class RoomService {
 
         roomRepository.deleteById(id);
         log.info("Room deleted successfully with id={}", id);
+        eventPublisher.publishEvent(new RoomCatalogChangedEvent("room deleted id=" + id));
     }
 
     // update
@@ -144,6 +162,7 @@ public class RoomService {
         // Save updated room
         Room updatedRoom = roomRepository.save(existingRoom);
         log.info("Room updated successfully with id={}", updatedRoom.getId());
+        eventPublisher.publishEvent(new RoomCatalogChangedEvent("room updated id=" + updatedRoom.getId()));
 
         RoomDto roomDto = dtoMapper.toRoomDto(updatedRoom);
         roomDto.setFeaturesFromEntities(updatedRoom.getFeatures());
@@ -174,6 +193,12 @@ public class RoomService {
 
         validateBookingTimes(start, end);
 
+        Optional<List<AvailableRoomTimesDto>> fromBitmaps = roomOccupancyBitmaps.freeSlots(roomId, start, end);
+        if (fromBitmaps.isPresent()) {
+            log.info("Found {} available time slots for roomId={} source={}", fromBitmaps.get().size(), roomId, "BITMAP");
+            return fromBitmaps.get();
+        }
+
         List<Booking> bookings = bookingRepository.findAllOverlappingBookings(
                 roomId,
                 List.of(BookingStatus.APPROVED, BookingStatus.PENDING),
@@ -203,6 +228,155 @@ public class RoomService {
         return freeSlots;
     }
 
+    /**
+     * Free slots of every room in a building for one day: the rooms and all their bookings are read
+     * with one query each, then a single sweep over the bookings (sorted by room, then start) yields
+     * each room's gaps.
+     */
+    @Transactional(readOnly = true)
+    public AvailabilityGridDto getBuildingAvailability(Long buildingId, LocalDate date) {
+        if (!buildingRepository.existsById(buildingId)) {
+            throw new ResourceNotFoundException("Building not found with id: " + buildingId);
+        }
+        return availabilityGrid(roomRepository.findNamesByBuildingId(buildingId), date);
+    }
+
+    @Transactional(readOnly = true)
+    public AvailabilityGridDto getDepartmentAvailability(Long departmentId, LocalDate date) {
+        if (!departmentRepository.existsById(departmentId)) {
+            throw new ResourceNotFoundException("Department not found with id: " + departmentId);
+        }
+        return availabilityGrid(roomRepository.findNamesByDepartmentId(departmentId), date);
+    }
+
+    private AvailabilityGridDto availabilityGrid(List<RoomRepository.RoomName> rooms, LocalDate date) {
+        if (date == null) {
+            throw new BadRequestException("Date must be provided");
+        }
+        LocalDateTime start = date.atStartOfDay();
+        LocalDateTime end = start.plusDays(1);
+        if (rooms.isEmpty()) {
+            return new AvailabilityGridDto(date, List.of());
+        }
+
+        List<Long> roomIds = rooms.stream().map(RoomRepository.RoomName::getId).toList();
+        List<BookingRepository.BookingSlot> slots = bookingRepository.findSlotsForRooms(
+                roomIds, BookingIntervalIndex.ACTIVE_STATUSES, start, end);
+
+        // Rooms and slots are both ordered by room id, so one cursor walks the slots across all rooms
+        List<AvailabilityGridRowDto> rows = new ArrayList<>(rooms.size());
+        int next = 0;
+        for (RoomRepository.RoomName room : rooms) {
+            List<AvailableRoomTimesDto> free = new ArrayList<>();
+            LocalDateTime current = start;
+            for (; next < slots.size() && slots.get(next).getRoomId().equals(room.getId()); next++) {
+                BookingRepository.BookingSlot slot = slots.get(next);
+                if (current.isBefore(slot.getStartTime())) {
+                    free.add(new AvailableRoomTimesDto(current, slot.getStartTime()));
+                }
+                if (slot.getEndTime().isAfter(current)) {
+                    current = slot.getEndTime();
+                }
+            }
+            if (current.isBefore(end)) {
+                free.add(new AvailableRoomTimesDto(current, end));
+            }
+            rows.add(new AvailabilityGridRowDto(room.getId(), room.getName(), free));
+        }
+
+        log.info("room.availability.grid date={} rooms={} bookings={}", date, rows.size(), slots.size());
+        return new AvailabilityGridDto(date, rows);
+    }
+
+    /**
+     * One page of rooms free for the whole window, filtered by type, features and minimum capacity
+     * in the database and paginated with a keyset cursor, so later pages cost the same as the first.
+     */
+    @Transactional(readOnly = true)
+    public RoomSearchResponseDto searchFreeRooms(RoomSearchRequestDto request) {
+        if (request.getStart() == null || request.getEnd() == null || !request.getEnd().isAfter(request.getStart())) {
+            throw new BadRequestException("End time must be after start time");
+        }
+        boolean byBuilding = parseSort(request.getSort());
+        String[] cursor = decodeCursor(request.getCursor(), byBuilding);
+
+        Set<Long> featureIds = request.getFeatureIds();
+        boolean anyFeature = featureIds == null || featureIds.isEmpty();
+        Collection<Long> featureParam = anyFeature ? Set.of(-1L) : featureIds;
+        long featureCount = anyFeature ? 0 : featureIds.size();
+        int minCapacity = request.getMinCapacity() == null ? 0 : request.getMinCapacity();
+        long afterId = cursor == null ? 0L : Long.parseLong(cursor[1]);
+        // One extra row tells whether there is a next page
+        Pageable page = PageRequest.of(0, request.getSize() + 1);
+
+        List<Room> rooms = byBuilding
+                ? roomRepository.searchFreeRoomsByBuilding(request.getType(), minCapacity, featureParam, featureCount,
+                        BookingIntervalIndex.ACTIVE_STATUSES, request.getStart(), request.getEnd(),
+                        cursor == null ? "" : cursor[2], afterId, page)
+                : roomRepository.searchFreeRoomsByCapacity(request.getType(), minCapacity, featureParam, featureCount,
+                        BookingIntervalIndex.ACTIVE_STATUSES, request.getStart(), request.getEnd(),
+                        cursor == null ? Integer.MIN_VALUE : Integer.parseInt(cursor[2]), afterId, page);
+
+        boolean hasMore = rooms.size() > request.getSize();
+        if (hasMore) {
+            rooms = rooms.subList(0, request.getSize());
+        }
+
+        // Features for the whole page in one query
+        Map<Long, Room> withFeatures = rooms.isEmpty() ? Map.of() : roomRepository.findAllWithFeaturesByIdIn(
+                        rooms.stream().map(Room::getId).toList()).stream()
+                .collect(Collectors.toMap(Room::getId, r -> r));
+        List<RoomDto> dtos = new ArrayList<>(rooms.size());
+        for (Room room : rooms) {
+            RoomDto dto = dtoMapper.toRoomDto(room);
+            Room loaded = withFeatures.getOrDefault(room.getId(), room);
+            dto.setFeaturesFromEntities(loaded.getFeatures() == null ? Set.of() : loaded.getFeatures());
+            dtos.add(dto);
+        }
+
+        String nextCursor = hasMore ? encodeCursor(rooms.get(rooms.size() - 1), byBuilding) : null;
+        log.info("Room search start={} end={} type={} minCapacity={} returned={} hasMore={}",
+                request.getStart(), request.getEnd(), request.getType(), minCapacity, dtos.size(), hasMore);
+        return new RoomSearchResponseDto(dtos, nextCursor);
+    }
+
+    private static boolean parseSort(String sort) {
+        if (sort == null || sort.equalsIgnoreCase("capacity")) {
+            return false;
+        }
+        if (sort.equalsIgnoreCase("building")) {
+            return true;
+        }
+        throw new BadRequestException("Unsupported sort '" + sort + "', expected 'capacity' or 'building'");
+    }
+
+    // Cursor layout: "<c|b>:<lastId>:<lastCapacity or lastBuildingName>"
+    private static String encodeCursor(Room last, boolean byBuilding) {
+        String key = byBuilding
+                ? "b:" + last.getId() + ":" + (last.getBuilding() == null || last.getBuilding().getName() == null ? "" : last.getBuilding().getName())
+                : "c:" + last.getId() + ":" + last.getCapacity();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor, boolean byBuilding) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+            if (parts.length != 3 || !parts[0].equals(byBuilding ? "b" : "c")) {
+                throw new IllegalArgumentException("cursor does not match sort");
+            }
+            Long.parseLong(parts[1]);
+            if (!byBuilding) {
+                Integer.parseInt(parts[2]);
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
     private void validateBookingTimes(LocalDateTime start, LocalDateTime end) {
         if (start == null || end == null) {
             log.error("Start or end time is null: start={} end={}", start, end);
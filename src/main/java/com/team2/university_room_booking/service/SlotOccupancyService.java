@@ -0,0 +1,132 @@
+package com.team2.university_room_booking.service;
+
+import com.team2.university_room_booking.exceptions.ResourceConflictException;
+import com.team2.university_room_booking.model.Booking;
+import com.team2.university_room_booking.repository.RoomSlotOccupancyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Optional insert-based conflict detection. When enabled, every booking also claims its rows in
+ * {@code room_slot_occupancy} at a fixed granularity and an overlap shows up as a primary key
+ * violation, so concurrent nodes can book optimistically without locks or SERIALIZABLE transactions.
+ * <p>
+ * Bookings are rounded outwards to whole slots, so with 15 minute slots two bookings sharing only a
+ * partial slot are treated as conflicting. Enable it on an empty schedule or backfill the table for
+ * existing PENDING/APPROVED bookings first.
+ */
+@Slf4j
+@Service
+public class SlotOccupancyService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO room_slot_occupancy (room_id, slot_start, booking_id) VALUES (?, ?, ?)";
+    private static final String SELECT_SQL =
+            "SELECT slot_start FROM room_slot_occupancy WHERE room_id = ? AND slot_start >= ? AND slot_start < ?";
+
+    private final RoomSlotOccupancyRepository slotOccupancyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Duration granularity;
+
+    public SlotOccupancyService(RoomSlotOccupancyRepository slotOccupancyRepository,
+                                JdbcTemplate jdbcTemplate,
+                                @Value("${booking.slot-occupancy.enabled:false}") boolean enabled,
+                                @Value("${booking.slot-occupancy.granularity-minutes:15}") int granularityMinutes) {
+        if (granularityMinutes <= 0 || 60 % granularityMinutes != 0) {
+            throw new IllegalArgumentException("booking.slot-occupancy.granularity-minutes must divide an hour");
+        }
+        this.slotOccupancyRepository = slotOccupancyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.granularity = Duration.ofMinutes(granularityMinutes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Claims the slots of the given (already inserted) bookings in one JDBC batch.
+     *
+     * @throws ResourceConflictException if any slot is already claimed by another booking
+     */
+    public void claim(Collection<Booking> bookings) {
+        if (!enabled || bookings.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (Booking booking : bookings) {
+            for (LocalDateTime slot : slotsFor(booking.getStartTime(), booking.getEndTime())) {
+                rows.add(new Object[]{booking.getRoom().getId(), Timestamp.valueOf(slot), booking.getId()});
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("booking.slot.conflict bookings={} slots={}", bookings.size(), rows.size());
+            throw new ResourceConflictException("Requested time overlaps with an existing booking");
+        }
+    }
+
+    public void claim(Booking booking) {
+        claim(List.of(booking));
+    }
+
+    /**
+     * Slots of the room already claimed in {@code [from, to)}, read with one query so a batch can
+     * reject colliding items one by one before its claims are inserted.
+     */
+    public Set<LocalDateTime> claimedSlots(Long roomId, LocalDateTime from, LocalDateTime to) {
+        if (!enabled) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(jdbcTemplate.query(SELECT_SQL,
+                (rs, row) -> rs.getTimestamp(1).toLocalDateTime(),
+                roomId, Timestamp.valueOf(floorToSlot(from)), Timestamp.valueOf(to)));
+    }
+
+    /**
+     * Frees the slots held by bookings that are no longer PENDING or APPROVED.
+     */
+    public void release(Collection<Long> bookingIds) {
+        if (!enabled || bookingIds.isEmpty()) {
+            return;
+        }
+        int released = slotOccupancyRepository.deleteByBookingIds(bookingIds);
+        log.debug("booking.slot.released bookings={} slots={}", bookingIds.size(), released);
+    }
+
+    public void release(Long bookingId) {
+        release(List.of(bookingId));
+    }
+
+    List<LocalDateTime> slotsFor(LocalDateTime start, LocalDateTime end) {
+        List<LocalDateTime> slots = new ArrayList<>();
+        LocalDateTime slot = floorToSlot(start);
+        while (slot.isBefore(end)) {
+            slots.add(slot);
+            slot = slot.plus(granularity);
+        }
+        return slots;
+    }
+
+    private LocalDateTime floorToSlot(LocalDateTime time) {
+        long minutes = granularity.toMinutes();
+        LocalDateTime hour = time.truncatedTo(ChronoUnit.HOURS);
+        return hour.plusMinutes((time.getMinute() / minutes) * minutes);
+    }
+}
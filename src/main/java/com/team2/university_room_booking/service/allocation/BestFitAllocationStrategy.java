@@ -0,0 +1,26 @@
+package com.team2.university_room_booking.service.allocation;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The smallest free room that seats the group, keeping large rooms for large groups.
+ */
+@Component
+public class BestFitAllocationStrategy implements RoomAllocationStrategy {
+
+    static final Comparator<RoomCandidate> SMALLEST_FIRST =
+            Comparator.comparingInt(RoomCandidate::capacity).thenComparing(RoomCandidate::roomId);
+
+    @Override
+    public String name() {
+        return "best-fit";
+    }
+
+    @Override
+    public RoomCandidate choose(List<RoomCandidate> freeRooms, AllocationRequest request) {
+        return freeRooms.stream().min(SMALLEST_FIRST).orElseThrow();
+    }
+}
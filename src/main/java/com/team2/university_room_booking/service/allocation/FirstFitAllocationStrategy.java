@@ -0,0 +1,24 @@
+package com.team2.university_room_booking.service.allocation;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The free room with the lowest id, regardless of size. This is how rooms were picked before
+ * strategies existed.
+ */
+@Component
+public class FirstFitAllocationStrategy implements RoomAllocationStrategy {
+
+    @Override
+    public String name() {
+        return "first-fit";
+    }
+
+    @Override
+    public RoomCandidate choose(List<RoomCandidate> freeRooms, AllocationRequest request) {
+        return freeRooms.stream().min(Comparator.comparing(RoomCandidate::roomId)).orElseThrow();
+    }
+}
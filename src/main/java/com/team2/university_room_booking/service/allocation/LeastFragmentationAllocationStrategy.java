@@ -0,0 +1,69 @@
+package com.team2.university_room_booking.service.allocation;
+
+import com.team2.university_room_booking.service.index.BookingIntervalIndex;
+import com.team2.university_room_booking.service.policy.BookingPolicy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Prefers the room where the booking fits most snugly against that day's existing bookings, so
+ * free time stays in blocks long enough to be booked. Gaps shorter than the minimum booking
+ * duration can never be used and are penalised most. Ties go to the smallest room.
+ */
+@Component
+@RequiredArgsConstructor
+public class LeastFragmentationAllocationStrategy implements RoomAllocationStrategy {
+
+    private static final long UNUSABLE_GAP_PENALTY = Duration.ofDays(1).toMinutes() * 10;
+    private static final long OPEN_DAY_COST = Duration.ofDays(1).toMinutes();
+
+    private final BookingIntervalIndex bookingIntervalIndex;
+
+    @Override
+    public String name() {
+        return "least-fragmentation";
+    }
+
+    @Override
+    public RoomCandidate choose(List<RoomCandidate> freeRooms, AllocationRequest request) {
+        RoomCandidate best = null;
+        long bestCost = Long.MAX_VALUE;
+        for (RoomCandidate room : freeRooms) {
+            long cost = cost(room.roomId(), request.start(), request.end());
+            if (best == null || cost < bestCost
+                    || (cost == bestCost && BestFitAllocationStrategy.SMALLEST_FIRST.compare(room, best) < 0)) {
+                best = room;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    long cost(Long roomId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime dayStart = start.toLocalDate().atStartOfDay();
+        LocalDateTime dayEnd = dayStart.plusDays(1);
+
+        Optional<LocalDateTime> previousEnd = bookingIntervalIndex.previousEnd(roomId, start)
+                .filter(t -> !t.isBefore(dayStart));
+        Optional<LocalDateTime> nextStart = bookingIntervalIndex.nextStart(roomId, end)
+                .filter(t -> t.isBefore(dayEnd));
+
+        return gapCost(previousEnd.map(t -> Duration.between(t, start))) + gapCost(nextStart.map(t -> Duration.between(end, t)));
+    }
+
+    private static long gapCost(Optional<Duration> gap) {
+        if (gap.isEmpty()) {
+            return OPEN_DAY_COST;
+        }
+        Duration g = gap.get();
+        if (!g.isZero() && g.compareTo(BookingPolicy.MIN_DURATION) < 0) {
+            return UNUSABLE_GAP_PENALTY + g.toMinutes();
+        }
+        return g.toMinutes();
+    }
+}
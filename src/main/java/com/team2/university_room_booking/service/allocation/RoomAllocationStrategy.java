@@ -0,0 +1,28 @@
+package com.team2.university_room_booking.service.allocation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Decides which of several free rooms an auto-selected booking gets. Implementations are Spring
+ * beans; the one named by {@code booking.allocation.strategy} is used.
+ */
+public interface RoomAllocationStrategy {
+
+    /**
+     * Name used to select the strategy in configuration.
+     */
+    String name();
+
+    /**
+     * Picks one room from {@code freeRooms}, all of which are free for the requested window and
+     * seat the requested attendees. Never called with an empty list.
+     */
+    RoomCandidate choose(List<RoomCandidate> freeRooms, AllocationRequest request);
+
+    record RoomCandidate(Long roomId, int capacity) {
+    }
+
+    record AllocationRequest(LocalDateTime start, LocalDateTime end, int attendeeCount) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.team2.university_room_booking.service.allocation;
+
+import com.team2.university_room_booking.service.allocation.RoomAllocationStrategy.AllocationRequest;
+import com.team2.university_room_booking.service.allocation.RoomAllocationStrategy.RoomCandidate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the allocation strategy selected by {@code booking.allocation.strategy}.
+ */
+@Slf4j
+@Component
+public class RoomAllocator {
+
+    private final RoomAllocationStrategy strategy;
+
+    public RoomAllocator(List<RoomAllocationStrategy> strategies,
+                         @Value("${booking.allocation.strategy:best-fit}") String strategyName) {
+        this.strategy = strategies.stream()
+                .filter(s -> s.name().equals(strategyName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown booking.allocation.strategy '" + strategyName
+                        + "', expected one of " + strategies.stream().map(RoomAllocationStrategy::name).collect(Collectors.toList())));
+        log.info("booking.allocation.strategy name={}", strategy.name());
+    }
+
+    public String strategyName() {
+        return strategy.name();
+    }
+
+    public RoomCandidate choose(List<RoomCandidate> freeRooms, AllocationRequest request) {
+        return freeRooms.isEmpty() ? null : strategy.choose(freeRooms, request);
+    }
+}
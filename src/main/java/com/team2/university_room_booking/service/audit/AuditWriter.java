@@ -0,0 +1,375 @@
+package com.team2.university_room_booking.service.audit;
+
+import com.team2.university_room_booking.dto.response.AuditWriterStatsDto;
+import com.team2.university_room_booking.model.BookingAuditOutboxEntry;
+import com.team2.university_room_booking.model.BookingHistory;
+import com.team2.university_room_booking.repository.BookingAuditOutboxRepository;
+import com.team2.university_room_booking.repository.BookingHistoryRepository;
+import com.team2.university_room_booking.repository.BookingRepository;
+import com.team2.university_room_booking.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous booking audit pipeline. The entries of a transaction are stored in the
+ * booking_audit_outbox table with one batched {@code saveAll} just before it commits, so they
+ * commit or roll back with the change they record and survive a crash. Once committed their ids go
+ * on a bounded queue, and a background writer moves them to booking_history in batches of
+ * {@code booking.audit.batch-size}, or whatever has queued up after
+ * {@code booking.audit.flush-interval-ms}.
+ * <p>
+ * Entries that find the queue full, or are left over by a crash or a failed flush, stay in the
+ * outbox and are picked up by a sweep once the application is ready and then every
+ * {@code booking.audit.sweep-interval-seconds}. The outbox rows are locked and deleted in the
+ * transaction that writes their history rows, so each entry is written once.
+ */
+@Slf4j
+@Component
+public class AuditWriter {
+
+    private final BookingAuditOutboxRepository outboxRepository;
+    private final BookingHistoryRepository bookingHistoryRepository;
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration sweepInterval;
+    private final BlockingQueue<Long> queue;
+    // Ids waiting in the queue or being flushed, so the sweep does not queue them again
+    private final Set<Long> inQueue = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private ExecutorService executor;
+    private volatile boolean running = true;
+
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong entriesWritten = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+
+    public AuditWriter(BookingAuditOutboxRepository outboxRepository,
+                       BookingHistoryRepository bookingHistoryRepository,
+                       BookingRepository bookingRepository,
+                       UserRepository userRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${booking.audit.batch-size:50}") int batchSize,
+                       @Value("${booking.audit.queue-capacity:10000}") int queueCapacity,
+                       @Value("${booking.audit.flush-interval-ms:200}") long flushIntervalMillis,
+                       @Value("${booking.audit.sweep-interval-seconds:30}") long sweepIntervalSeconds) {
+        if (batchSize < 1 || queueCapacity < 1 || flushIntervalMillis < 1 || sweepIntervalSeconds < 1) {
+            throw new IllegalArgumentException("booking.audit batch-size, queue-capacity, flush-interval-ms and sweep-interval-seconds must be positive");
+        }
+        this.outboxRepository = outboxRepository;
+        this.bookingHistoryRepository = bookingHistoryRepository;
+        this.bookingRepository = bookingRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Only locks and deletes outbox rows by id, so it needs nothing stronger
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.batchSize = batchSize;
+        this.flushInterval = Duration.ofMillis(flushIntervalMillis);
+        this.sweepInterval = Duration.ofSeconds(sweepIntervalSeconds);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Starts the writer and the sweep, which first queues whatever a previous run left in the outbox.
+     * Entries committed earlier wait in the queue until then.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "booking-audit-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::drain);
+        executor.execute(this::sweep);
+    }
+
+    public void append(BookingHistory entry) {
+        appendAll(List.of(entry));
+    }
+
+    public void appendAll(Collection<BookingHistory> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            enqueue(outboxRepository.saveAll(toOutbox(entries)));
+            return;
+        }
+
+        TransactionBuffer buffer = currentBuffer();
+        buffer.entries.addAll(toOutbox(entries));
+        if (buffer.entries.size() >= batchSize) {
+            buffer.write();
+        }
+    }
+
+    /**
+     * Writes everything queued so far to booking_history on the calling thread.
+     */
+    public void flushQueued() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    public AuditWriterStatsDto stats() {
+        long count = flushes.get();
+        return new AuditWriterStatsDto(
+                queue.size(),
+                queue.size() + queue.remainingCapacity(),
+                overflowed.get(),
+                count,
+                failedFlushes.get(),
+                entriesWritten.get(),
+                lastFlushNanos / 1_000_000.0,
+                maxFlushNanos.get() / 1_000_000.0,
+                count == 0 ? 0 : totalFlushNanos.get() / 1_000_000.0 / count);
+    }
+
+    private TransactionBuffer currentBuffer() {
+        TransactionBuffer buffer = (TransactionBuffer) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            buffer = new TransactionBuffer();
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager.registerSynchronization(buffer);
+        }
+        return buffer;
+    }
+
+    private void enqueue(List<BookingAuditOutboxEntry> saved) {
+        int left = 0;
+        for (BookingAuditOutboxEntry entry : saved) {
+            inQueue.add(entry.getId());
+            if (!queue.offer(entry.getId())) {
+                inQueue.remove(entry.getId());
+                left++;
+            }
+        }
+        if (left > 0) {
+            // Committed in the outbox, so the sweep writes them later
+            overflowed.addAndGet(left);
+            log.warn("booking.audit.queue.full left={}", left);
+        }
+    }
+
+    private void drain() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Long first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || wait <= 0) {
+                        break;
+                    }
+                    Long next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    // Shutting down: keep draining what was already queued
+                    continue;
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Copies the listed outbox entries to booking_history and deletes them in one transaction.
+     * Entries another flush has already written are no longer in the outbox and are skipped.
+     */
+    private void flush(List<Long> ids) {
+        long start = System.nanoTime();
+        try {
+            Integer written = transactionTemplate.execute(tx -> {
+                List<BookingAuditOutboxEntry> locked = outboxRepository.findAllByIdForUpdate(ids);
+                if (locked.isEmpty()) {
+                    return 0;
+                }
+                bookingHistoryRepository.saveAll(locked.stream().map(this::toHistory).toList());
+                outboxRepository.deleteAllInBatch(locked);
+                return locked.size();
+            });
+            long elapsed = System.nanoTime() - start;
+            flushes.incrementAndGet();
+            entriesWritten.addAndGet(written);
+            totalFlushNanos.addAndGet(elapsed);
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+            lastFlushNanos = elapsed;
+            log.debug("booking.audit.flush size={} written={} millis={}", ids.size(), written, elapsed / 1_000_000);
+        } catch (RuntimeException e) {
+            // Still in the outbox, so the sweep queues them again
+            failedFlushes.incrementAndGet();
+            log.error("booking.audit.flush.failed size={}", ids.size(), e);
+        } finally {
+            ids.forEach(inQueue::remove);
+        }
+    }
+
+    /**
+     * Queues outbox entries that are in no queue here: on start every one of them, afterwards those
+     * older than the sweep interval. Entries another instance is still flushing may be queued too;
+     * each is written only once.
+     */
+    private void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now();
+        while (running) {
+            int queuedAgain = 0;
+            try {
+                for (Long id : outboxRepository.findIdsRecordedBefore(cutoff)) {
+                    if (!running) {
+                        return;
+                    }
+                    if (inQueue.add(id)) {
+                        queue.put(id);
+                        queuedAgain++;
+                    }
+                }
+                if (queuedAgain > 0) {
+                    log.info("booking.audit.sweep.queued entries={}", queuedAgain);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("booking.audit.sweep.failed queued={}", queuedAgain, e);
+            }
+            try {
+                if (stopped.await(sweepInterval.toMillis(), TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            cutoff = LocalDateTime.now().minus(sweepInterval);
+        }
+    }
+
+    @PreDestroy
+    synchronized void shutdown() throws InterruptedException {
+        running = false;
+        stopped.countDown();
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static List<BookingAuditOutboxEntry> toOutbox(Collection<BookingHistory> entries) {
+        List<BookingAuditOutboxEntry> outbox = new ArrayList<>(entries.size());
+        for (BookingHistory history : entries) {
+            BookingAuditOutboxEntry entry = new BookingAuditOutboxEntry();
+            entry.setBookingId(history.getBooking().getId());
+            entry.setUserId(history.getUser() == null ? null : history.getUser().getId());
+            entry.setActorId(history.getActor() == null ? null : history.getActor().getId());
+            entry.setStatus(history.getStatus());
+            entry.setReason(history.getReason());
+            entry.setTimestamp(history.getTimestamp());
+            outbox.add(entry);
+        }
+        return outbox;
+    }
+
+    private BookingHistory toHistory(BookingAuditOutboxEntry entry) {
+        BookingHistory history = new BookingHistory();
+        history.setBooking(bookingRepository.getReferenceById(entry.getBookingId()));
+        history.setUser(entry.getUserId() == null ? null : userRepository.getReferenceById(entry.getUserId()));
+        history.setActor(entry.getActorId() == null ? null : userRepository.getReferenceById(entry.getActorId()));
+        history.setStatus(entry.getStatus());
+        history.setReason(entry.getReason());
+        history.setTimestamp(entry.getTimestamp());
+        return history;
+    }
+
+    /**
+     * Outbox entries of one transaction. Only ever touched by the thread running that transaction.
+     */
+    private final class TransactionBuffer implements TransactionSynchronization {
+        private final List<BookingAuditOutboxEntry> entries = new ArrayList<>();
+        private final List<BookingAuditOutboxEntry> saved = new ArrayList<>();
+
+        void write() {
+            if (entries.isEmpty()) {
+                return;
+            }
+            List<BookingAuditOutboxEntry> batch = new ArrayList<>(entries);
+            entries.clear();
+            saved.addAll(outboxRepository.saveAll(batch));
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            write();
+        }
+
+        @Override
+        public void afterCommit() {
+            enqueue(saved);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != STATUS_COMMITTED && !(entries.isEmpty() && saved.isEmpty())) {
+                // The entries describe changes that never happened
+                log.debug("booking.audit.discarded entries={}", entries.size() + saved.size());
+            }
+            entries.clear();
+            saved.clear();
+            TransactionSynchronizationManager.unbindResourceIfPossible(AuditWriter.this);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.team2.university_room_booking.service.catalog;
+
+import com.team2.university_room_booking.enums.RoomType;
+import com.team2.university_room_booking.event.RoomCatalogChangedEvent;
+import com.team2.university_room_booking.model.Room;
+import com.team2.university_room_booking.model.RoomFeature;
+import com.team2.university_room_booking.repository.RoomFeatureRepository;
+import com.team2.university_room_booking.repository.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Immutable in-memory snapshot of all rooms for candidate filtering. Every feature id is mapped to
+ * a bit position and each room keeps its features as a bitset, so "has all required features" is
+ * a bitwise AND. Rooms are grouped by type and sorted by capacity (smallest first). The snapshot
+ * is rebuilt from two queries whenever rooms or features change.
+ */
+@Slf4j
+@Component
+public class RoomCatalog {
+
+    private static final Comparator<CatalogRoom> BY_CAPACITY =
+            Comparator.comparingInt(CatalogRoom::capacity).thenComparing(CatalogRoom::id);
+
+    private final RoomRepository roomRepository;
+    private final RoomFeatureRepository roomFeatureRepository;
+    private volatile Snapshot snapshot;
+
+    public RoomCatalog(RoomRepository roomRepository, RoomFeatureRepository roomFeatureRepository) {
+        this.roomRepository = roomRepository;
+        this.roomFeatureRepository = roomFeatureRepository;
+    }
+
+    /**
+     * A room as seen by the catalog. {@code featureBits} must not be modified.
+     */
+    public record CatalogRoom(Long id, String name, RoomType type, int capacity, boolean available,
+                              Long buildingId, Long departmentId, long[] featureBits) {
+
+        boolean hasAll(long[] required) {
+            for (int i = 0; i < required.length; i++) {
+                long word = i < featureBits.length ? featureBits[i] : 0L;
+                if ((word & required[i]) != required[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private record Snapshot(Map<Long, Integer> featureBits,
+                            Map<Long, CatalogRoom> byId,
+                            Map<String, Long> idByName,
+                            Map<RoomType, List<CatalogRoom>> byType,
+                            List<CatalogRoom> all) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(RoomCatalogChangedEvent event) {
+        log.info("room.catalog.invalidate reason={}", event.getReason());
+        rebuild();
+    }
+
+    /**
+     * Available rooms of the given type (any type when null) that have every required feature,
+     * smallest capacity first. An unknown feature id matches no room.
+     */
+    public List<CatalogRoom> candidates(RoomType type, Set<Long> requiredFeatureIds) {
+        return candidates(type, requiredFeatureIds, 0);
+    }
+
+    /**
+     * Same as {@link #candidates(RoomType, Set)}, limited to rooms seating at least {@code minCapacity}.
+     */
+    public List<CatalogRoom> candidates(RoomType type, Set<Long> requiredFeatureIds, int minCapacity) {
+        Snapshot current = snapshot();
+        long[] required = maskOf(current, requiredFeatureIds);
+        if (required == null) {
+            return List.of();
+        }
+        List<CatalogRoom> pool = type == null ? current.all() : current.byType().getOrDefault(type, List.of());
+        List<CatalogRoom> result = new ArrayList<>();
+        for (CatalogRoom room : pool) {
+            if (room.available() && room.capacity() >= minCapacity && room.hasAll(required)) {
+                result.add(room);
+            }
+        }
+        return result;
+    }
+
+    public Optional<CatalogRoom> find(Long roomId) {
+        return Optional.ofNullable(snapshot().byId().get(roomId));
+    }
+
+    /**
+     * Id of the room with this name. Names are only unique per building, so a name shared by
+     * several rooms is not resolved here.
+     */
+    public Optional<Long> idByName(String name) {
+        return Optional.ofNullable(name == null ? null : snapshot().idByName().get(name));
+    }
+
+    public boolean hasAllFeatures(Long roomId, Set<Long> requiredFeatureIds) {
+        Snapshot current = snapshot();
+        CatalogRoom room = current.byId().get(roomId);
+        long[] required = maskOf(current, requiredFeatureIds);
+        return room != null && required != null && room.hasAll(required);
+    }
+
+    public synchronized void rebuild() {
+        List<RoomFeature> features = roomFeatureRepository.findAll();
+        Map<Long, Integer> featureBits = new HashMap<>();
+        features.stream()
+                .map(RoomFeature::getId)
+                .sorted()
+                .forEach(id -> featureBits.put(id, featureBits.size()));
+        int words = Math.max(1, (featureBits.size() + 63) / 64);
+
+        Map<Long, CatalogRoom> byId = new HashMap<>();
+        Map<String, Long> idByName = new HashMap<>();
+        Set<String> sharedNames = new HashSet<>();
+        Map<RoomType, List<CatalogRoom>> byType = new EnumMap<>(RoomType.class);
+        List<CatalogRoom> all = new ArrayList<>();
+        for (Room room : roomRepository.findAllForCatalog()) {
+            long[] bits = new long[words];
+            if (room.getFeatures() != null) {
+                for (RoomFeature feature : room.getFeatures()) {
+                    Integer bit = featureBits.get(feature.getId());
+                    if (bit != null) {
+                        bits[bit >>> 6] |= 1L << bit;
+                    }
+                }
+            }
+            CatalogRoom entry = new CatalogRoom(room.getId(), room.getName(), room.getType(), room.getCapacity(),
+                    room.isAvailable(), room.getBuilding() == null ? null : room.getBuilding().getId(),
+                    departmentOf(room), bits);
+            byId.put(entry.id(), entry);
+            if (entry.name() != null && idByName.putIfAbsent(entry.name(), entry.id()) != null) {
+                sharedNames.add(entry.name());
+            }
+            all.add(entry);
+            if (entry.type() != null) {
+                byType.computeIfAbsent(entry.type(), t -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        idByName.keySet().removeAll(sharedNames);
+        all.sort(BY_CAPACITY);
+        byType.replaceAll((type, rooms) -> {
+            rooms.sort(BY_CAPACITY);
+            return List.copyOf(rooms);
+        });
+        snapshot = new Snapshot(Map.copyOf(featureBits), Map.copyOf(byId), Map.copyOf(idByName), Collections.unmodifiableMap(byType), List.copyOf(all));
+        log.info("room.catalog.rebuilt rooms={} features={}", all.size(), featureBits.size());
+    }
+
+    private static Long departmentOf(Room room) {
+        if (room.getBuilding() == null || room.getBuilding().getDepartment() == null) {
+            return null;
+        }
+        return room.getBuilding().getDepartment().getId();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    // null when a required feature is unknown, so no room can match
+    private static long[] maskOf(Snapshot snapshot, Set<Long> featureIds) {
+        int words = Math.max(1, (snapshot.featureBits().size() + 63) / 64);
+        long[] mask = new long[words];
+        if (featureIds == null) {
+            return mask;
+        }
+        for (Long featureId : featureIds) {
+            Integer bit = snapshot.featureBits().get(featureId);
+            if (bit == null) {
+                return null;
+            }
+            mask[bit >>> 6] |= 1L << bit;
+        }
+        return mask;
+    }
+}
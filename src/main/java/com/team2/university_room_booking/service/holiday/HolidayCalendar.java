@@ -0,0 +1,224 @@
+package com.team2.university_room_booking.service.holiday;
+
+import com.team2.university_room_booking.enums.HolidayRecurrence;
+import com.team2.university_room_booking.event.HolidayChangedEvent;
+import com.team2.university_room_booking.model.Holiday;
+import com.team2.university_room_booking.repository.HolidayRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.MonthDay;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The holiday table held in memory so booking checks never query it. One-off holidays are kept in
+ * an immutable map sorted by start time; any holiday overlapping {@code [start, end)} starts in
+ * {@code (start - longest, end)}, so a lookup is one seek plus a short scan.
+ * <p>
+ * Recurring holidays are stored once as rules and expanded lazily, one calendar year at a time,
+ * into the same kind of sorted map. Expanded years near the current one are cached on the snapshot,
+ * so a check only expands the year or two its window touches, and only the first time.
+ * <p>
+ * The whole snapshot is rebuilt and swapped atomically after a holiday change commits, so readers
+ * always see either the old or the new table, never a mix.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HolidayCalendar {
+
+    // Years cached around the current one; anything further out is expanded per call
+    static final int CACHED_YEARS_BEHIND = 1;
+    static final int CACHED_YEARS_AHEAD = 5;
+
+    private final HolidayRepository holidayRepository;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public record HolidayPeriod(Long id, String name, LocalDateTime start, LocalDateTime end) {
+
+        public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+            return start.isBefore(to) && end.isAfter(from);
+        }
+    }
+
+    private record Key(LocalDateTime start, long id) {
+    }
+
+    private record HolidayRule(long id, String name, HolidayRecurrence recurrence,
+                               LocalDateTime first, Duration length, Integer endYear) {
+
+        Optional<HolidayPeriod> occurrenceIn(int year) {
+            if (year < first.getYear() || (endYear != null && year > endYear)) {
+                return Optional.empty();
+            }
+            LocalDate date = switch (recurrence) {
+                case YEARLY_FIXED_DATE -> MonthDay.from(first).atYear(year);
+                case YEARLY_NTH_WEEKDAY -> nthWeekday(year);
+                case NONE -> null;
+            };
+            if (date == null) {
+                return Optional.empty();
+            }
+            LocalDateTime start = date.atTime(first.toLocalTime());
+            return Optional.of(new HolidayPeriod(id, name, start, start.plus(length)));
+        }
+
+        private LocalDate nthWeekday(int year) {
+            int ordinal = (first.getDayOfMonth() - 1) / 7 + 1;
+            LocalDate month = LocalDate.of(year, first.getMonth(), 1);
+            return ordinal >= 5
+                    ? month.with(TemporalAdjusters.lastInMonth(first.getDayOfWeek()))
+                    : month.with(TemporalAdjusters.dayOfWeekInMonth(ordinal, first.getDayOfWeek()));
+        }
+    }
+
+    private record Snapshot(NavigableMap<Key, HolidayPeriod> oneOff, Duration longestOneOff,
+                            List<HolidayRule> rules, Duration longestRule,
+                            ConcurrentMap<Integer, NavigableMap<Key, HolidayPeriod>> years) {
+    }
+
+    private static final Comparator<Key> KEY_ORDER =
+            Comparator.comparing(Key::start).thenComparingLong(Key::id);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHolidayChanged(HolidayChangedEvent event) {
+        log.info("holiday.calendar.invalidate reason={}", event.getReason());
+        reload();
+    }
+
+    /**
+     * Holidays, including occurrences of recurring ones, overlapping {@code [start, end)}, in start order.
+     */
+    public List<HolidayPeriod> overlapping(LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            return List.of();
+        }
+        Snapshot current = snapshot();
+        List<HolidayPeriod> result = new ArrayList<>();
+        collect(current.oneOff(), current.longestOneOff(), start, end, result);
+        if (!current.rules().isEmpty()) {
+            int lastYear = end.getYear();
+            for (int year = start.minus(current.longestRule()).getYear(); year <= lastYear; year++) {
+                collect(occurrences(current, year), current.longestRule(), start, end, result);
+            }
+            result.sort(Comparator.comparing(HolidayPeriod::start));
+        }
+        return result;
+    }
+
+    public Optional<HolidayPeriod> firstOverlapping(LocalDateTime start, LocalDateTime end) {
+        List<HolidayPeriod> holidays = overlapping(start, end);
+        return holidays.isEmpty() ? Optional.empty() : Optional.of(holidays.get(0));
+    }
+
+    /**
+     * Occurrences of one holiday, recurring or not, overlapping {@code [start, end)}, in start order.
+     * Works on a holiday that is not (yet) part of the calendar.
+     */
+    static List<HolidayPeriod> occurrencesOf(Holiday holiday, LocalDateTime start, LocalDateTime end) {
+        if (holiday.getStartDate() == null || holiday.getEndDate() == null || !holiday.getStartDate().isBefore(holiday.getEndDate())) {
+            return List.of();
+        }
+        if (holiday.getRecurrence() == null || holiday.getRecurrence() == HolidayRecurrence.NONE) {
+            HolidayPeriod period = new HolidayPeriod(holiday.getId(), holiday.getName(), holiday.getStartDate(), holiday.getEndDate());
+            return period.overlaps(start, end) ? List.of(period) : List.of();
+        }
+        Duration length = Duration.between(holiday.getStartDate(), holiday.getEndDate());
+        HolidayRule rule = new HolidayRule(holiday.getId() == null ? 0L : holiday.getId(), holiday.getName(),
+                holiday.getRecurrence(), holiday.getStartDate(), length, holiday.getRecurrenceEndYear());
+        List<HolidayPeriod> result = new ArrayList<>();
+        for (int year = start.minus(length).getYear(); year <= end.getYear(); year++) {
+            rule.occurrenceIn(year).filter(period -> period.overlaps(start, end)).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    public synchronized void reload() {
+        NavigableMap<Key, HolidayPeriod> oneOff = new TreeMap<>(KEY_ORDER);
+        Duration longestOneOff = Duration.ZERO;
+        List<HolidayRule> rules = new ArrayList<>();
+        Duration longestRule = Duration.ZERO;
+        for (Holiday holiday : holidayRepository.findAll()) {
+            if (holiday.getStartDate() == null || holiday.getEndDate() == null || !holiday.getStartDate().isBefore(holiday.getEndDate())) {
+                continue;
+            }
+            long id = holiday.getId() == null ? 0L : holiday.getId();
+            Duration length = Duration.between(holiday.getStartDate(), holiday.getEndDate());
+            if (holiday.getRecurrence() == null || holiday.getRecurrence() == HolidayRecurrence.NONE) {
+                oneOff.put(new Key(holiday.getStartDate(), id),
+                        new HolidayPeriod(holiday.getId(), holiday.getName(), holiday.getStartDate(), holiday.getEndDate()));
+                longestOneOff = max(longestOneOff, length);
+            } else {
+                rules.add(new HolidayRule(id, holiday.getName(), holiday.getRecurrence(),
+                        holiday.getStartDate(), length, holiday.getRecurrenceEndYear()));
+                longestRule = max(longestRule, length);
+            }
+        }
+        snapshot.set(new Snapshot(Collections.unmodifiableNavigableMap(oneOff), longestOneOff,
+                List.copyOf(rules), longestRule, new ConcurrentHashMap<>()));
+        log.info("holiday.calendar.loaded holidays={} rules={}", oneOff.size(), rules.size());
+    }
+
+    private NavigableMap<Key, HolidayPeriod> occurrences(Snapshot current, int year) {
+        int thisYear = LocalDate.now().getYear();
+        if (year < thisYear - CACHED_YEARS_BEHIND || year > thisYear + CACHED_YEARS_AHEAD) {
+            return expand(current.rules(), year);
+        }
+        return current.years().computeIfAbsent(year, y -> expand(current.rules(), y));
+    }
+
+    private static NavigableMap<Key, HolidayPeriod> expand(List<HolidayRule> rules, int year) {
+        NavigableMap<Key, HolidayPeriod> byStart = new TreeMap<>(KEY_ORDER);
+        for (HolidayRule rule : rules) {
+            rule.occurrenceIn(year).ifPresent(period -> byStart.put(new Key(period.start(), rule.id()), period));
+        }
+        return Collections.unmodifiableNavigableMap(byStart);
+    }
+
+    private static void collect(NavigableMap<Key, HolidayPeriod> byStart, Duration longest,
+                                LocalDateTime start, LocalDateTime end, List<HolidayPeriod> result) {
+        Key from = new Key(start.minus(longest), Long.MIN_VALUE);
+        Key to = new Key(end, Long.MIN_VALUE);
+        for (HolidayPeriod holiday : byStart.subMap(from, false, to, false).values()) {
+            if (holiday.overlaps(start, end)) {
+                result.add(holiday);
+            }
+        }
+    }
+
+    private static Duration max(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            reload();
+            current = snapshot.get();
+        }
+        return current;
+    }
+}
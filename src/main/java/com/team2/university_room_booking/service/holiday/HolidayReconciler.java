@@ -0,0 +1,161 @@
+package com.team2.university_room_booking.service.holiday;
+
+import com.team2.university_room_booking.dto.response.HolidayImpactDto;
+import com.team2.university_room_booking.event.HolidayChangedEvent;
+import com.team2.university_room_booking.model.Holiday;
+import com.team2.university_room_booking.repository.BookingRepository;
+import com.team2.university_room_booking.repository.HolidayRepository;
+import com.team2.university_room_booking.service.BookingBatchService;
+import com.team2.university_room_booking.service.index.BookingIntervalIndex;
+import com.team2.university_room_booking.service.policy.BookingPolicy;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancels bookings that a newly created or moved holiday falls on. Once the holiday change has
+ * committed, a background job finds every affected booking with one range query per occurrence
+ * and cancels them in batches, one transaction and one audit insert per batch, with the holiday
+ * name as the reason. Only occurrences from now up to the booking horizon can hold bookings.
+ * A batch that fails, usually because another request changed one of its bookings, is retried
+ * with a growing pause before the job gives up on it and logs its booking ids.
+ */
+@Slf4j
+@Service
+public class HolidayReconciler {
+
+    private final HolidayRepository holidayRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingBatchService bookingBatchService;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final ExecutorService executor;
+
+    public HolidayReconciler(HolidayRepository holidayRepository,
+                             BookingRepository bookingRepository,
+                             BookingBatchService bookingBatchService,
+                             @Value("${booking.holiday-reconcile.batch-size:100}") int batchSize,
+                             @Value("${booking.holiday-reconcile.max-attempts:3}") int maxAttempts,
+                             @Value("${booking.holiday-reconcile.retry-backoff-ms:200}") long retryBackoffMs) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("booking.holiday-reconcile.batch-size must be positive");
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("booking.holiday-reconcile.max-attempts must be positive");
+        }
+        this.holidayRepository = holidayRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingBatchService = bookingBatchService;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = Math.max(0, retryBackoffMs);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "holiday-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHolidayChanged(HolidayChangedEvent event) {
+        if (event.getHolidayId() == null) {
+            return;
+        }
+        Long holidayId = event.getHolidayId();
+        executor.execute(() -> {
+            try {
+                reconcile(holidayId);
+            } catch (RuntimeException e) {
+                log.error("holiday.reconcile.failed holidayId={}", holidayId, e);
+            }
+        });
+    }
+
+    /**
+     * How many current bookings the holiday would cancel, without changing anything.
+     */
+    public HolidayImpactDto preview(Holiday holiday) {
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime until = from.plus(BookingPolicy.MAX_HORIZON);
+        long affected = 0;
+        for (HolidayCalendar.HolidayPeriod occurrence : HolidayCalendar.occurrencesOf(holiday, from, until)) {
+            affected += bookingRepository.countOverlapping(BookingIntervalIndex.ACTIVE_STATUSES,
+                    max(occurrence.start(), from), occurrence.end());
+        }
+        return new HolidayImpactDto(affected, from, until);
+    }
+
+    /**
+     * Cancels the bookings overlapping the holiday's occurrences; returns how many were cancelled.
+     */
+    int reconcile(Long holidayId) {
+        Holiday holiday = holidayRepository.findById(holidayId).orElse(null);
+        if (holiday == null) {
+            return 0;
+        }
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime until = from.plus(BookingPolicy.MAX_HORIZON);
+        String reason = "Holiday: " + holiday.getName();
+
+        int cancelled = 0;
+        for (HolidayCalendar.HolidayPeriod occurrence : HolidayCalendar.occurrencesOf(holiday, from, until)) {
+            LocalDateTime start = max(occurrence.start(), from);
+            List<Long> ids = bookingRepository.findIdsOverlapping(BookingIntervalIndex.ACTIVE_STATUSES, start, occurrence.end());
+            for (int i = 0; i < ids.size(); i += batchSize) {
+                List<Long> batch = ids.subList(i, Math.min(i + batchSize, ids.size()));
+                cancelled += cancelBatch(holidayId, batch, start, occurrence.end(), reason);
+            }
+        }
+        log.info("holiday.reconcile.success holidayId={} cancelled={}", holidayId, cancelled);
+        return cancelled;
+    }
+
+    /**
+     * Cancels one batch, retrying a failed attempt after a pause that doubles each time. A batch
+     * that still fails is logged with its ids and skipped so the rest of the holiday is handled;
+     * saving the holiday again reruns the job for whatever it left behind.
+     */
+    private int cancelBatch(Long holidayId, List<Long> batch, LocalDateTime start, LocalDateTime end, String reason) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return bookingBatchService.cancelOverlapping(batch, start, end, reason).size();
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("holiday.reconcile.batch.abandoned holidayId={} attempts={} bookingIds={}",
+                            holidayId, attempt, batch, e);
+                    return 0;
+                }
+                log.warn("holiday.reconcile.batch.retry holidayId={} attempt={} bookings={} reason={}",
+                        holidayId, attempt, batch.size(), e.getMessage());
+            }
+            try {
+                Thread.sleep(retryBackoffMs << (attempt - 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("holiday.reconcile.batch.abandoned holidayId={} attempts={} bookingIds={}",
+                        holidayId, attempt, batch);
+                return 0;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
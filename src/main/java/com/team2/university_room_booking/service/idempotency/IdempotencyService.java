@@ -0,0 +1,285 @@
+package com.team2.university_room_booking.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.team2.university_room_booking.enums.IdempotencyState;
+import com.team2.university_room_booking.exceptions.BadRequestException;
+import com.team2.university_room_booking.exceptions.ResourceConflictException;
+import com.team2.university_room_booking.model.IdempotencyRecord;
+import com.team2.university_room_booking.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs mutations at most once per {@code Idempotency-Key}. Successful responses are kept in a
+ * bounded LRU cache backed by the idempotency_records table, and a retry with the same key, user
+ * and request gets the stored response back without running the mutation again. Failed requests
+ * are not stored, so the client may retry them.
+ * <p>
+ * The key is claimed by inserting a PENDING row before the mutation runs, in the same transaction
+ * that runs the mutation and then completes the row. The primary key therefore decides which
+ * request owns a key across instances: a concurrent duplicate waits on the row and then replays
+ * the committed response, and a mutation whose record cannot be completed is rolled back.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM idempotency_records WHERE record_key = ? AND expires_at < ?";
+    private static final String INSERT_PENDING_SQL =
+            "INSERT INTO idempotency_records (record_key, username, scope, request_hash, state, status_code, created_at, expires_at)"
+                    + " VALUES (?, ?, ?, ?, ?, 0, ?, ?)";
+    private static final String COMPLETE_SQL =
+            "UPDATE idempotency_records SET state = ?, status_code = ?, location = ?, response_body = ?"
+                    + " WHERE record_key = ? AND state = ?";
+
+    private final IdempotencyRecordRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Map<String, IdempotencyRecord> cache;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextPurgeAt = new AtomicLong();
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${booking.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${booking.idempotency.ttl-hours:24}") long ttlHours) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Booking mutations joining this transaction rely on READ COMMITTED for their conflict checks
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Runs {@code action} unless a response for this key is already stored, in which case that
+     * response is returned instead. Without a key the action simply runs.
+     *
+     * @param scope    the operation, e.g. {@code "POST /api/bookings/42/approve"}
+     * @param request  the request body, compared against the one the key was first used with
+     * @param bodyType type the stored response body is read back as
+     */
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String scope, Object request,
+                                         Class<T> bodyType, Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        purgeExpired();
+
+        String username = currentUsername();
+        String recordKey = sha256(scope + '\n' + username + '\n' + idempotencyKey);
+        String requestHash = sha256(toJson(request));
+
+        IdempotencyRecord stored = find(recordKey);
+        if (stored != null) {
+            return replay(stored, requestHash, bodyType);
+        }
+
+        // Fails fast for a duplicate on this instance instead of holding a connection while it waits
+        if (!inFlight.add(recordKey)) {
+            throw inFlight(scope, username);
+        }
+        try {
+            IdempotencyRecord[] completed = new IdempotencyRecord[1];
+            ResponseEntity<T> response = transactionTemplate.execute(tx -> {
+                IdempotencyRecord existing = claim(recordKey, username, scope, requestHash);
+                if (existing != null) {
+                    tx.setRollbackOnly();
+                    return replay(existing, requestHash, bodyType);
+                }
+                ResponseEntity<T> result = action.get();
+                if (!result.getStatusCode().is2xxSuccessful()) {
+                    // Not stored, so the client may retry
+                    tx.setRollbackOnly();
+                    return result;
+                }
+                completed[0] = complete(recordKey, username, scope, requestHash, result);
+                return result;
+            });
+            if (completed[0] != null) {
+                cache.put(recordKey, completed[0]);
+            }
+            return response;
+        } finally {
+            inFlight.remove(recordKey);
+        }
+    }
+
+    /**
+     * Inserts the PENDING row for the key. Returns null when this request now owns the key, or the
+     * stored record when another request committed it first.
+     */
+    private IdempotencyRecord claim(String recordKey, String username, String scope, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        // An expired record that has not been purged yet must not block the key
+        jdbcTemplate.update(DELETE_EXPIRED_SQL, recordKey, Timestamp.valueOf(now));
+        try {
+            jdbcTemplate.update(INSERT_PENDING_SQL, recordKey, username, scope, requestHash,
+                    IdempotencyState.PENDING.name(), Timestamp.valueOf(now), Timestamp.valueOf(now.plus(ttl)));
+            return null;
+        } catch (DataIntegrityViolationException e) {
+            IdempotencyRecord existing = repository.findById(recordKey)
+                    .filter(r -> r.getState() != IdempotencyState.PENDING)
+                    .orElse(null);
+            if (existing == null) {
+                throw inFlight(scope, username);
+            }
+            return existing;
+        } catch (PessimisticLockingFailureException e) {
+            // Gave up waiting for another request holding the same key
+            throw inFlight(scope, username);
+        }
+    }
+
+    /**
+     * Stores the response on the PENDING row inside the mutation's transaction. If the row cannot
+     * be completed the exception rolls the mutation back, so it never runs without its record.
+     */
+    private IdempotencyRecord complete(String recordKey, String username, String scope, String requestHash, ResponseEntity<?> response) {
+        LocalDateTime now = LocalDateTime.now();
+        URI location = response.getHeaders().getLocation();
+        IdempotencyRecord record = new IdempotencyRecord(
+                recordKey,
+                username,
+                scope,
+                requestHash,
+                IdempotencyState.COMPLETED,
+                response.getStatusCode().value(),
+                location == null ? null : location.toString(),
+                response.hasBody() ? toJson(response.getBody()) : null,
+                now,
+                now.plus(ttl));
+        int updated = jdbcTemplate.update(COMPLETE_SQL, IdempotencyState.COMPLETED.name(), record.getStatusCode(),
+                record.getLocation(), record.getResponseBody(), recordKey, IdempotencyState.PENDING.name());
+        if (updated != 1) {
+            log.error("idempotency.complete.failed scope={} username={} updated={}", scope, username, updated);
+            throw new IllegalStateException("Idempotency record could not be completed");
+        }
+        return record;
+    }
+
+    private ResourceConflictException inFlight(String scope, String username) {
+        log.warn("idempotency.in_flight scope={} username={}", scope, username);
+        return new ResourceConflictException("A request with this " + HEADER + " is still being processed");
+    }
+
+    private IdempotencyRecord find(String recordKey) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord cached = cache.get(recordKey);
+        if (cached != null) {
+            if (cached.getExpiresAt().isAfter(now)) {
+                return cached;
+            }
+            cache.remove(recordKey);
+        }
+        IdempotencyRecord persisted = repository.findById(recordKey)
+                .filter(r -> r.getState() != IdempotencyState.PENDING && r.getExpiresAt().isAfter(now))
+                .orElse(null);
+        if (persisted != null) {
+            cache.put(recordKey, persisted);
+        }
+        return persisted;
+    }
+
+    private <T> ResponseEntity<T> replay(IdempotencyRecord stored, String requestHash, Class<T> bodyType) {
+        if (!stored.getRequestHash().equals(requestHash)) {
+            log.warn("idempotency.key.reused scope={} username={}", stored.getScope(), stored.getUsername());
+            throw new BadRequestException(HEADER + " was already used for a different request");
+        }
+        log.info("idempotency.replay scope={} username={}", stored.getScope(), stored.getUsername());
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.getStatusCode())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.getLocation() != null) {
+            builder.location(URI.create(stored.getLocation()));
+        }
+        if (stored.getResponseBody() == null) {
+            return builder.build();
+        }
+        try {
+            return builder.body(objectMapper.readValue(stored.getResponseBody(), bodyType));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response cannot be read", e);
+        }
+    }
+
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        long due = nextPurgeAt.get();
+        if (now < due || !nextPurgeAt.compareAndSet(due, now + Duration.ofMinutes(10).toMillis())) {
+            return;
+        }
+        int purged = repository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("idempotency.purge count={}", purged);
+        }
+    }
+
+    private String currentUsername() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth == null ? "anonymous" : auth.getName();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Value cannot be serialized for idempotency", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
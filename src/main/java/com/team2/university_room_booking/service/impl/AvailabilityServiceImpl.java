@@ -2,31 +2,140 @@ package com.team2.university_room_booking.service.impl;
 
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.team2.university_room_booking.dto.request.AvailabilityRequestDto;
+import com.team2.university_room_booking.dto.request.RoomWindowDto;
+import com.team2.university_room_booking.dto.response.RoomWindowAvailabilityDto;
 import com.team2.university_room_booking.exceptions.BadRequestException;
 import com.team2.university_room_booking.exceptions.ResourceNotFoundException;
+import com.team2.university_room_booking.model.Room;
 import com.team2.university_room_booking.repository.BookingRepository;
 import com.team2.university_room_booking.repository.RoomRepository;
 import com.team2.university_room_booking.service.AvailabilityService;
+import com.team2.university_room_booking.service.catalog.RoomCatalog;
+import com.team2.university_room_booking.service.index.BookingIntervalIndex;
+import com.team2.university_room_booking.service.index.RoomOccupancyBitmaps;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AvailabilityServiceImpl implements AvailabilityService {
     private final RoomRepository roomRepository;
     private final BookingRepository bookingRepository;
+    private final RoomOccupancyBitmaps roomOccupancyBitmaps;
+    private final RoomCatalog roomCatalog;
 
     @Override
     public boolean isRoomAvailable(String roomName, AvailabilityRequestDto dto) {
         if (!dto.getEnd().isAfter(dto.getStart()))
         throw new BadRequestException("End date must be after start date.");
-        
-        roomRepository.findByName(roomName).orElseThrow(() -> new ResourceNotFoundException("Room not found"));
-        
-        long overlaps = bookingRepository.countOverlaps(roomName, dto.getStart(), dto.getEnd());
-        
+
+        // Resolve the name once through the catalog so the overlap query runs on the room_id index
+        Long roomId = roomCatalog.idByName(roomName)
+                .or(() -> roomRepository.findByName(roomName).map(Room::getId))
+                .orElseThrow(() -> new ResourceNotFoundException("Room not found"));
+
+        Optional<Boolean> free = roomOccupancyBitmaps.isFree(roomId, dto.getStart(), dto.getEnd());
+        if (free.isPresent()) {
+            return free.get();
+        }
+
+        long overlaps = bookingRepository.countOverlaps(roomId, BookingIntervalIndex.ACTIVE_STATUSES, dto.getStart(), dto.getEnd());
+
         return overlaps == 0;
     }
+
+    /**
+     * Windows the occupancy bitmaps can answer never reach the database; the rest are answered from
+     * one query returning the bookings of all their rooms across the combined time range.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<RoomWindowAvailabilityDto> areRoomsAvailable(List<RoomWindowDto> windows) {
+        for (RoomWindowDto window : windows) {
+            if (!window.getEnd().isAfter(window.getStart())) {
+                throw new BadRequestException("End date must be after start date for room " + window.getRoomId());
+            }
+        }
+        requireRoomsExist(windows.stream().map(RoomWindowDto::getRoomId).collect(Collectors.toSet()));
+
+        Boolean[] answers = new Boolean[windows.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < windows.size(); i++) {
+            RoomWindowDto window = windows.get(i);
+            answers[i] = roomOccupancyBitmaps.isFree(window.getRoomId(), window.getStart(), window.getEnd()).orElse(null);
+            if (answers[i] == null) {
+                pending.add(i);
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            Set<Long> roomIds = new HashSet<>();
+            LocalDateTime from = null;
+            LocalDateTime to = null;
+            for (int i : pending) {
+                RoomWindowDto window = windows.get(i);
+                roomIds.add(window.getRoomId());
+                from = from == null || window.getStart().isBefore(from) ? window.getStart() : from;
+                to = to == null || window.getEnd().isAfter(to) ? window.getEnd() : to;
+            }
+            Map<Long, List<BookingRepository.BookingSlot>> slotsByRoom = new HashMap<>();
+            for (BookingRepository.BookingSlot slot : bookingRepository.findSlotsForRooms(roomIds, BookingIntervalIndex.ACTIVE_STATUSES, from, to)) {
+                slotsByRoom.computeIfAbsent(slot.getRoomId(), id -> new ArrayList<>()).add(slot);
+            }
+            for (int i : pending) {
+                RoomWindowDto window = windows.get(i);
+                answers[i] = !overlapsAny(slotsByRoom.getOrDefault(window.getRoomId(), List.of()), window.getStart(), window.getEnd());
+            }
+        }
+
+        log.info("availability.bulk windows={} fromDatabase={}", windows.size(), pending.size());
+        List<RoomWindowAvailabilityDto> result = new ArrayList<>(windows.size());
+        for (int i = 0; i < windows.size(); i++) {
+            RoomWindowDto window = windows.get(i);
+            result.add(new RoomWindowAvailabilityDto(window.getRoomId(), window.getStart(), window.getEnd(), answers[i]));
+        }
+        return result;
+    }
+
+    private void requireRoomsExist(Set<Long> roomIds) {
+        Set<Long> unknown = roomIds.stream()
+                .filter(id -> roomCatalog.find(id).isEmpty())
+                .collect(Collectors.toCollection(HashSet::new));
+        if (unknown.isEmpty()) {
+            return;
+        }
+        // The catalog may not have caught up with a room created a moment ago
+        roomRepository.findAllById(unknown).forEach(room -> unknown.remove(room.getId()));
+        if (!unknown.isEmpty()) {
+            throw new ResourceNotFoundException("Rooms not found with ids: " + unknown);
+        }
+    }
+
+    // Slots are sorted by start time
+    private static boolean overlapsAny(List<BookingRepository.BookingSlot> slots, LocalDateTime start, LocalDateTime end) {
+        for (BookingRepository.BookingSlot slot : slots) {
+            if (!slot.getStartTime().isBefore(end)) {
+                return false;
+            }
+            if (slot.getEndTime().isAfter(start)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
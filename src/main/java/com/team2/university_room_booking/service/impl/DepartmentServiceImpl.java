@@ -2,6 +2,7 @@ package com.team2.university_room_booking.service.impl;
 
 import com.team2.university_room_booking.dto.request.CreateDepartmentDto;
 import com.team2.university_room_booking.dto.response.DepartmentDto;
+import com.team2.university_room_booking.event.RoomCatalogChangedEvent;
 import com.team2.university_room_booking.exceptions.BadRequestException;
 import com.team2.university_room_booking.exceptions.ResourceNotFoundException;
 import com.team2.university_room_booking.mapper.DtoMapper;
@@ -10,6 +11,7 @@ import com.team2.university_room_booking.repository.DepartmentRepository;
 import com.team2.university_room_booking.service.DepartmentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +25,7 @@ public class DepartmentServiceImpl implements DepartmentService {
 
     private final DepartmentRepository departmentRepository;
     private final DtoMapper dtoMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     @Override
@@ -43,6 +46,7 @@ public class DepartmentServiceImpl implements DepartmentService {
 
         Department saved = departmentRepository.save(department);
         log.info("Department created successfully with id {}", saved.getId());
+        eventPublisher.publishEvent(new RoomCatalogChangedEvent("department created id=" + saved.getId()));
 
         return dtoMapper.toDepartmentDto(saved);
     }
@@ -92,6 +96,7 @@ public class DepartmentServiceImpl implements DepartmentService {
         Department updated = departmentRepository.save(existing);
 
         log.info("Department updated successfully with id {}", updated.getId());
+        eventPublisher.publishEvent(new RoomCatalogChangedEvent("department updated id=" + updated.getId()));
         return dtoMapper.toDepartmentDto(updated);
     }
 
@@ -106,5 +111,6 @@ public class DepartmentServiceImpl implements DepartmentService {
 
         departmentRepository.deleteById(id);
         log.info("Department deleted successfully with id {}", id);
+        eventPublisher.publishEvent(new RoomCatalogChangedEvent("department deleted id=" + id));
     }
 }
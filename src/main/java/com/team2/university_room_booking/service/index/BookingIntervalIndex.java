@@ -0,0 +1,258 @@
+package com.team2.university_room_booking.service.index;
+
+import com.team2.university_room_booking.enums.BookingStatus;
+import com.team2.university_room_booking.event.BookingChangedEvent;
+import com.team2.university_room_booking.repository.BookingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of PENDING/APPROVED bookings per room, used to answer overlap queries without a
+ * database round trip.
+ * <p>
+ * Intervals are kept in a skip list ordered by start time. Any interval overlapping {@code [start, end)}
+ * must start in {@code (start - longest, end)}, where {@code longest} is the longest interval ever
+ * stored for that room, so a query is a single O(log n) seek plus a short bounded scan.
+ * <p>
+ * The index is loaded once the application is ready and is updated after each booking transaction
+ * commits. Bookings that have ended are dropped by a sweep run at most once a minute as new
+ * intervals arrive. It is an optimisation only: callers keep the database check as the final guard.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+
+    public static final Set<BookingStatus> ACTIVE_STATUSES = Set.of(BookingStatus.PENDING, BookingStatus.APPROVED);
+
+    private static final long SWEEP_INTERVAL_NANOS = Duration.ofMinutes(1).toNanos();
+
+    private final BookingRepository bookingRepository;
+
+    private final ConcurrentMap<Long, RoomIntervals> rooms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, BookedInterval> byBooking = new ConcurrentHashMap<>();
+
+    // Bookings released while the initial load was running; the load must not resurrect them.
+    private final Set<Long> releasedDuringLoad = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+    private volatile boolean loaded;
+    private final AtomicLong nextSweepAt = new AtomicLong(System.nanoTime());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        loading = true;
+        try {
+            List<BookingRepository.BookingSlot> slots =
+                    bookingRepository.findActiveSlots(ACTIVE_STATUSES, LocalDateTime.now());
+            for (BookingRepository.BookingSlot slot : slots) {
+                if (!releasedDuringLoad.contains(slot.getId())) {
+                    put(slot.getId(), slot.getRoomId(), slot.getStartTime(), slot.getEndTime());
+                }
+            }
+            loaded = true;
+            log.info("booking.index.loaded rooms={} bookings={}", rooms.size(), byBooking.size());
+        } finally {
+            loading = false;
+            releasedDuringLoad.clear();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.isActive()) {
+            put(event.getBookingId(), event.getRoomId(), event.getStartTime(), event.getEndTime());
+        } else {
+            remove(event.getBookingId());
+        }
+    }
+
+    /**
+     * Whether the index has been populated from the database. Until it is, a negative answer from
+     * {@link #overlaps} means nothing.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean overlaps(Long roomId, LocalDateTime start, LocalDateTime end) {
+        RoomIntervals intervals = rooms.get(roomId);
+        return intervals != null && intervals.overlaps(start, end);
+    }
+
+    /**
+     * Active intervals of a room overlapping {@code [start, end)}, sorted by start time.
+     */
+    public List<BookedInterval> overlapping(Long roomId, LocalDateTime start, LocalDateTime end) {
+        RoomIntervals intervals = rooms.get(roomId);
+        return intervals == null ? List.of() : intervals.overlapping(start, end);
+    }
+
+    /**
+     * End of the last active booking of the room starting before {@code time}, if any.
+     */
+    public Optional<LocalDateTime> previousEnd(Long roomId, LocalDateTime time) {
+        RoomIntervals intervals = rooms.get(roomId);
+        return intervals == null ? Optional.empty() : intervals.previousEnd(time);
+    }
+
+    /**
+     * Start of the first active booking of the room starting at or after {@code time}, if any.
+     */
+    public Optional<LocalDateTime> nextStart(Long roomId, LocalDateTime time) {
+        RoomIntervals intervals = rooms.get(roomId);
+        return intervals == null ? Optional.empty() : intervals.nextStart(time);
+    }
+
+    /**
+     * Counter bumped after every change to the room's intervals, so derived views such as
+     * {@link RoomOccupancyBitmaps} can tell when they are stale.
+     */
+    public long version(Long roomId) {
+        RoomIntervals intervals = rooms.get(roomId);
+        return intervals == null ? 0L : intervals.version.get();
+    }
+
+    public void put(Long bookingId, Long roomId, LocalDateTime start, LocalDateTime end) {
+        if (bookingId == null || roomId == null || start == null || end == null || !start.isBefore(end)) {
+            return;
+        }
+        sweepIfDue();
+        BookedInterval interval = new BookedInterval(bookingId, roomId, start, end);
+        BookedInterval previous = byBooking.put(bookingId, interval);
+        if (previous != null) {
+            roomIntervals(previous.roomId()).remove(previous);
+        }
+        roomIntervals(roomId).add(interval);
+    }
+
+    public void remove(Long bookingId) {
+        if (bookingId == null) {
+            return;
+        }
+        if (loading) {
+            releasedDuringLoad.add(bookingId);
+        }
+        BookedInterval previous = byBooking.remove(bookingId);
+        if (previous != null) {
+            roomIntervals(previous.roomId()).remove(previous);
+        }
+    }
+
+    private void sweepIfDue() {
+        long now = System.nanoTime();
+        long due = nextSweepAt.get();
+        if (now - due >= 0 && nextSweepAt.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+            sweep(LocalDateTime.now());
+        }
+    }
+
+    // Drops bookings that ended by now, as the initial load skips them too
+    void sweep(LocalDateTime now) {
+        int dropped = 0;
+        for (BookedInterval interval : byBooking.values()) {
+            if (!interval.end().isAfter(now) && byBooking.remove(interval.bookingId(), interval)) {
+                roomIntervals(interval.roomId()).remove(interval);
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            log.debug("booking.index.sweep dropped={} remaining={}", dropped, byBooking.size());
+        }
+    }
+
+    private RoomIntervals roomIntervals(Long roomId) {
+        return rooms.computeIfAbsent(roomId, id -> new RoomIntervals());
+    }
+
+    public record BookedInterval(Long bookingId, Long roomId, LocalDateTime start, LocalDateTime end) {
+    }
+
+    private record Key(LocalDateTime start, long bookingId) {
+    }
+
+    private static final Comparator<Key> KEY_ORDER =
+            Comparator.comparing(Key::start).thenComparingLong(Key::bookingId);
+
+    private static final class RoomIntervals {
+
+        private final ConcurrentSkipListMap<Key, BookedInterval> byStart = new ConcurrentSkipListMap<>(KEY_ORDER);
+        // Only ever grows; a stale upper bound just widens the scan window a little.
+        private volatile Duration longest = Duration.ZERO;
+        private final AtomicLong version = new AtomicLong();
+
+        void add(BookedInterval interval) {
+            Duration length = Duration.between(interval.start(), interval.end());
+            synchronized (this) {
+                if (length.compareTo(longest) > 0) {
+                    longest = length;
+                }
+            }
+            byStart.put(new Key(interval.start(), interval.bookingId()), interval);
+            version.incrementAndGet();
+        }
+
+        void remove(BookedInterval interval) {
+            byStart.remove(new Key(interval.start(), interval.bookingId()));
+            version.incrementAndGet();
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            for (BookedInterval candidate : window(start, end).values()) {
+                if (candidate.end().isAfter(start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        List<BookedInterval> overlapping(LocalDateTime start, LocalDateTime end) {
+            List<BookedInterval> result = new ArrayList<>();
+            for (BookedInterval candidate : window(start, end).values()) {
+                if (candidate.end().isAfter(start)) {
+                    result.add(candidate);
+                }
+            }
+            return result;
+        }
+
+        // Bookings of one room never overlap, so the latest start before time also has the latest end
+        Optional<LocalDateTime> previousEnd(LocalDateTime time) {
+            Map.Entry<Key, BookedInterval> entry = byStart.lowerEntry(new Key(time, Long.MIN_VALUE));
+            return entry == null ? Optional.empty() : Optional.of(entry.getValue().end());
+        }
+
+        Optional<LocalDateTime> nextStart(LocalDateTime time) {
+            Key key = byStart.ceilingKey(new Key(time, Long.MIN_VALUE));
+            return key == null ? Optional.empty() : Optional.of(key.start());
+        }
+
+        private NavigableMap<Key, BookedInterval> window(LocalDateTime start, LocalDateTime end) {
+            Key from = new Key(start.minus(longest), Long.MIN_VALUE);
+            Key to = new Key(end, Long.MIN_VALUE);
+            if (KEY_ORDER.compare(from, to) >= 0) {
+                return Collections.emptyNavigableMap();
+            }
+            return byStart.subMap(from, false, to, false);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.team2.university_room_booking.service.index;
+
+import com.team2.university_room_booking.dto.response.AvailableRoomTimesDto;
+import com.team2.university_room_booking.service.policy.BookingPolicy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Occupancy of each room per day as a 96-bit bitmap of 15 minute slots, derived from
+ * {@link BookingIntervalIndex}. A slot's bit is set when any active booking touches it.
+ * <p>
+ * A room-day bitmap is rebuilt from the index only when that room's bookings have changed since it
+ * was built, so created, approved, cancelled and rejected bookings are picked up on the next read.
+ * Only days from today up to {@link BookingPolicy#MAX_HORIZON} are cached; past days are evicted.
+ * <p>
+ * An empty bitmap window proves a room free. Free-slot lists are only served from bitmaps for days
+ * where every booking is slot-aligned; otherwise callers fall back to their exact query.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomOccupancyBitmaps {
+
+    static final int SLOT_MINUTES = 15;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final int WORDS = (SLOTS_PER_DAY + 63) / 64;
+    private static final long SLOT_NANOS = Duration.ofMinutes(SLOT_MINUTES).toNanos();
+
+    private final BookingIntervalIndex bookingIntervalIndex;
+
+    private final ConcurrentMap<DayKey, DayBitmap> days = new ConcurrentHashMap<>();
+    private final AtomicReference<LocalDate> evictedBefore = new AtomicReference<>(LocalDate.MIN);
+
+    /**
+     * Whether the room has no active booking overlapping {@code [start, end)}, or empty when the
+     * window is outside the cached days.
+     */
+    public Optional<Boolean> isFree(Long roomId, LocalDateTime start, LocalDateTime end) {
+        if (!cacheable(start, end)) {
+            return Optional.empty();
+        }
+        for (LocalDate date = start.toLocalDate(); date.atStartOfDay().isBefore(end); date = date.plusDays(1)) {
+            DayBitmap day = day(roomId, date);
+            long[] window = window(date, start, end);
+            if (!intersects(day.bits(), window)) {
+                continue;
+            }
+            if (day.exact()) {
+                return Optional.of(false);
+            }
+            // A touched slot only means "maybe" when bookings are not slot-aligned
+            return Optional.of(!bookingIntervalIndex.overlaps(roomId, start, end));
+        }
+        return Optional.of(true);
+    }
+
+    /**
+     * Free periods of the room within {@code [start, end)}, in order, or empty when they cannot be
+     * read exactly from the bitmaps.
+     */
+    public Optional<List<AvailableRoomTimesDto>> freeSlots(Long roomId, LocalDateTime start, LocalDateTime end) {
+        if (!cacheable(start, end)) {
+            return Optional.empty();
+        }
+        List<AvailableRoomTimesDto> free = new ArrayList<>();
+        for (LocalDate date = start.toLocalDate(); date.atStartOfDay().isBefore(end); date = date.plusDays(1)) {
+            DayBitmap day = day(roomId, date);
+            if (!day.exact()) {
+                return Optional.empty();
+            }
+            LocalDateTime dayStart = date.atStartOfDay();
+            int from = slotFloor(dayStart, max(start, dayStart));
+            int to = slotCeil(dayStart, min(end, dayStart.plusDays(1)));
+            for (int clear = nextClear(day.bits(), from, to); clear < to; ) {
+                int set = nextSet(day.bits(), clear, to);
+                LocalDateTime runStart = max(start, dayStart.plusMinutes((long) clear * SLOT_MINUTES));
+                LocalDateTime runEnd = min(end, dayStart.plusMinutes((long) set * SLOT_MINUTES));
+                AvailableRoomTimesDto last = free.isEmpty() ? null : free.get(free.size() - 1);
+                if (last != null && last.getEnd().equals(runStart)) {
+                    last.setEnd(runEnd);
+                } else {
+                    free.add(new AvailableRoomTimesDto(runStart, runEnd));
+                }
+                clear = nextClear(day.bits(), set, to);
+            }
+        }
+        return Optional.of(free);
+    }
+
+    int cachedDays() {
+        return days.size();
+    }
+
+    private boolean cacheable(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime now = LocalDateTime.now();
+        evictPastDays(now.toLocalDate());
+        // Bookings that ended before startup are not in the index, so past windows are not answered
+        return bookingIntervalIndex.isLoaded()
+                && !start.isBefore(now)
+                && start.isBefore(end)
+                && !end.isAfter(now.toLocalDate().plusDays(BookingPolicy.MAX_HORIZON.toDays() + 1).atStartOfDay());
+    }
+
+    private DayBitmap day(Long roomId, LocalDate date) {
+        DayKey key = new DayKey(roomId, date);
+        // Read the version before the intervals: a change racing the rebuild leaves a stale version
+        long version = bookingIntervalIndex.version(roomId);
+        DayBitmap cached = days.get(key);
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+        DayBitmap built = build(roomId, date, version);
+        days.put(key, built);
+        return built;
+    }
+
+    private DayBitmap build(Long roomId, LocalDate date, long version) {
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = dayStart.plusDays(1);
+        long[] bits = new long[WORDS];
+        boolean exact = true;
+        for (BookingIntervalIndex.BookedInterval booking : bookingIntervalIndex.overlapping(roomId, dayStart, dayEnd)) {
+            exact &= aligned(booking.start()) && aligned(booking.end());
+            setRange(bits, slotFloor(dayStart, max(booking.start(), dayStart)), slotCeil(dayStart, min(booking.end(), dayEnd)));
+        }
+        return new DayBitmap(version, exact, bits);
+    }
+
+    private void evictPastDays(LocalDate today) {
+        LocalDate previous = evictedBefore.get();
+        if (previous.isBefore(today) && evictedBefore.compareAndSet(previous, today)) {
+            days.keySet().removeIf(key -> key.date().isBefore(today));
+            log.debug("room.occupancy.evicted before={} cached={}", today, days.size());
+        }
+    }
+
+    private static long[] window(LocalDate date, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime dayStart = date.atStartOfDay();
+        long[] mask = new long[WORDS];
+        setRange(mask, slotFloor(dayStart, max(start, dayStart)), slotCeil(dayStart, min(end, dayStart.plusDays(1))));
+        return mask;
+    }
+
+    private static boolean intersects(long[] bits, long[] mask) {
+        for (int w = 0; w < WORDS; w++) {
+            if ((bits[w] & mask[w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Sets bits [from, to)
+    private static void setRange(long[] bits, int from, int to) {
+        for (int w = from >>> 6; from < to; w++) {
+            int wordEnd = Math.min(to, (w + 1) << 6);
+            int width = wordEnd - from;
+            long run = width == 64 ? -1L : ((1L << width) - 1);
+            bits[w] |= run << (from & 63);
+            from = wordEnd;
+        }
+    }
+
+    private static int nextSet(long[] bits, int from, int to) {
+        return nextMatching(bits, from, to, false);
+    }
+
+    private static int nextClear(long[] bits, int from, int to) {
+        return nextMatching(bits, from, to, true);
+    }
+
+    private static int nextMatching(long[] bits, int from, int to, boolean clear) {
+        for (int w = from >>> 6; from < to; w++) {
+            long word = (clear ? ~bits[w] : bits[w]) & (-1L << (from & 63));
+            if (word != 0) {
+                return Math.min(to, (w << 6) + Long.numberOfTrailingZeros(word));
+            }
+            from = (w + 1) << 6;
+        }
+        return to;
+    }
+
+    private static int slotFloor(LocalDateTime dayStart, LocalDateTime time) {
+        return (int) (Duration.between(dayStart, time).toNanos() / SLOT_NANOS);
+    }
+
+    private static int slotCeil(LocalDateTime dayStart, LocalDateTime time) {
+        return (int) ((Duration.between(dayStart, time).toNanos() + SLOT_NANOS - 1) / SLOT_NANOS);
+    }
+
+    private static boolean aligned(LocalDateTime time) {
+        return Duration.between(time.toLocalDate().atStartOfDay(), time).toNanos() % SLOT_NANOS == 0;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private record DayKey(Long roomId, LocalDate date) {
+    }
+
+    private record DayBitmap(long version, boolean exact, long[] bits) {
+    }
+}
@@ -0,0 +1,170 @@
+package com.team2.university_room_booking.service.intake;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.team2.university_room_booking.dto.request.CreateBookingRequestDto;
+import com.team2.university_room_booking.dto.response.BatchBookingItemResultDto;
+import com.team2.university_room_booking.enums.BatchItemStatus;
+import com.team2.university_room_booking.enums.IntakeStatus;
+import com.team2.university_room_booking.model.BookingIntakeTicket;
+import com.team2.university_room_booking.model.User;
+import com.team2.university_room_booking.repository.BookingIntakeTicketRepository;
+import com.team2.university_room_booking.repository.UserRepository;
+import com.team2.university_room_booking.service.BookingBatchService;
+import com.team2.university_room_booking.service.BookingBatchService.OwnedBookingRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The booking_intake_tickets table behind the asynchronous intake. A ticket row is written before
+ * the request is acknowledged, and it is completed in the same transaction that inserts its
+ * booking, so a crash either leaves it PENDING to be processed again or finished, never both.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingIntakeOutbox {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final BookingIntakeTicketRepository ticketRepository;
+    private final UserRepository userRepository;
+    private final BookingBatchService bookingBatchService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stores a new PENDING ticket for the request.
+     */
+    public BookingIntakeTicket accept(CreateBookingRequestDto request, User owner) {
+        BookingIntakeTicket ticket = new BookingIntakeTicket();
+        ticket.setId(UUID.randomUUID().toString());
+        ticket.setOwnerId(owner.getId());
+        ticket.setRoomId(request.getRoomId());
+        ticket.setPayload(toJson(request));
+        ticket.setStatus(IntakeStatus.PENDING);
+        ticket.setSubmittedAt(LocalDateTime.now());
+        return ticketRepository.save(ticket);
+    }
+
+    /**
+     * Removes a ticket that was never acknowledged.
+     */
+    public void discard(String ticketId) {
+        ticketRepository.deleteById(ticketId);
+    }
+
+    public Optional<BookingIntakeTicket> find(String ticketId) {
+        return ticketRepository.findById(ticketId);
+    }
+
+    public List<BookingIntakeTicket> findPendingSubmittedBefore(LocalDateTime cutoff) {
+        return ticketRepository.findByStatusAndSubmittedAtBeforeOrderBySubmittedAt(IntakeStatus.PENDING, cutoff);
+    }
+
+    public int purgeFinishedBefore(LocalDateTime cutoff) {
+        return ticketRepository.deleteFinishedBefore(IntakeStatus.PENDING, cutoff);
+    }
+
+    /**
+     * Creates the bookings of the listed tickets and completes the tickets in one transaction.
+     * The ticket rows are locked first and only those still PENDING are processed, so a ticket
+     * delivered twice, e.g. once from the queue and once by recovery, is booked only once.
+     *
+     * @return the tickets completed by this call, in the order given
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<BookingIntakeTicket> commit(List<String> ticketIds) {
+        Map<String, BookingIntakeTicket> locked = ticketRepository.findAllByIdForUpdate(ticketIds).stream()
+                .filter(t -> t.getStatus() == IntakeStatus.PENDING)
+                .collect(Collectors.toMap(BookingIntakeTicket::getId, Function.identity()));
+        if (locked.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ownerIds = locked.values().stream().map(BookingIntakeTicket::getOwnerId).distinct().toList();
+        Map<Long, User> owners = userRepository.findAllById(ownerIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<BookingIntakeTicket> completed = new ArrayList<>(locked.size());
+        List<BookingIntakeTicket> toCreate = new ArrayList<>(locked.size());
+        List<OwnedBookingRequest> requests = new ArrayList<>(locked.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (String ticketId : ticketIds) {
+            BookingIntakeTicket ticket = locked.remove(ticketId);
+            if (ticket == null) {
+                continue;
+            }
+            completed.add(ticket);
+            User owner = owners.get(ticket.getOwnerId());
+            if (owner == null) {
+                complete(ticket, IntakeStatus.FAILED, null, "Owner not found", now);
+                continue;
+            }
+            CreateBookingRequestDto request;
+            try {
+                request = objectMapper.readValue(ticket.getPayload(), CreateBookingRequestDto.class);
+            } catch (JsonProcessingException e) {
+                log.warn("booking.intake.payload.unreadable ticketId={} reason={}", ticket.getId(), e.getMessage());
+                complete(ticket, IntakeStatus.FAILED, null, "Stored request cannot be read", now);
+                continue;
+            }
+            toCreate.add(ticket);
+            requests.add(new OwnedBookingRequest(request, owner));
+        }
+
+        if (!requests.isEmpty()) {
+            for (BatchBookingItemResultDto result : bookingBatchService.createAll(requests)) {
+                BookingIntakeTicket ticket = toCreate.get(result.getIndex());
+                if (result.getStatus() == BatchItemStatus.CREATED) {
+                    complete(ticket, IntakeStatus.CREATED, result.getBookingId(), null, now);
+                } else {
+                    complete(ticket, IntakeStatus.FAILED, null, result.getError(), now);
+                }
+            }
+        }
+        ticketRepository.saveAll(completed);
+        return completed;
+    }
+
+    /**
+     * Marks the listed tickets FAILED, except those another transaction has completed meanwhile.
+     */
+    @Transactional
+    public void fail(List<String> ticketIds, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingIntakeTicket> failed = new ArrayList<>();
+        for (BookingIntakeTicket ticket : ticketRepository.findAllByIdForUpdate(ticketIds)) {
+            if (ticket.getStatus() == IntakeStatus.PENDING) {
+                complete(ticket, IntakeStatus.FAILED, null, error, now);
+                failed.add(ticket);
+            }
+        }
+        ticketRepository.saveAll(failed);
+    }
+
+    private static void complete(BookingIntakeTicket ticket, IntakeStatus status, Long bookingId, String error, LocalDateTime now) {
+        ticket.setBookingId(bookingId);
+        ticket.setError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        ticket.setCompletedAt(now);
+        ticket.setStatus(status);
+    }
+
+    private String toJson(CreateBookingRequestDto request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Booking request cannot be serialized", e);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.team2.university_room_booking.service.intake;
+
+import com.team2.university_room_booking.dto.request.CreateBookingRequestDto;
+import com.team2.university_room_booking.dto.response.BookingTicketDto;
+import com.team2.university_room_booking.enums.Role;
+import com.team2.university_room_booking.exceptions.AccessDeniedException;
+import com.team2.university_room_booking.exceptions.BadRequestException;
+import com.team2.university_room_booking.exceptions.ResourceNotFoundException;
+import com.team2.university_room_booking.exceptions.ServiceUnavailableException;
+import com.team2.university_room_booking.model.BookingIntakeTicket;
+import com.team2.university_room_booking.model.User;
+import com.team2.university_room_booking.service.quota.BookingQuotas;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous booking intake. Requests are queued on one of a fixed number of shards chosen by
+ * room id, and every shard is drained by a single writer thread that commits whatever has queued
+ * up as one batch. Requests for the same room therefore never compete for locks or connections,
+ * and a burst costs one transaction per batch instead of one per request.
+ * <p>
+ * Every request is stored as a ticket in {@link BookingIntakeOutbox} before it is acknowledged, and
+ * the queues only carry ticket ids. Tickets left PENDING by a crash or restart are queued again
+ * once the application is ready, and a periodic sweep picks up any ticket that missed its queue.
+ */
+@Slf4j
+@Service
+public class BookingIntakeService {
+
+    private final BookingIntakeOutbox outbox;
+    private final BookingQuotas bookingQuotas;
+    private final BookingQuotas.Claims queued;
+    private final int maxBatchSize;
+    private final Duration ticketTtl;
+    private final Duration sweepInterval;
+    private final List<BlockingQueue<IntakeJob>> queues;
+    // Tickets waiting in a queue or being committed here, so the sweep does not queue them again
+    private final Set<String> inQueue = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextPurgeAt = new AtomicLong();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private ExecutorService executor;
+    private volatile boolean running = true;
+
+    public BookingIntakeService(BookingIntakeOutbox outbox,
+                                BookingQuotas bookingQuotas,
+                                @Value("${booking.intake.shards:4}") int shards,
+                                @Value("${booking.intake.queue-capacity:1000}") int queueCapacity,
+                                @Value("${booking.intake.max-batch-size:50}") int maxBatchSize,
+                                @Value("${booking.intake.ticket-ttl-minutes:60}") long ticketTtlMinutes,
+                                @Value("${booking.intake.sweep-interval-seconds:30}") long sweepIntervalSeconds) {
+        if (shards < 1 || queueCapacity < 1 || maxBatchSize < 1 || sweepIntervalSeconds < 1) {
+            throw new IllegalArgumentException("booking.intake shards, queue-capacity, max-batch-size and sweep-interval-seconds must be positive");
+        }
+        this.outbox = outbox;
+        this.bookingQuotas = bookingQuotas;
+        this.queued = bookingQuotas.newClaims();
+        this.maxBatchSize = maxBatchSize;
+        this.ticketTtl = Duration.ofMinutes(ticketTtlMinutes);
+        this.sweepInterval = Duration.ofSeconds(sweepIntervalSeconds);
+        this.queues = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            queues.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+    }
+
+    /**
+     * Starts one writer per shard and the sweep, which first queues the tickets still PENDING from
+     * before the restart. Requests accepted earlier simply wait in their queues until the writers start.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(queues.size() + 1, runnable -> {
+            Thread thread = new Thread(runnable, "booking-intake-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (BlockingQueue<IntakeJob> queue : queues) {
+            executor.execute(() -> drain(queue));
+        }
+        executor.execute(this::sweep);
+    }
+
+    /**
+     * Stores the request as a PENDING ticket for the given owner, queues it and returns the ticket.
+     */
+    public BookingTicketDto submit(CreateBookingRequestDto request, User owner) {
+        if (request.getRoomId() == null) {
+            throw new BadRequestException("roomId is required for asynchronous bookings");
+        }
+        // Checked up front, counting the owner's tickets still queued, so an over-quota request never
+        // gets a ticket; the worker checks again when it commits the batch
+        BookingQuotas.Usage claim = bookingQuotas.enforce(owner, request.getRoomId(), request.getStartTime(), request.getEndTime(), queued);
+        purgeExpiredTickets();
+
+        BlockingQueue<IntakeJob> queue = queueFor(request.getRoomId());
+        if (queue.remainingCapacity() == 0) {
+            bookingQuotas.release(queued, claim);
+            throw queueFull(request, owner);
+        }
+        BookingIntakeTicket ticket;
+        try {
+            ticket = outbox.accept(request, owner);
+        } catch (RuntimeException e) {
+            bookingQuotas.release(queued, claim);
+            throw e;
+        }
+        IntakeJob job = new IntakeJob(ticket.getId(), claim);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // The ticket was stored in the caller's transaction; a writer must not look for it before it commits
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED || !enqueue(queue, job)) {
+                        // A committed ticket that did not fit stays PENDING for the sweep
+                        bookingQuotas.release(queued, claim);
+                    }
+                }
+            });
+        } else if (!enqueue(queue, job)) {
+            outbox.discard(ticket.getId());
+            bookingQuotas.release(queued, claim);
+            throw queueFull(request, owner);
+        }
+
+        log.info("booking.intake.accepted ticketId={} roomId={} userId={}", ticket.getId(), request.getRoomId(), owner.getId());
+        return toDto(ticket);
+    }
+
+    /**
+     * Current state of a ticket. Only its owner or an admin may read it.
+     */
+    public BookingTicketDto getTicket(String ticketId, User requester) {
+        BookingIntakeTicket ticket = outbox.find(ticketId)
+                .orElseThrow(() -> new ResourceNotFoundException("Ticket not found or expired"));
+        if (!ticket.getOwnerId().equals(requester.getId()) && requester.getRole() != Role.ADMIN) {
+            throw new AccessDeniedException("You don't have permission to view this ticket");
+        }
+        return toDto(ticket);
+    }
+
+    private BlockingQueue<IntakeJob> queueFor(Long roomId) {
+        return queues.get(Math.floorMod(roomId.hashCode(), queues.size()));
+    }
+
+    private boolean enqueue(BlockingQueue<IntakeJob> queue, IntakeJob job) {
+        inQueue.add(job.ticketId());
+        if (queue.offer(job)) {
+            return true;
+        }
+        inQueue.remove(job.ticketId());
+        return false;
+    }
+
+    private ServiceUnavailableException queueFull(CreateBookingRequestDto request, User owner) {
+        log.warn("booking.intake.queue.full roomId={} userId={}", request.getRoomId(), owner.getId());
+        return new ServiceUnavailableException("Booking intake is at capacity, please retry later");
+    }
+
+    /**
+     * Queues PENDING tickets that are in no queue here: on start every one of them, afterwards those
+     * older than the sweep interval. A ticket another instance is still working on may be queued
+     * too; the outbox books each ticket only once.
+     */
+    private void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now();
+        while (running) {
+            int queuedAgain = 0;
+            try {
+                for (BookingIntakeTicket ticket : outbox.findPendingSubmittedBefore(cutoff)) {
+                    if (!running) {
+                        return;
+                    }
+                    if (inQueue.add(ticket.getId())) {
+                        queueFor(ticket.getRoomId()).put(new IntakeJob(ticket.getId(), null));
+                        queuedAgain++;
+                    }
+                }
+                if (queuedAgain > 0) {
+                    log.info("booking.intake.sweep.queued tickets={}", queuedAgain);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("booking.intake.sweep.failed queued={}", queuedAgain, e);
+            }
+            try {
+                if (stopped.await(sweepInterval.toMillis(), TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            cutoff = LocalDateTime.now().minus(sweepInterval);
+        }
+    }
+
+    private void drain(BlockingQueue<IntakeJob> queue) {
+        List<IntakeJob> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                IntakeJob first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    // Shutting down: keep draining what was already accepted
+                    continue;
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<IntakeJob> batch) {
+        List<String> ticketIds = batch.stream().map(IntakeJob::ticketId).toList();
+        try {
+            int completed = outbox.commit(ticketIds).size();
+            log.info("booking.intake.batch.committed size={} completed={}", batch.size(), completed);
+        } catch (RuntimeException e) {
+            log.warn("booking.intake.batch.failed size={} reason={}", batch.size(), e.getMessage());
+            try {
+                outbox.fail(ticketIds, e.getMessage());
+            } catch (RuntimeException failure) {
+                // Still PENDING in the outbox, so the sweep queues them again
+                log.error("booking.intake.batch.fail.unrecorded size={}", batch.size(), failure);
+            }
+        } finally {
+            // Committed bookings are counted by the quota counters from here on
+            for (IntakeJob job : batch) {
+                inQueue.remove(job.ticketId());
+                bookingQuotas.release(queued, job.claim());
+            }
+        }
+    }
+
+    private void purgeExpiredTickets() {
+        long now = System.currentTimeMillis();
+        long due = nextPurgeAt.get();
+        if (now < due || !nextPurgeAt.compareAndSet(due, now + 60_000)) {
+            return;
+        }
+        int purged = outbox.purgeFinishedBefore(LocalDateTime.now().minus(ticketTtl));
+        if (purged > 0) {
+            log.info("booking.intake.purge count={}", purged);
+        }
+    }
+
+    @PreDestroy
+    synchronized void shutdown() throws InterruptedException {
+        running = false;
+        stopped.countDown();
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static BookingTicketDto toDto(BookingIntakeTicket ticket) {
+        return new BookingTicketDto(ticket.getId(), ticket.getStatus(), ticket.getBookingId(), ticket.getError(), ticket.getSubmittedAt());
+    }
+
+    // Claim is null for tickets queued by the sweep, which hold no in-memory quota claim
+    private record IntakeJob(String ticketId, BookingQuotas.Usage claim) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.team2.university_room_booking.service.lock;
+
+import com.team2.university_room_booking.exceptions.ResourceConflictException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks keyed by room id that serialize the conflict-check-and-insert of bookings for the
+ * same room while letting unrelated rooms proceed in parallel.
+ * <p>
+ * A lock taken through {@link #lockForCurrentTransaction} is held until the surrounding transaction
+ * completes, so a second booking for the same room only runs its conflict check once the first one
+ * is committed (or rolled back) and visible.
+ */
+@Slf4j
+@Component
+public class RoomLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMillis;
+
+    public RoomLockManager(@Value("${booking.lock.stripes:64}") int stripes,
+                           @Value("${booking.lock.timeout-ms:5000}") long timeoutMillis) {
+        // Round up to a power of two so the stripe can be picked with a mask
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    int stripeFor(Long roomId) {
+        int h = Long.hashCode(roomId);
+        h ^= (h >>> 16);
+        return h & (stripes.length - 1);
+    }
+
+    /**
+     * Locks the stripe of the given room until the current transaction completes. Outside a
+     * transaction there is nothing to wait for, so the lock is released straight away.
+     */
+    public void lockForCurrentTransaction(Long roomId) {
+        lockStripe(stripeFor(roomId), roomId);
+    }
+
+    /**
+     * Locks the stripes of several rooms until the current transaction completes. Stripes are always
+     * taken in ascending order so two batches touching the same rooms cannot deadlock.
+     */
+    public void lockAllForCurrentTransaction(Collection<Long> roomIds) {
+        TreeSet<Integer> ordered = new TreeSet<>();
+        for (Long roomId : roomIds) {
+            ordered.add(stripeFor(roomId));
+        }
+        for (Integer stripe : ordered) {
+            lockStripe(stripe, null);
+        }
+    }
+
+    private void lockStripe(int stripe, Long roomId) {
+        ReentrantLock lock = stripes[stripe];
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            log.warn("booking.lock.timeout roomId={} stripe={} timeoutMs={}", roomId, stripe, timeoutMillis);
+            throw new ResourceConflictException("Room is busy with another booking request, please retry");
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lock.unlock();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.team2.university_room_booking.service.quota;
+
+import com.team2.university_room_booking.enums.Role;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Booking quotas, bound from {@code booking.quota.*}. Limits are set per user role and per
+ * department owning the room; a missing entry or field means no limit.
+ */
+@Data
+@ConfigurationProperties(prefix = "booking.quota")
+public class BookingQuotaProperties {
+
+    private boolean enabled = true;
+
+    // Applied to each user of the role, e.g. booking.quota.roles.STUDENT.max-active-bookings=10
+    private Map<Role, Limit> roles = new EnumMap<>(Role.class);
+
+    // Applied to all bookings of rooms in the department, keyed by department id
+    private Map<Long, Limit> departments = new HashMap<>();
+
+    @Data
+    public static class Limit {
+        // PENDING and APPROVED bookings that have not ended yet
+        private Integer maxActiveBookings;
+        // Booked hours per ISO week, counted on the week each booking starts in
+        private Integer maxWeeklyHours;
+    }
+}
@@ -0,0 +1,340 @@
+package com.team2.university_room_booking.service.quota;
+
+import com.team2.university_room_booking.event.BookingChangedEvent;
+import com.team2.university_room_booking.exceptions.QuotaExceededException;
+import com.team2.university_room_booking.model.User;
+import com.team2.university_room_booking.repository.BookingRepository;
+import com.team2.university_room_booking.service.catalog.RoomCatalog;
+import com.team2.university_room_booking.service.index.BookingIntervalIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enforces booking quotas from in-memory counters, so a quota check costs no query.
+ * <p>
+ * Every active booking is tallied against its owner and against the department of its room:
+ * the number of bookings that have not ended yet, and booked minutes per ISO week. The counters
+ * are rebuilt from the database once the application is ready and kept in step with status
+ * transitions after each booking transaction commits. Bookings that end are expired from the
+ * active counts by a sweep that runs at most once a minute, piggybacked on quota checks.
+ * <p>
+ * Like the interval index, counts move after commit, so simultaneous requests from the same
+ * user can each pass a check that only one of them should. Bookings that are accepted but not
+ * committed yet can be counted through {@link Claims}.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(BookingQuotaProperties.class)
+public class BookingQuotas {
+
+    private static final long SWEEP_INTERVAL_NANOS = Duration.ofMinutes(1).toNanos();
+
+    private final BookingRepository bookingRepository;
+    private final RoomCatalog roomCatalog;
+    private final BookingQuotaProperties properties;
+
+    private final ConcurrentMap<Long, Usage> byBooking = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Tally> byUser = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Tally> byDepartment = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepAt = new AtomicLong(System.nanoTime());
+
+    // Bookings released while the initial load was running; the load must not resurrect them.
+    private final Set<Long> releasedDuringLoad = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+
+    public BookingQuotas(BookingRepository bookingRepository, RoomCatalog roomCatalog, BookingQuotaProperties properties) {
+        this.bookingRepository = bookingRepository;
+        this.roomCatalog = roomCatalog;
+        this.properties = properties;
+    }
+
+    /**
+     * One booking as counted against its owner and its room's department.
+     */
+    public record Usage(Long userId, Long departmentId, LocalDateTime start, LocalDateTime end) {
+
+        long minutes() {
+            return Duration.between(start, end).toMinutes();
+        }
+
+        LocalDate week() {
+            return weekOf(start.toLocalDate());
+        }
+    }
+
+    /**
+     * Bookings accepted but not committed yet, such as queued intake requests or the earlier items of
+     * a batch. Checks made with a set of claims count them on top of the committed counters; callers
+     * release a claim once its booking is committed or has failed.
+     */
+    public static final class Claims {
+        private final Map<Long, Tally> byUser = new HashMap<>();
+        private final Map<Long, Tally> byDepartment = new HashMap<>();
+
+        private void add(Usage usage) {
+            if (usage.userId() != null) {
+                byUser.computeIfAbsent(usage.userId(), id -> new Tally()).add(usage.week(), usage.minutes());
+            }
+            if (usage.departmentId() != null) {
+                byDepartment.computeIfAbsent(usage.departmentId(), id -> new Tally()).add(usage.week(), usage.minutes());
+            }
+        }
+
+        private void remove(Usage usage) {
+            Tally user = usage.userId() == null ? null : byUser.get(usage.userId());
+            if (user != null) {
+                user.remove(usage.week(), usage.minutes());
+            }
+            Tally department = usage.departmentId() == null ? null : byDepartment.get(usage.departmentId());
+            if (department != null) {
+                department.remove(usage.week(), usage.minutes());
+            }
+        }
+    }
+
+    /**
+     * Counters for one user or department. Weeks before the current one are dropped as they pass.
+     */
+    static final class Tally {
+        private int active;
+        private final TreeMap<LocalDate, Long> weeklyMinutes = new TreeMap<>();
+
+        synchronized void add(LocalDate week, long minutes) {
+            active++;
+            weeklyMinutes.merge(week, minutes, Long::sum);
+        }
+
+        synchronized void remove(LocalDate week, long minutes) {
+            active--;
+            weeklyMinutes.computeIfPresent(week, (w, total) -> total > minutes ? total - minutes : null);
+        }
+
+        synchronized void expire() {
+            active--;
+        }
+
+        synchronized int active() {
+            return active;
+        }
+
+        synchronized long minutesIn(LocalDate week) {
+            weeklyMinutes.headMap(weekOf(LocalDate.now())).clear();
+            return weeklyMinutes.getOrDefault(week, 0L);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        loading = true;
+        try {
+            // From the start of the week, so hours already used this week count
+            LocalDateTime weekStart = weekOf(LocalDate.now()).atStartOfDay();
+            List<BookingRepository.BookingUsage> usages =
+                    bookingRepository.findActiveUsage(BookingIntervalIndex.ACTIVE_STATUSES, weekStart);
+            for (BookingRepository.BookingUsage usage : usages) {
+                if (!releasedDuringLoad.contains(usage.getId())) {
+                    add(usage.getId(), usage.getUserId(), usage.getRoomId(), usage.getStartTime(), usage.getEndTime());
+                }
+            }
+            sweep(LocalDateTime.now());
+            log.info("booking.quota.loaded bookings={} users={} departments={}", byBooking.size(), byUser.size(), byDepartment.size());
+        } finally {
+            loading = false;
+            releasedDuringLoad.clear();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.isActive()) {
+            if (event.getPreviousStatus() != null && BookingIntervalIndex.ACTIVE_STATUSES.contains(event.getPreviousStatus())) {
+                // PENDING to APPROVED: already counted
+                return;
+            }
+            add(event.getBookingId(), event.getUserId(), event.getRoomId(), event.getStartTime(), event.getEndTime());
+        } else {
+            if (loading) {
+                releasedDuringLoad.add(event.getBookingId());
+            }
+            remove(event.getBookingId());
+        }
+    }
+
+    /**
+     * Throws {@link QuotaExceededException} if booking one more interval in the room would take the
+     * user or the room's department over a limit.
+     */
+    public void enforce(User user, Long roomId, LocalDateTime start, LocalDateTime end) {
+        enforce(user, roomId, Collections.singletonList(new LocalDateTime[]{start, end}));
+    }
+
+    /**
+     * As {@link #enforce(User, Long, LocalDateTime, LocalDateTime)} for several new intervals at once,
+     * such as the occurrences of a recurring series.
+     */
+    public void enforce(User user, Long roomId, List<LocalDateTime[]> intervals) {
+        if (!properties.isEnabled() || intervals.isEmpty()) {
+            return;
+        }
+        check(user, departmentOf(roomId), intervals, null);
+    }
+
+    /**
+     * As {@link #enforce(User, Long, LocalDateTime, LocalDateTime)}, also counting the given uncommitted
+     * claims, and adds the new interval to them if it fits.
+     *
+     * @return the claim to {@link #release} later, or {@code null} while quotas are disabled
+     */
+    public Usage enforce(User user, Long roomId, LocalDateTime start, LocalDateTime end, Claims pending) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        Usage usage = new Usage(user.getId(), departmentOf(roomId), start, end);
+        synchronized (pending) {
+            check(user, usage.departmentId(), Collections.singletonList(new LocalDateTime[]{start, end}), pending);
+            pending.add(usage);
+        }
+        return usage;
+    }
+
+    public Claims newClaims() {
+        return new Claims();
+    }
+
+    public void release(Claims pending, Usage claim) {
+        if (claim == null) {
+            return;
+        }
+        synchronized (pending) {
+            pending.remove(claim);
+        }
+    }
+
+    private void check(User user, Long departmentId, List<LocalDateTime[]> intervals, Claims pending) {
+        sweepIfDue();
+
+        Map<LocalDate, Long> requestedMinutes = new HashMap<>();
+        for (LocalDateTime[] interval : intervals) {
+            requestedMinutes.merge(weekOf(interval[0].toLocalDate()), Duration.between(interval[0], interval[1]).toMinutes(), Long::sum);
+        }
+
+        BookingQuotaProperties.Limit roleLimit = user.getRole() == null ? null : properties.getRoles().get(user.getRole());
+        check(roleLimit, byUser.get(user.getId()), pending == null ? null : pending.byUser.get(user.getId()),
+                intervals.size(), requestedMinutes, "your");
+
+        if (departmentId != null) {
+            check(properties.getDepartments().get(departmentId), byDepartment.get(departmentId),
+                    pending == null ? null : pending.byDepartment.get(departmentId),
+                    intervals.size(), requestedMinutes, "this department's");
+        }
+    }
+
+    private void check(BookingQuotaProperties.Limit limit, Tally tally, Tally claimed, int requestedBookings,
+                       Map<LocalDate, Long> requestedMinutes, String owner) {
+        if (limit == null) {
+            return;
+        }
+        if (limit.getMaxActiveBookings() != null) {
+            int active = (tally == null ? 0 : tally.active()) + (claimed == null ? 0 : claimed.active());
+            if (active + requestedBookings > limit.getMaxActiveBookings()) {
+                log.warn("booking.quota.exceeded kind=active owner={} active={} requested={} limit={}",
+                        owner, active, requestedBookings, limit.getMaxActiveBookings());
+                throw new QuotaExceededException("This would exceed " + owner + " limit of "
+                        + limit.getMaxActiveBookings() + " active bookings");
+            }
+        }
+        if (limit.getMaxWeeklyHours() != null) {
+            long maxMinutes = limit.getMaxWeeklyHours() * 60L;
+            for (Map.Entry<LocalDate, Long> week : requestedMinutes.entrySet()) {
+                long booked = (tally == null ? 0 : tally.minutesIn(week.getKey()))
+                        + (claimed == null ? 0 : claimed.minutesIn(week.getKey()));
+                if (booked + week.getValue() > maxMinutes) {
+                    log.warn("booking.quota.exceeded kind=weekly-hours owner={} week={} bookedMinutes={} requestedMinutes={} limit={}",
+                            owner, week.getKey(), booked, week.getValue(), limit.getMaxWeeklyHours());
+                    throw new QuotaExceededException("This would exceed " + owner + " limit of "
+                            + limit.getMaxWeeklyHours() + " booked hours in the week of " + week.getKey());
+                }
+            }
+        }
+    }
+
+    private void add(Long bookingId, Long userId, Long roomId, LocalDateTime start, LocalDateTime end) {
+        Usage usage = new Usage(userId, departmentOf(roomId), start, end);
+        if (byBooking.putIfAbsent(bookingId, usage) != null) {
+            return;
+        }
+        if (userId != null) {
+            byUser.computeIfAbsent(userId, id -> new Tally()).add(usage.week(), usage.minutes());
+        }
+        if (usage.departmentId() != null) {
+            byDepartment.computeIfAbsent(usage.departmentId(), id -> new Tally()).add(usage.week(), usage.minutes());
+        }
+    }
+
+    private void remove(Long bookingId) {
+        Usage usage = byBooking.remove(bookingId);
+        if (usage == null) {
+            return;
+        }
+        tallies(usage).forEach(tally -> tally.remove(usage.week(), usage.minutes()));
+    }
+
+    private void sweepIfDue() {
+        long now = System.nanoTime();
+        long due = nextSweepAt.get();
+        if (now - due >= 0 && nextSweepAt.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+            sweep(LocalDateTime.now());
+        }
+    }
+
+    // Ended bookings stop counting as active but keep their hours in their week
+    private void sweep(LocalDateTime now) {
+        byBooking.forEach((bookingId, usage) -> {
+            if (!usage.end().isAfter(now) && byBooking.remove(bookingId, usage)) {
+                tallies(usage).forEach(Tally::expire);
+            }
+        });
+    }
+
+    private List<Tally> tallies(Usage usage) {
+        Tally user = usage.userId() == null ? null : byUser.get(usage.userId());
+        Tally department = usage.departmentId() == null ? null : byDepartment.get(usage.departmentId());
+        if (user == null) {
+            return department == null ? List.of() : List.of(department);
+        }
+        return department == null ? List.of(user) : List.of(user, department);
+    }
+
+    private Long departmentOf(Long roomId) {
+        return roomId == null ? null : roomCatalog.find(roomId).map(RoomCatalog.CatalogRoom::departmentId).orElse(null);
+    }
+
+    private static LocalDate weekOf(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    int activeBookings(Long userId) {
+        Tally tally = byUser.get(userId);
+        return tally == null ? 0 : tally.active();
+    }
+}
@@ -0,0 +1,197 @@
+package com.team2.university_room_booking.service.slot;
+
+import com.team2.university_room_booking.dto.request.EarliestSlotRequestDto;
+import com.team2.university_room_booking.dto.response.AvailableSlotDto;
+import com.team2.university_room_booking.exceptions.BadRequestException;
+import com.team2.university_room_booking.repository.BookingRepository;
+import com.team2.university_room_booking.service.catalog.RoomCatalog;
+import com.team2.university_room_booking.service.holiday.HolidayCalendar;
+import com.team2.university_room_booking.service.index.BookingIntervalIndex;
+import com.team2.university_room_booking.service.policy.BookingPolicy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the earliest slots of a given length in any room matching type, feature and capacity
+ * constraints. Each room's busy periods (its bookings plus holidays) form a sorted list; a cursor per
+ * room yields that room's free gaps long enough for the request, and a priority queue keyed on each
+ * cursor's next gap merges the rooms so the earliest slots come out first. Work is proportional to
+ * the bookings of the candidate rooms, not to the length of the horizon. Every start is rounded up to
+ * the quarter hour, including the ones that follow a booking ending off the grid.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EarliestSlotFinder {
+
+    static final Duration DEFAULT_HORIZON = Duration.ofDays(7);
+    private static final int ALIGN_MINUTES = 15;
+
+    private final RoomCatalog roomCatalog;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingRepository bookingRepository;
+    private final HolidayCalendar holidayCalendar;
+
+    @Transactional(readOnly = true)
+    public List<AvailableSlotDto> findEarliest(EarliestSlotRequestDto request) {
+        Duration duration = Duration.ofMinutes(request.getDurationMinutes());
+        if (duration.compareTo(BookingPolicy.MIN_DURATION) < 0 || duration.compareTo(BookingPolicy.MAX_DURATION) > 0) {
+            throw new BadRequestException("Duration must be between " + BookingPolicy.MIN_DURATION.toMinutes()
+                    + " and " + BookingPolicy.MAX_DURATION.toMinutes() + " minutes");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = alignUp(request.getFrom() == null || request.getFrom().isBefore(now) ? now : request.getFrom());
+        LocalDateTime to = request.getTo() == null ? from.plus(DEFAULT_HORIZON) : request.getTo();
+        LocalDateTime latest = now.plus(BookingPolicy.MAX_HORIZON);
+        if (to.isAfter(latest)) {
+            to = latest;
+        }
+        if (!to.isAfter(from)) {
+            throw new BadRequestException("Search horizon must end after it starts");
+        }
+
+        int minCapacity = request.getMinCapacity() == null ? 0 : request.getMinCapacity();
+        List<RoomCatalog.CatalogRoom> rooms = roomCatalog.candidates(request.getType(), request.getFeatureIds(), minCapacity);
+        if (rooms.isEmpty()) {
+            return List.of();
+        }
+
+        List<Interval> holidays = holidayCalendar.overlapping(from, to).stream()
+                .map(h -> new Interval(h.start(), h.end()))
+                .toList();
+        Map<Long, List<Interval>> bookings = bookingsByRoom(rooms, from, to);
+
+        PriorityQueue<RoomGaps> queue = new PriorityQueue<>(
+                Comparator.comparing(RoomGaps::nextStart).thenComparing(g -> g.room.id()));
+        for (RoomCatalog.CatalogRoom room : rooms) {
+            RoomGaps gaps = new RoomGaps(room, merge(bookings.getOrDefault(room.id(), List.of()), holidays), from, to, duration);
+            if (gaps.advance()) {
+                queue.add(gaps);
+            }
+        }
+
+        List<AvailableSlotDto> result = new ArrayList<>(request.getLimit());
+        while (result.size() < request.getLimit() && !queue.isEmpty()) {
+            RoomGaps gaps = queue.poll();
+            LocalDateTime start = gaps.nextStart();
+            result.add(new AvailableSlotDto(gaps.room.id(), gaps.room.name(), start, start.plus(duration)));
+            if (gaps.advance()) {
+                queue.add(gaps);
+            }
+        }
+
+        log.info("room.slot.earliest rooms={} durationMinutes={} from={} to={} found={}",
+                rooms.size(), duration.toMinutes(), from, to, result.size());
+        return result;
+    }
+
+    // The index is authoritative once loaded; before that one query covers all candidate rooms
+    private Map<Long, List<Interval>> bookingsByRoom(List<RoomCatalog.CatalogRoom> rooms, LocalDateTime from, LocalDateTime to) {
+        Map<Long, List<Interval>> byRoom = new HashMap<>();
+        if (bookingIntervalIndex.isLoaded()) {
+            for (RoomCatalog.CatalogRoom room : rooms) {
+                byRoom.put(room.id(), bookingIntervalIndex.overlapping(room.id(), from, to).stream()
+                        .map(b -> new Interval(b.start(), b.end()))
+                        .toList());
+            }
+            return byRoom;
+        }
+        List<Long> roomIds = rooms.stream().map(RoomCatalog.CatalogRoom::id).toList();
+        for (BookingRepository.BookingSlot slot : bookingRepository.findSlotsForRooms(roomIds, BookingIntervalIndex.ACTIVE_STATUSES, from, to)) {
+            byRoom.computeIfAbsent(slot.getRoomId(), id -> new ArrayList<>()).add(new Interval(slot.getStartTime(), slot.getEndTime()));
+        }
+        return byRoom;
+    }
+
+    // Merges two start-sorted lists of busy intervals
+    static List<Interval> merge(List<Interval> a, List<Interval> b) {
+        if (b.isEmpty()) {
+            return a;
+        }
+        List<Interval> merged = new ArrayList<>(a.size() + b.size());
+        int i = 0;
+        int j = 0;
+        while (i < a.size() || j < b.size()) {
+            if (j == b.size() || (i < a.size() && !a.get(i).start().isAfter(b.get(j).start()))) {
+                merged.add(a.get(i++));
+            } else {
+                merged.add(b.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private static LocalDateTime alignUp(LocalDateTime time) {
+        LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+        if (minute.isBefore(time)) {
+            minute = minute.plusMinutes(1);
+        }
+        int remainder = minute.getMinute() % ALIGN_MINUTES;
+        return remainder == 0 ? minute : minute.plusMinutes(ALIGN_MINUTES - remainder);
+    }
+
+    record Interval(LocalDateTime start, LocalDateTime end) {
+    }
+
+    /**
+     * Walks one room's free gaps in time order, stopping at those long enough for the request.
+     */
+    private static final class RoomGaps {
+        private final RoomCatalog.CatalogRoom room;
+        private final List<Interval> busy;
+        private final LocalDateTime horizonEnd;
+        private final Duration duration;
+        private LocalDateTime cursor;
+        private int next;
+        private LocalDateTime nextStart;
+
+        RoomGaps(RoomCatalog.CatalogRoom room, List<Interval> busy, LocalDateTime from, LocalDateTime to, Duration duration) {
+            this.room = room;
+            this.busy = busy;
+            this.cursor = from;
+            this.horizonEnd = to;
+            this.duration = duration;
+        }
+
+        LocalDateTime nextStart() {
+            return nextStart;
+        }
+
+        // Moves to the next gap that fits; false when the horizon is exhausted
+        boolean advance() {
+            while (true) {
+                LocalDateTime gapEnd = next < busy.size() ? busy.get(next).start() : horizonEnd;
+                if (gapEnd.isAfter(horizonEnd)) {
+                    gapEnd = horizonEnd;
+                }
+                if (!cursor.plus(duration).isAfter(gapEnd)) {
+                    nextStart = cursor;
+                    cursor = next < busy.size() ? alignUp(max(cursor, busy.get(next).end())) : horizonEnd;
+                    next++;
+                    return true;
+                }
+                if (next >= busy.size()) {
+                    return false;
+                }
+                cursor = alignUp(max(cursor, busy.get(next).end()));
+                next++;
+            }
+        }
+
+        private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+            return a.isAfter(b) ? a : b;
+        }
+    }
+}
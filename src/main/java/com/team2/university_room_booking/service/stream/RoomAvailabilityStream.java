@@ -0,0 +1,312 @@
+package com.team2.university_room_booking.service.stream;
+
+import com.team2.university_room_booking.dto.response.RoomAvailabilityEventDto;
+import com.team2.university_room_booking.event.BookingChangedEvent;
+import com.team2.university_room_booking.exceptions.ServiceUnavailableException;
+import com.team2.university_room_booking.service.catalog.RoomCatalog;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events feed of booking changes per room. Committed booking changes only mark their
+ * room as dirty; a single publisher thread wakes up once per coalescing window, collects the dirty
+ * rooms and queues one event for each interested subscriber listing its rooms that changed.
+ * <p>
+ * Every subscriber has a small bounded buffer drained by a shared pool of sender threads, so a
+ * client that reads slowly only holds up its own events. A subscriber whose buffer overflows is
+ * disconnected; it can reconnect and re-read availability.
+ * <p>
+ * Idle subscribers cost no CPU: nothing is scheduled until a booking changes, apart from a
+ * heartbeat comment that keeps proxies from closing quiet connections.
+ */
+@Slf4j
+@Service
+public class RoomAvailabilityStream {
+
+    static final String EVENT_NAME = "availability-changed";
+
+    private final RoomCatalog roomCatalog;
+    private final long coalesceMillis;
+    private final int maxSubscribers;
+    private final long emitterTimeoutMillis;
+    private final int bufferSize;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<Long, Set<Subscriber>> byRoom = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Subscriber>> byBuilding = new ConcurrentHashMap<>();
+    private final Set<Subscriber> allRooms = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> dirtyRooms = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicLong flushes = new AtomicLong();
+    private final ScheduledExecutorService publisher;
+    private final ExecutorService senders;
+
+    public RoomAvailabilityStream(RoomCatalog roomCatalog,
+                                  @Value("${booking.stream.coalesce-ms:250}") long coalesceMillis,
+                                  @Value("${booking.stream.heartbeat-seconds:30}") long heartbeatSeconds,
+                                  @Value("${booking.stream.max-subscribers:10000}") int maxSubscribers,
+                                  @Value("${booking.stream.timeout-minutes:30}") long timeoutMinutes,
+                                  @Value("${booking.stream.sender-threads:4}") int senderThreads,
+                                  @Value("${booking.stream.subscriber-buffer:16}") int bufferSize) {
+        if (senderThreads < 1 || bufferSize < 1) {
+            throw new IllegalArgumentException("booking.stream sender-threads and subscriber-buffer must be positive");
+        }
+        this.roomCatalog = roomCatalog;
+        this.coalesceMillis = coalesceMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.emitterTimeoutMillis = Duration.ofMinutes(timeoutMinutes).toMillis();
+        this.bufferSize = bufferSize;
+        this.publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "room-availability-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger senderIds = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "room-availability-sender-" + senderIds.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (heartbeatSeconds > 0) {
+            publisher.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Opens a stream of changes to the given rooms and to every room of the given buildings. With
+     * neither, changes to all rooms are streamed.
+     */
+    public SseEmitter subscribe(Set<Long> roomIds, Set<Long> buildingIds) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        register(emitter, roomIds, buildingIds);
+        return emitter;
+    }
+
+    Subscriber register(SseEmitter emitter, Set<Long> roomIds, Set<Long> buildingIds) {
+        if (subscribers.size() >= maxSubscribers) {
+            log.warn("room.stream.subscribers.full max={}", maxSubscribers);
+            throw new ServiceUnavailableException("Too many availability subscribers, please retry later");
+        }
+        Subscriber subscriber = new Subscriber(emitter,
+                roomIds == null ? Set.of() : Set.copyOf(roomIds),
+                buildingIds == null ? Set.of() : Set.copyOf(buildingIds),
+                bufferSize);
+        subscribers.add(subscriber);
+        if (subscriber.rooms.isEmpty() && subscriber.buildings.isEmpty()) {
+            allRooms.add(subscriber);
+        }
+        subscriber.rooms.forEach(id -> addTo(byRoom, id, subscriber));
+        subscriber.buildings.forEach(id -> addTo(byBuilding, id, subscriber));
+
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(error -> unregister(subscriber));
+        log.debug("room.stream.subscribed rooms={} buildings={} subscribers={}",
+                subscriber.rooms.size(), subscriber.buildings.size(), subscribers.size());
+        return subscriber;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.getRoomId() == null || subscribers.isEmpty()) {
+            return;
+        }
+        dirtyRooms.add(event.getRoomId());
+        if (flushScheduled.compareAndSet(false, true)) {
+            publisher.schedule(this::flush, coalesceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    long flushCount() {
+        return flushes.get();
+    }
+
+    void flush() {
+        // Cleared first so changes arriving while we drain schedule the next window
+        flushScheduled.set(false);
+        List<Long> changed = new ArrayList<>();
+        for (Iterator<Long> it = dirtyRooms.iterator(); it.hasNext(); ) {
+            changed.add(it.next());
+            it.remove();
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        flushes.incrementAndGet();
+
+        Map<Subscriber, Set<Long>> outgoing = new HashMap<>();
+        for (Long roomId : changed) {
+            addTo(outgoing, byRoom.get(roomId), roomId);
+            addTo(outgoing, allRooms, roomId);
+            roomCatalog.find(roomId)
+                    .map(RoomCatalog.CatalogRoom::buildingId)
+                    .ifPresent(buildingId -> addTo(outgoing, byBuilding.get(buildingId), roomId));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        outgoing.forEach((subscriber, rooms) -> enqueue(subscriber, SseEmitter.event()
+                .name(EVENT_NAME)
+                .data(new RoomAvailabilityEventDto(List.copyOf(rooms), now))));
+        log.debug("room.stream.flushed rooms={} subscribersNotified={}", changed.size(), outgoing.size());
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            // A queued event keeps the connection busy anyway
+            if (subscriber.outbox.isEmpty()) {
+                enqueue(subscriber, SseEmitter.event().comment("keep-alive"));
+            }
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (!subscriber.outbox.offer(event)) {
+            // Too slow to keep up. The sender blocked on it completes the emitter once its write returns.
+            log.warn("room.stream.subscriber.slow buffered={}", bufferSize);
+            unregister(subscriber);
+            subscriber.closed = true;
+            subscriber.outbox.clear();
+        }
+        scheduleSend(subscriber);
+    }
+
+    private void scheduleSend(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                subscriber.sending.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        boolean open = true;
+        SseEmitter.SseEventBuilder event;
+        while (open && !subscriber.closed && (event = subscriber.outbox.poll()) != null) {
+            open = send(subscriber, event);
+        }
+        if (!open) {
+            subscriber.outbox.clear();
+        } else if (subscriber.closed) {
+            subscriber.outbox.clear();
+            subscriber.emitter.complete();
+        }
+        subscriber.sending.set(false);
+        // Events queued after the loop saw an empty buffer
+        if (!subscriber.closed && !subscriber.outbox.isEmpty()) {
+            scheduleSend(subscriber);
+        }
+    }
+
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter callbacks may not fire for a broken connection
+            unregister(subscriber);
+            subscriber.closed = true;
+            subscriber.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        allRooms.remove(subscriber);
+        subscriber.rooms.forEach(id -> removeFrom(byRoom, id, subscriber));
+        subscriber.buildings.forEach(id -> removeFrom(byBuilding, id, subscriber));
+    }
+
+    // Atomic per key, so a set emptied by removeFrom is never added to after being dropped
+    private static void addTo(ConcurrentMap<Long, Set<Subscriber>> index, Long key, Subscriber subscriber) {
+        index.compute(key, (k, set) -> {
+            Set<Subscriber> target = set == null ? ConcurrentHashMap.newKeySet() : set;
+            target.add(subscriber);
+            return target;
+        });
+    }
+
+    private static void removeFrom(ConcurrentMap<Long, Set<Subscriber>> index, Long key, Subscriber subscriber) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static void addTo(Map<Subscriber, Set<Long>> outgoing, Collection<Subscriber> interested, Long roomId) {
+        if (interested != null) {
+            for (Subscriber subscriber : interested) {
+                outgoing.computeIfAbsent(subscriber, s -> new TreeSet<>()).add(roomId);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdownNow();
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Long> rooms;
+        private final Set<Long> buildings;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> outbox;
+        // Set while a sender task owns this subscriber, so its events go out one at a time and in order
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, Set<Long> rooms, Set<Long> buildings, int bufferSize) {
+            this.emitter = emitter;
+            this.rooms = rooms;
+            this.buildings = buildings;
+            this.outbox = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.team2.university_room_booking.service.version;
+
+import com.team2.university_room_booking.event.BookingChangedEvent;
+import com.team2.university_room_booking.event.HolidayChangedEvent;
+import com.team2.university_room_booking.event.RoomCatalogChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters behind the strong ETags of polled reads: one for the room catalog (rooms,
+ * features, buildings, departments), one for holidays and one per room for its bookings. Counters
+ * only go up and are bumped after the change commits, so a client never caches an ETag paired with
+ * stale data.
+ * <p>
+ * Each ETag carries the start time of this instance so tags issued before a restart never match.
+ */
+@Component
+public class ResourceVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong catalog = new AtomicLong();
+    private final AtomicLong holidays = new AtomicLong();
+    private final ConcurrentMap<Long, AtomicLong> roomBookings = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(RoomCatalogChangedEvent event) {
+        catalog.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHolidayChanged(HolidayChangedEvent event) {
+        holidays.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.getRoomId() != null) {
+            roomBookings.computeIfAbsent(event.getRoomId(), id -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    public String catalogETag() {
+        return etag("catalog", catalog.get());
+    }
+
+    public String holidaysETag() {
+        return etag("holidays", holidays.get());
+    }
+
+    public String roomAvailabilityETag(Long roomId) {
+        AtomicLong version = roomBookings.get(roomId);
+        return etag("room" + roomId, version == null ? 0L : version.get());
+    }
+
+    private String etag(String resource, long version) {
+        return "\"" + resource + "-" + epoch + "-" + version + "\"";
+    }
+}
@@ -130,6 +130,11 @@ public class BookingIntegrationTest {
         assertEquals(room.getId(), booking.getRoom().getId());
         assertEquals(BookingStatus.PENDING, booking.getStatus());
 
+        // History is written by the audit writer shortly after the commit
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (bookingHistoryRepository.count() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
         List<BookingHistoryDto> audit = bookingHistoryRepository.findAll().stream()
                 .map(dtoMapper::tobookingHistoryDto)
                 .toList();
@@ -0,0 +1,84 @@
+package com.team2.university_room_booking.security;
+
+import jakarta.servlet.FilterChain;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-request overhead of the rate limit filter as threads are added. Run with {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+class RateLimitFilterBenchmark {
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void filterOverhead_ByThreadCount() throws Exception {
+        // Limits high enough that every request is admitted: this measures the check itself
+        RateLimitFilter filter = new RateLimitFilter(RateLimitFilterTest.properties(1_000_000, 60_000_000, 1_000_000, 60_000_000));
+        FilterChain noop = (req, res) -> { };
+        int users = 500;
+        int callsPerThread = 200_000;
+
+        // The first round warms up the JIT
+        int[] rounds = {1, 1, 2, 4};
+        for (int round = 0; round < rounds.length; round++) {
+            int threads = rounds[round];
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                futures.add(pool.submit(() -> {
+                    List<MockHttpServletRequest> requests = new ArrayList<>();
+                    for (int u = 0; u < users; u++) {
+                        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/bookings");
+                        request.setRemoteAddr("10.0." + (u % 250) + "." + offset);
+                        requests.add(request);
+                    }
+                    SecurityContextHolder.getContext().setAuthentication(
+                            new UsernamePasswordAuthenticationToken("user" + offset, null, List.of()));
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    start.await();
+                    for (int i = 0; i < callsPerThread; i++) {
+                        MockHttpServletRequest request = requests.get(i % users);
+                        request.clearAttributes();
+                        filter.doFilter(request, response, noop);
+                    }
+                    assertEquals(200, response.getStatus());
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            long elapsed = System.nanoTime() - begin;
+            pool.shutdown();
+
+            // Wall time per call across all threads, i.e. the inverse of throughput
+            double nanosPerCall = (double) elapsed / ((long) threads * callsPerThread);
+            log.info("rate-limit round={} threads={} calls={} wall={} us/call",
+                    round, threads, threads * callsPerThread, String.format("%.2f", nanosPerCall / 1000));
+        }
+    }
+}
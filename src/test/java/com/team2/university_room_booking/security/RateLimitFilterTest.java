@@ -0,0 +1,88 @@
+package com.team2.university_room_booking.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    static RateLimitProperties properties(int userCapacity, int userPerMinute, int ipCapacity, int ipPerMinute) {
+        RateLimitProperties.Group group = new RateLimitProperties.Group();
+        group.setMethods(List.of("POST"));
+        group.setPaths(List.of("/api/bookings/**", "/api/availability/room/{roomName}"));
+        group.setPerUser(limit(userCapacity, userPerMinute));
+        group.setPerIp(limit(ipCapacity, ipPerMinute));
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getGroups().put("booking-writes", group);
+        return properties;
+    }
+
+    private static RateLimitProperties.Limit limit(int capacity, int perMinute) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(capacity);
+        limit.setRefillPerMinute(perMinute);
+        return limit;
+    }
+
+    private static MockHttpServletResponse call(RateLimitFilter filter, String method, String uri, String user, String ip) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(user == null ? null
+                : new UsernamePasswordAuthenticationToken(user, null, List.of(new SimpleGrantedAuthority("ROLE_STUDENT"))));
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void userBucket_AllowsBurstThenAnswers429UntilRefilled() throws Exception {
+        // 3 in a burst, then one every 2 seconds
+        RateLimitFilter filter = new RateLimitFilter(properties(3, 30, 100, 6000), clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, call(filter, "POST", "/api/bookings", "alice", "10.0.0.1").getStatus());
+        }
+        MockHttpServletResponse rejected = call(filter, "POST", "/api/availability/room/A101", "alice", "10.0.0.1");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After"));
+
+        // Other users, other groups and other methods are unaffected
+        assertEquals(200, call(filter, "POST", "/api/bookings", "bob", "10.0.0.1").getStatus());
+        assertEquals(200, call(filter, "GET", "/api/bookings/1", "alice", "10.0.0.1").getStatus());
+        assertEquals(200, call(filter, "POST", "/api/rooms", "alice", "10.0.0.1").getStatus());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(200, call(filter, "POST", "/api/bookings", "alice", "10.0.0.1").getStatus());
+        assertEquals(429, call(filter, "POST", "/api/bookings", "alice", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void ipBucket_SharedByAllUsersBehindOneAddress() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(properties(100, 6000, 2, 60), clock::get);
+
+        assertEquals(200, call(filter, "POST", "/api/bookings", "alice", "10.0.0.1").getStatus());
+        assertEquals(200, call(filter, "POST", "/api/bookings", "bob", "10.0.0.1").getStatus());
+        MockHttpServletResponse rejected = call(filter, "POST", "/api/bookings", "carol", "10.0.0.1");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals(200, call(filter, "POST", "/api/bookings", "carol", "10.0.0.2").getStatus());
+    }
+}
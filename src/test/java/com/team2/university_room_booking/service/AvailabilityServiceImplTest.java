@@ -0,0 +1,85 @@
+package com.team2.university_room_booking.service;
+
+import com.team2.university_room_booking.dto.request.AvailabilityRequestDto;
+import com.team2.university_room_booking.dto.request.RoomWindowDto;
+import com.team2.university_room_booking.dto.response.RoomWindowAvailabilityDto;
+import com.team2.university_room_booking.exceptions.ResourceNotFoundException;
+import com.team2.university_room_booking.repository.BookingRepository;
+import com.team2.university_room_booking.repository.RoomRepository;
+import com.team2.university_room_booking.service.catalog.RoomCatalog;
+import com.team2.university_room_booking.service.impl.AvailabilityServiceImpl;
+import com.team2.university_room_booking.service.index.RoomOccupancyBitmaps;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityServiceImplTest {
+
+    @Mock private RoomRepository roomRepository;
+    @Mock private BookingRepository bookingRepository;
+    @Mock private RoomOccupancyBitmaps roomOccupancyBitmaps;
+    @Mock private RoomCatalog roomCatalog;
+
+    @InjectMocks private AvailabilityServiceImpl availabilityService;
+
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        base = LocalDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void isRoomAvailable_ResolvesNameFromCatalog_CountsByRoomId() {
+        when(roomCatalog.idByName("A101")).thenReturn(Optional.of(7L));
+        when(bookingRepository.countOverlaps(eq(7L), any(), any(), any())).thenReturn(0L);
+
+        assertTrue(availabilityService.isRoomAvailable("A101", new AvailabilityRequestDto(base, base.plusHours(1))));
+        verify(roomRepository, never()).findByName(any());
+    }
+
+    @Test
+    void areRoomsAvailable_AnswersRemainingWindowsWithOneQuery() {
+        when(roomCatalog.find(anyLong())).thenReturn(Optional.of(
+                new RoomCatalog.CatalogRoom(1L, "A101", null, 10, true, null, null, new long[1])));
+        // Only room 3 is answered from the bitmaps
+        when(roomOccupancyBitmaps.isFree(anyLong(), any(), any()))
+                .thenAnswer(inv -> inv.getArgument(0).equals(3L) ? Optional.of(false) : Optional.empty());
+        BookingRepository.BookingSlot booked = mock(BookingRepository.BookingSlot.class);
+        when(booked.getRoomId()).thenReturn(1L);
+        when(booked.getStartTime()).thenReturn(base.plusHours(2));
+        when(booked.getEndTime()).thenReturn(base.plusHours(3));
+        when(bookingRepository.findSlotsForRooms(any(), any(), eq(base), eq(base.plusHours(4)))).thenReturn(List.of(booked));
+
+        List<RoomWindowAvailabilityDto> result = availabilityService.areRoomsAvailable(List.of(
+                new RoomWindowDto(1L, base, base.plusHours(2)),
+                new RoomWindowDto(1L, base.plusHours(2).plusMinutes(30), base.plusHours(4)),
+                new RoomWindowDto(2L, base, base.plusHours(1)),
+                new RoomWindowDto(3L, base, base.plusHours(1))));
+
+        assertEquals(List.of(true, false, true, false), result.stream().map(RoomWindowAvailabilityDto::isAvailable).toList());
+        verify(bookingRepository, times(1)).findSlotsForRooms(any(), any(), any(), any());
+    }
+
+    @Test
+    void areRoomsAvailable_UnknownRoom_ThrowsNotFound() {
+        when(roomCatalog.find(9L)).thenReturn(Optional.empty());
+        when(roomRepository.findAllById(any())).thenReturn(List.of());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> availabilityService.areRoomsAvailable(List.of(new RoomWindowDto(9L, base, base.plusHours(1)))));
+        verifyNoInteractions(bookingRepository);
+    }
+}
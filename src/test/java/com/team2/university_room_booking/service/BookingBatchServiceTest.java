@@ -0,0 +1,435 @@
+package com.team2.university_room_booking.service;
+
+import com.team2.university_room_booking.dto.request.BulkApproveRequestDto;
+import com.team2.university_room_booking.dto.request.BulkRejectRequestDto;
+import com.team2.university_room_booking.dto.request.CreateBookingRequestDto;
+import com.team2.university_room_booking.dto.request.RecurringBookingRequestDto;
+import com.team2.university_room_booking.dto.response.RecurringBookingResponseDto;
+import com.team2.university_room_booking.dto.response.BatchBookingItemResultDto;
+import com.team2.university_room_booking.dto.response.BulkBookingActionResponseDto;
+import com.team2.university_room_booking.enums.BatchItemStatus;
+import com.team2.university_room_booking.enums.BookingStatus;
+import com.team2.university_room_booking.exceptions.BadRequestException;
+import com.team2.university_room_booking.exceptions.QuotaExceededException;
+import com.team2.university_room_booking.exceptions.ResourceConflictException;
+import com.team2.university_room_booking.model.Booking;
+import com.team2.university_room_booking.model.Room;
+import com.team2.university_room_booking.model.User;
+import com.team2.university_room_booking.repository.BookingRepository;
+import com.team2.university_room_booking.repository.RoomRepository;
+import com.team2.university_room_booking.service.holiday.HolidayCalendar;
+import com.team2.university_room_booking.service.quota.BookingQuotas;
+import com.team2.university_room_booking.service.lock.RoomLockManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingBatchServiceTest {
+
+    @Mock private BookingRepository bookingRepository;
+    @Mock private RoomRepository roomRepository;
+    @Mock private HolidayCalendar holidayCalendar;
+    @Mock private BookingQuotas bookingQuotas;
+    @Mock private BookingService bookingService;
+    @Mock private BookingHistoryService bookingHistoryService;
+    @Mock private RoomLockManager roomLockManager;
+    @Mock private SlotOccupancyService slotOccupancyService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BookingBatchService bookingBatchService;
+
+    private User owner;
+    private Room room;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setId(1L);
+        owner.setUsername("faculty");
+
+        room = new Room();
+        room.setId(5L);
+        room.setName("Lab 1");
+
+        base = LocalDateTime.now().plusDays(2).withHour(9).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    private BookingBatchService.OwnedBookingRequest item(Long roomId, LocalDateTime start, int hours) {
+        CreateBookingRequestDto request = new CreateBookingRequestDto();
+        request.setRoomId(roomId);
+        request.setStartTime(start);
+        request.setEndTime(start.plusHours(hours));
+        request.setPurpose("Lab section");
+        return new BookingBatchService.OwnedBookingRequest(request, owner);
+    }
+
+    @Test
+    void createAll_ReportsPerItemResults() {
+        AtomicLong ids = new AtomicLong(100);
+        when(roomRepository.findAllWithFeaturesByIdIn(any())).thenReturn(List.of(room));
+        when(bookingService.hasRequiredFeatures(any(), any())).thenReturn(true);
+        holidays(new HolidayCalendar.HolidayPeriod(1L, "Exam break", base.plusDays(1), base.plusDays(2)));
+        Booking existing = new Booking();
+        existing.setStartTime(base.plusHours(4));
+        existing.setEndTime(base.plusHours(6));
+        when(bookingRepository.findAllOverlappingBookings(eq(5L), any(), any(), any())).thenReturn(List.of(existing));
+        when(bookingRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Booking> bookings = inv.getArgument(0);
+            bookings.forEach(b -> b.setId(ids.incrementAndGet()));
+            return bookings;
+        });
+
+        List<BatchBookingItemResultDto> results = bookingBatchService.createAll(List.of(
+                item(5L, base, 2),                    // created
+                item(5L, base.plusHours(1), 2),       // overlaps item 0
+                item(5L, base.plusHours(5), 1),       // overlaps existing booking
+                item(5L, base.plusDays(1), 2),        // holiday
+                item(99L, base, 2),                   // unknown room
+                item(null, base, 2)                   // no room id
+        ));
+
+        assertEquals(6, results.size());
+        assertEquals(BatchItemStatus.CREATED, results.get(0).getStatus());
+        assertEquals(101L, results.get(0).getBookingId());
+        for (int i = 1; i < results.size(); i++) {
+            assertEquals(BatchItemStatus.FAILED, results.get(i).getStatus(), "item " + i);
+            assertEquals(i, results.get(i).getIndex());
+        }
+
+        verify(holidayCalendar, atLeastOnce()).firstOverlapping(any(), any());
+        verify(bookingRepository, times(1)).findAllOverlappingBookings(eq(5L), any(), any(), any());
+        verify(bookingHistoryService).createAuditEntries(argThat(list -> list.size() == 1), eq(BookingStatus.PENDING), isNull(), isNull());
+        verify(roomLockManager).lockAllForCurrentTransaction(any());
+    }
+
+    @Test
+    void createAll_LocksRoomsBeforeFirstReadAndRunsReadCommitted() throws Exception {
+        when(roomRepository.findAllWithFeaturesByIdIn(any())).thenReturn(List.of(room));
+        when(bookingService.hasRequiredFeatures(any(), any())).thenReturn(true);
+        when(bookingRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        bookingBatchService.createAll(List.of(item(5L, base, 2)));
+
+        InOrder inOrder = inOrder(roomLockManager, roomRepository, bookingRepository);
+        inOrder.verify(roomLockManager).lockAllForCurrentTransaction(Set.of(5L));
+        inOrder.verify(roomRepository).findAllWithFeaturesByIdIn(any());
+        inOrder.verify(bookingRepository).findAllOverlappingBookings(eq(5L), any(), any(), any());
+        inOrder.verify(bookingRepository).saveAll(anyList());
+
+        for (String method : List.of("createAll", "createBookings")) {
+            Transactional tx = Arrays.stream(BookingBatchService.class.getMethods())
+                    .filter(m -> m.getName().equals(method))
+                    .findFirst().orElseThrow()
+                    .getAnnotation(Transactional.class);
+            assertEquals(Isolation.READ_COMMITTED, tx.isolation(), method);
+        }
+    }
+
+    @Test
+    void createAll_BookingCommittedWhileWaitingForLock_FailsItsItem() {
+        when(roomRepository.findAllWithFeaturesByIdIn(any())).thenReturn(List.of(room));
+        when(bookingService.hasRequiredFeatures(any(), any())).thenReturn(true);
+        Booking competitor = new Booking();
+        competitor.setStartTime(base);
+        competitor.setEndTime(base.plusHours(2));
+        // The competing booking commits while this batch waits for the room locks
+        AtomicBoolean competitorCommitted = new AtomicBoolean();
+        doAnswer(inv -> {
+            competitorCommitted.set(true);
+            return null;
+        }).when(roomLockManager).lockAllForCurrentTransaction(any());
+        when(bookingRepository.findAllOverlappingBookings(eq(5L), any(), any(), any()))
+                .thenAnswer(inv -> competitorCommitted.get() ? List.of(competitor) : List.of());
+
+        List<BatchBookingItemResultDto> results = bookingBatchService.createAll(List.of(item(5L, base, 2)));
+
+        assertEquals(BatchItemStatus.FAILED, results.get(0).getStatus());
+        verify(bookingRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void createAll_QuotaCheckedPerItemCountingEarlierItems() {
+        AtomicLong ids = new AtomicLong();
+        when(roomRepository.findAllWithFeaturesByIdIn(any())).thenReturn(List.of(room));
+        when(bookingService.hasRequiredFeatures(any(), any())).thenReturn(true);
+        holidays();
+        when(bookingRepository.findAllOverlappingBookings(eq(5L), any(), any(), any())).thenReturn(List.of());
+        when(bookingRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Booking> bookings = inv.getArgument(0);
+            bookings.forEach(b -> b.setId(ids.incrementAndGet()));
+            return bookings;
+        });
+        BookingQuotas.Claims claims = new BookingQuotas.Claims();
+        when(bookingQuotas.newClaims()).thenReturn(claims);
+        // The owner has room for two more bookings
+        AtomicInteger accepted = new AtomicInteger();
+        when(bookingQuotas.enforce(eq(owner), eq(5L), any(), any(), same(claims))).thenAnswer(inv -> {
+            if (accepted.incrementAndGet() > 2) {
+                throw new QuotaExceededException("This would exceed your limit of 2 active bookings");
+            }
+            return null;
+        });
+
+        List<BatchBookingItemResultDto> results = bookingBatchService.createAll(List.of(
+                item(5L, base, 1),
+                item(5L, base.plusHours(2), 1),
+                item(5L, base.plusHours(4), 1)));
+
+        assertEquals(BatchItemStatus.CREATED, results.get(0).getStatus());
+        assertEquals(BatchItemStatus.CREATED, results.get(1).getStatus());
+        assertEquals(BatchItemStatus.FAILED, results.get(2).getStatus());
+        assertEquals("This would exceed your limit of 2 active bookings", results.get(2).getError());
+        verify(bookingRepository).saveAll(argThat(list -> ((List<?>) list).size() == 2));
+    }
+
+    @Test
+    void createAll_ClaimedSlotFailsOnlyItsItem() {
+        AtomicLong ids = new AtomicLong();
+        when(roomRepository.findAllWithFeaturesByIdIn(any())).thenReturn(List.of(room));
+        when(bookingService.hasRequiredFeatures(any(), any())).thenReturn(true);
+        holidays();
+        when(bookingRepository.findAllOverlappingBookings(eq(5L), any(), any(), any())).thenReturn(List.of());
+        when(bookingRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Booking> bookings = inv.getArgument(0);
+            bookings.forEach(b -> b.setId(ids.incrementAndGet()));
+            return bookings;
+        });
+        SlotOccupancyService slots = new SlotOccupancyService(null, null, true, 15);
+        when(slotOccupancyService.isEnabled()).thenReturn(true);
+        when(slotOccupancyService.slotsFor(any(), any())).thenAnswer(inv -> slots.slotsFor(inv.getArgument(0), inv.getArgument(1)));
+        // A booking ending at 11:10 holds the 11:00 slot
+        when(slotOccupancyService.claimedSlots(eq(5L), any(), any())).thenReturn(new HashSet<>(Set.of(base.plusHours(2))));
+
+        List<BatchBookingItemResultDto> results = bookingBatchService.createAll(List.of(
+                item(5L, base, 1),                                          // created
+                item(5L, base.plusHours(2).plusMinutes(10), 1),             // needs the claimed 11:00 slot
+                item(5L, base.plusHours(3).plusMinutes(20), 1),             // created, ends at 13:20
+                item(5L, base.plusHours(4).plusMinutes(25), 1)));           // shares the 13:15 slot with item 2
+
+        assertEquals(List.of(BatchItemStatus.CREATED, BatchItemStatus.FAILED, BatchItemStatus.CREATED, BatchItemStatus.FAILED),
+                results.stream().map(BatchBookingItemResultDto::getStatus).toList());
+        verify(slotOccupancyService).claim(argThat((Collection<Booking> list) -> list.size() == 2));
+        verify(roomLockManager, never()).lockAllForCurrentTransaction(any());
+    }
+
+    @Test
+    void createAll_NothingValid_InsertsNothing() {
+        List<BatchBookingItemResultDto> results = bookingBatchService.createAll(List.of(item(null, base, 2)));
+
+        assertEquals(BatchItemStatus.FAILED, results.get(0).getStatus());
+        verify(bookingRepository, never()).saveAll(anyList());
+        verifyNoInteractions(holidayCalendar);
+    }
+
+    private void holidays(HolidayCalendar.HolidayPeriod... periods) {
+        when(holidayCalendar.firstOverlapping(any(), any())).thenAnswer(inv -> Arrays.stream(periods)
+                .filter(p -> p.overlaps(inv.getArgument(0), inv.getArgument(1)))
+                .findFirst());
+    }
+
+    private RecurringBookingRequestDto weeklySeries(Integer occurrences) {
+        LocalDateTime monday = base.with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        RecurringBookingRequestDto request = new RecurringBookingRequestDto();
+        request.setRoomId(5L);
+        request.setStartTime(monday);
+        request.setEndTime(monday.plusHours(2));
+        request.setPurpose("Lecture");
+        request.setDaysOfWeek(Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY));
+        request.setOccurrences(occurrences);
+        return request;
+    }
+
+    @Test
+    void expandOccurrences_RespectsDaysAndCount() {
+        List<LocalDateTime> starts = bookingBatchService.expandOccurrences(weeklySeries(5));
+
+        assertEquals(5, starts.size());
+        assertTrue(starts.stream().allMatch(s -> s.getDayOfWeek() == DayOfWeek.MONDAY || s.getDayOfWeek() == DayOfWeek.WEDNESDAY));
+        assertEquals(starts.get(0).plusDays(14), starts.get(4));
+    }
+
+    @Test
+    void expandOccurrences_UntilIsInclusive() {
+        RecurringBookingRequestDto request = weeklySeries(null);
+        request.setUntil(request.getStartTime().plusDays(7));
+
+        List<LocalDateTime> starts = bookingBatchService.expandOccurrences(request);
+
+        assertEquals(3, starts.size());
+    }
+
+    @Test
+    void expandOccurrences_WithoutEnd_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> bookingBatchService.expandOccurrences(weeklySeries(null)));
+    }
+
+    @Test
+    void createRecurringSeries_UsesSingleRangeQueries() {
+        when(roomRepository.findAllWithFeaturesByIdIn(any())).thenReturn(List.of(room));
+        when(bookingService.hasRequiredFeatures(any(), any())).thenReturn(true);
+        when(bookingService.resolveCurrentUser()).thenReturn(owner);
+        when(bookingRepository.findAllOverlappingBookings(eq(5L), any(), any(), any())).thenReturn(List.of());
+        AtomicLong ids = new AtomicLong();
+        when(bookingRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Booking> bookings = inv.getArgument(0);
+            bookings.forEach(b -> b.setId(ids.incrementAndGet()));
+            return bookings;
+        });
+
+        RecurringBookingResponseDto response = bookingBatchService.createRecurringSeries(weeklySeries(6));
+
+        assertEquals(6, response.getCount());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), response.getBookingIds());
+        assertNotNull(response.getSeriesId());
+        verify(holidayCalendar, atLeastOnce()).firstOverlapping(any(), any());
+        verify(bookingRepository, times(1)).findAllOverlappingBookings(any(), any(), any(), any());
+    }
+
+    @Test
+    void createRecurringSeries_Conflict_CreatesNothing() {
+        RecurringBookingRequestDto request = weeklySeries(4);
+        when(roomRepository.findAllWithFeaturesByIdIn(any())).thenReturn(List.of(room));
+        when(bookingService.hasRequiredFeatures(any(), any())).thenReturn(true);
+        Booking existing = new Booking();
+        existing.setStartTime(request.getStartTime().plusDays(7));
+        existing.setEndTime(request.getStartTime().plusDays(7).plusHours(1));
+        when(bookingRepository.findAllOverlappingBookings(eq(5L), any(), any(), any())).thenReturn(List.of(existing));
+
+        assertThrows(ResourceConflictException.class, () -> bookingBatchService.createRecurringSeries(request));
+        verify(bookingRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void createRecurringSeries_LocksRoomBeforeFirstReadAndRunsReadCommitted() throws Exception {
+        when(roomRepository.findAllWithFeaturesByIdIn(any())).thenReturn(List.of(room));
+        when(bookingService.hasRequiredFeatures(any(), any())).thenReturn(true);
+        when(bookingService.resolveCurrentUser()).thenReturn(owner);
+        when(bookingRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        bookingBatchService.createRecurringSeries(weeklySeries(2));
+
+        InOrder inOrder = inOrder(roomLockManager, roomRepository, bookingRepository);
+        inOrder.verify(roomLockManager).lockForCurrentTransaction(5L);
+        inOrder.verify(roomRepository).findAllWithFeaturesByIdIn(any());
+        inOrder.verify(bookingRepository).findAllOverlappingBookings(eq(5L), any(), any(), any());
+        inOrder.verify(bookingRepository).saveAll(anyList());
+
+        Transactional tx = BookingBatchService.class.getMethod("createRecurringSeries", RecurringBookingRequestDto.class)
+                .getAnnotation(Transactional.class);
+        assertEquals(Isolation.READ_COMMITTED, tx.isolation());
+    }
+
+    @Test
+    void createRecurringSeries_BookingCommittedWhileWaitingForLock_CreatesNothing() {
+        RecurringBookingRequestDto request = weeklySeries(4);
+        when(roomRepository.findAllWithFeaturesByIdIn(any())).thenReturn(List.of(room));
+        when(bookingService.hasRequiredFeatures(any(), any())).thenReturn(true);
+        Booking competitor = new Booking();
+        competitor.setStartTime(request.getStartTime());
+        competitor.setEndTime(request.getEndTime());
+        // The competing booking commits while this series waits for the room lock
+        AtomicBoolean competitorCommitted = new AtomicBoolean();
+        doAnswer(inv -> {
+            competitorCommitted.set(true);
+            return null;
+        }).when(roomLockManager).lockForCurrentTransaction(5L);
+        when(bookingRepository.findAllOverlappingBookings(eq(5L), any(), any(), any()))
+                .thenAnswer(inv -> competitorCommitted.get() ? List.of(competitor) : List.of());
+
+        assertThrows(ResourceConflictException.class, () -> bookingBatchService.createRecurringSeries(request));
+        verify(bookingRepository, never()).saveAll(anyList());
+    }
+
+    private Booking pendingBooking(Long id, LocalDateTime start) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setRoom(room);
+        booking.setUser(owner);
+        booking.setStartTime(start);
+        booking.setEndTime(start.plusHours(2));
+        booking.setStatus(BookingStatus.PENDING);
+        return booking;
+    }
+
+    @Test
+    void approveAll_HolidaysFromCalendarAndOneUpdate() {
+        Booking ok = pendingBooking(1L, base);
+        Booking onHoliday = pendingBooking(2L, base.plusDays(1));
+        Booking approved = pendingBooking(3L, base.plusDays(2));
+        approved.setStatus(BookingStatus.APPROVED);
+        when(bookingRepository.findAllByIdForUpdate(any())).thenReturn(List.of(ok, onHoliday, approved));
+        holidays(new HolidayCalendar.HolidayPeriod(1L, "Exam break", base.plusDays(1), base.plusDays(1).plusHours(12)));
+        when(bookingRepository.transitionStatuses(List.of(1L), Set.of(BookingStatus.PENDING), BookingStatus.APPROVED)).thenReturn(1);
+        when(bookingService.resolveCurrentUser()).thenReturn(owner);
+
+        BulkApproveRequestDto request = new BulkApproveRequestDto();
+        request.setBookingIds(List.of(1L, 2L, 3L, 4L, 1L));
+        BulkBookingActionResponseDto response = bookingBatchService.approveAll(request);
+
+        assertEquals(List.of(1L), response.getSucceeded());
+        assertEquals(Set.of(2L, 3L, 4L), response.getFailed().keySet());
+        assertEquals(BookingStatus.APPROVED, ok.getStatus());
+        verify(holidayCalendar, atLeastOnce()).firstOverlapping(any(), any());
+        verify(bookingHistoryService).createAuditEntries(eq(List.of(ok)), eq(BookingStatus.APPROVED), eq(owner), isNull());
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void rejectAll_ReleasesSlotsAndAuditsWithReason() {
+        Booking first = pendingBooking(1L, base);
+        Booking second = pendingBooking(2L, base.plusDays(1));
+        when(bookingRepository.findAllByIdForUpdate(any())).thenReturn(List.of(first, second));
+        when(bookingRepository.transitionStatuses(List.of(1L, 2L), Set.of(BookingStatus.PENDING), BookingStatus.REJECTED)).thenReturn(2);
+        when(bookingService.resolveCurrentUser()).thenReturn(owner);
+
+        BulkRejectRequestDto request = new BulkRejectRequestDto();
+        request.setBookingIds(List.of(1L, 2L));
+        request.setReason("Building closed");
+        BulkBookingActionResponseDto response = bookingBatchService.rejectAll(request);
+
+        assertEquals(List.of(1L, 2L), response.getSucceeded());
+        assertTrue(response.getFailed().isEmpty());
+        verify(slotOccupancyService).release(List.of(1L, 2L));
+        verify(bookingHistoryService).createAuditEntries(eq(List.of(first, second)), eq(BookingStatus.REJECTED), eq(owner), eq("Building closed"));
+        verifyNoInteractions(holidayCalendar);
+    }
+
+    @Test
+    void rejectAll_UpdateCountMismatch_ThrowsConflict() {
+        when(bookingRepository.findAllByIdForUpdate(any())).thenReturn(List.of(pendingBooking(1L, base)));
+        when(bookingRepository.transitionStatuses(any(), any(), any())).thenReturn(0);
+
+        BulkRejectRequestDto request = new BulkRejectRequestDto();
+        request.setBookingIds(List.of(1L));
+        request.setReason("Building closed");
+
+        assertThrows(ResourceConflictException.class, () -> bookingBatchService.rejectAll(request));
+        verify(bookingHistoryService, never()).createAuditEntries(any(), any(), any(), any());
+    }
+}
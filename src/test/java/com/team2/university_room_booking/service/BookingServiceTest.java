@@ -5,31 +5,43 @@ import com.team2.university_room_booking.dto.request.RejectBookingDto;
 import com.team2.university_room_booking.dto.response.BookingDto;
 import com.team2.university_room_booking.dto.response.TopRecurringRoomDto;
 import com.team2.university_room_booking.enums.BookingStatus;
+import com.team2.university_room_booking.enums.RoomType;
 import com.team2.university_room_booking.exceptions.*;
 import com.team2.university_room_booking.mapper.DtoMapper;
 import com.team2.university_room_booking.model.Booking;
-import com.team2.university_room_booking.model.Holiday;
 import com.team2.university_room_booking.model.Room;
 import com.team2.university_room_booking.model.User;
 import com.team2.university_room_booking.repository.BookingRepository;
-import com.team2.university_room_booking.repository.HolidayRepository;
 import com.team2.university_room_booking.repository.RoomRepository;
+import com.team2.university_room_booking.service.holiday.HolidayCalendar;
+import com.team2.university_room_booking.service.quota.BookingQuotas;
+import com.team2.university_room_booking.service.allocation.RoomAllocationStrategy.RoomCandidate;
+import com.team2.university_room_booking.service.allocation.RoomAllocator;
+import com.team2.university_room_booking.service.catalog.RoomCatalog;
+import com.team2.university_room_booking.service.index.BookingIntervalIndex;
+import com.team2.university_room_booking.service.lock.RoomLockManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -45,7 +57,10 @@ class BookingServiceTest {
     private RoomRepository roomRepository;
 
     @Mock
-    private HolidayRepository holidayRepository;
+    private HolidayCalendar holidayCalendar;
+
+    @Mock
+    private BookingQuotas bookingQuotas;
 
     @Mock
     private SecurityContext securityContext;
@@ -62,6 +77,24 @@ class BookingServiceTest {
     @Mock
     private BookingHistoryService bookingHistoryService;
 
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Mock
+    private RoomCatalog roomCatalog;
+
+    @Mock
+    private RoomLockManager roomLockManager;
+
+    @Mock
+    private RoomAllocator roomAllocator;
+
+    @Mock
+    private SlotOccupancyService slotOccupancyService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private Booking testBooking;
     private User testUser;
     private Room testRoom;
@@ -103,7 +136,7 @@ class BookingServiceTest {
     void createBooking_Success() {
         setupSecurityContext();
         when(roomRepository.findById(1L)).thenReturn(Optional.of(testRoom));
-        when(holidayRepository.findOverlappingHolidays(any(), any())).thenReturn(Collections.emptyList());
+        when(holidayCalendar.overlapping(any(), any())).thenReturn(Collections.emptyList());
         when(bookingRepository.existsByRoomIdAndStatusInAndStartTimeLessThanAndEndTimeGreaterThan(any(), any(), any(), any())).thenReturn(false);
         when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -118,6 +151,78 @@ class BookingServiceTest {
         verify(bookingRepository, times(1)).save(any(Booking.class));
     }
 
+    @Test
+    void createBooking_LocksRoomBeforeFirstReadAndRunsReadCommitted() throws Exception {
+        setupSecurityContext();
+        when(roomRepository.findById(1L)).thenReturn(Optional.of(testRoom));
+        when(holidayCalendar.overlapping(any(), any())).thenReturn(Collections.emptyList());
+        when(bookingRepository.existsByRoomIdAndStatusInAndStartTimeLessThanAndEndTimeGreaterThan(any(), any(), any(), any())).thenReturn(false);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        bookingService.createBooking(createBookingRequestDto);
+
+        InOrder inOrder = inOrder(roomLockManager, roomRepository, bookingRepository);
+        inOrder.verify(roomLockManager).lockForCurrentTransaction(1L);
+        inOrder.verify(roomRepository).findById(1L);
+        inOrder.verify(bookingRepository).existsByRoomIdAndStatusInAndStartTimeLessThanAndEndTimeGreaterThan(any(), any(), any(), any());
+        inOrder.verify(bookingRepository).save(any(Booking.class));
+
+        Transactional tx = BookingService.class.getMethod("createBooking", CreateBookingRequestDto.class).getAnnotation(Transactional.class);
+        assertEquals(Isolation.READ_COMMITTED, tx.isolation());
+    }
+
+    @Test
+    void createBooking_BookingCommittedWhileWaitingForLock_IsSeenByConflictCheck() {
+        when(holidayCalendar.overlapping(any(), any())).thenReturn(Collections.emptyList());
+        when(roomRepository.findById(1L)).thenReturn(Optional.of(testRoom));
+        // The competing booking commits while this request waits for the room lock
+        AtomicBoolean competitorCommitted = new AtomicBoolean();
+        doAnswer(invocation -> {
+            competitorCommitted.set(true);
+            return null;
+        }).when(roomLockManager).lockForCurrentTransaction(1L);
+        when(bookingRepository.existsByRoomIdAndStatusInAndStartTimeLessThanAndEndTimeGreaterThan(any(), any(), any(), any()))
+                .thenAnswer(invocation -> competitorCommitted.get());
+
+        assertThrows(ResourceConflictException.class, () -> bookingService.createBooking(createBookingRequestDto));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createBooking_NoRoomId_UsesSingleFreeRoomQuery() {
+        setupSecurityContext();
+        createBookingRequestDto.setRoomId(null);
+        createBookingRequestDto.setRoomType(RoomType.LAB);
+        createBookingRequestDto.setAttendeeCount(25);
+        when(roomCatalog.candidates(RoomType.LAB, null, 25)).thenReturn(List.of(
+                new RoomCatalog.CatalogRoom(1L, "Room 101", RoomType.LAB, 30, true, null, null, new long[1])));
+        List<RoomRepository.FreeRoom> free = List.of(freeRoom(3L, 60), freeRoom(1L, 30));
+        when(roomRepository.findFreeRooms(eq(RoomType.LAB), eq(25), isNull(), any(), any(), any())).thenReturn(free);
+        when(roomAllocator.choose(any(), any())).thenReturn(new RoomCandidate(1L, 30));
+        when(roomRepository.findById(1L)).thenReturn(Optional.of(testRoom));
+        when(holidayCalendar.overlapping(any(), any())).thenReturn(Collections.emptyList());
+        when(bookingRepository.existsByRoomIdAndStatusInAndStartTimeLessThanAndEndTimeGreaterThan(any(), any(), any(), any())).thenReturn(false);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Booking booking = bookingService.createBooking(createBookingRequestDto);
+
+        assertEquals(testRoom, booking.getRoom());
+        verify(roomRepository, times(1)).findFreeRooms(any(), anyInt(), any(), any(), any(), any());
+        verify(roomAllocator).choose(eq(List.of(new RoomCandidate(3L, 60), new RoomCandidate(1L, 30))), any());
+        verify(roomRepository, never()).findAll();
+    }
+
+    @Test
+    void createBooking_NoRoomId_NoCatalogMatch_SkipsDatabase() {
+        createBookingRequestDto.setRoomId(null);
+        createBookingRequestDto.setRequiredFeatureIds(Set.of(42L));
+        when(holidayCalendar.overlapping(any(), any())).thenReturn(Collections.emptyList());
+        when(roomCatalog.candidates(null, Set.of(42L), 1)).thenReturn(List.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> bookingService.createBooking(createBookingRequestDto));
+        verify(roomRepository, never()).findFreeRooms(any(), anyInt(), any(), any(), any(), any());
+    }
+
     @Test
     void createBooking_RoomNotFound_ThrowsNotFoundException() {
         when(roomRepository.findById(1L)).thenReturn(Optional.empty());
@@ -128,8 +233,8 @@ class BookingServiceTest {
     @Test
     void createBooking_HolidayConflict_ThrowsResourceConflictException() {
         // No need to stub roomRepository; method returns before accessing it
-        Holiday holiday = new Holiday(1L, "Test Holiday", createBookingRequestDto.getStartTime(), createBookingRequestDto.getEndTime());
-        when(holidayRepository.findOverlappingHolidays(any(), any())).thenReturn(List.of(holiday));
+        HolidayCalendar.HolidayPeriod holiday = new HolidayCalendar.HolidayPeriod(1L, "Test Holiday", createBookingRequestDto.getStartTime(), createBookingRequestDto.getEndTime());
+        when(holidayCalendar.overlapping(any(), any())).thenReturn(List.of(holiday));
 
         assertThrows(ResourceConflictException.class, () -> bookingService.createBooking(createBookingRequestDto));
     }
@@ -137,7 +242,7 @@ class BookingServiceTest {
     @Test
     void createBooking_BookingConflict_ThrowsResourceConflictException() {
         when(roomRepository.findById(1L)).thenReturn(Optional.of(testRoom));
-        when(holidayRepository.findOverlappingHolidays(any(), any())).thenReturn(Collections.emptyList());
+        when(holidayCalendar.overlapping(any(), any())).thenReturn(Collections.emptyList());
         when(bookingRepository.existsByRoomIdAndStatusInAndStartTimeLessThanAndEndTimeGreaterThan(any(), any(), any(), any())).thenReturn(true);
 
         assertThrows(ResourceConflictException.class, () -> bookingService.createBooking(createBookingRequestDto));
@@ -190,7 +295,7 @@ class BookingServiceTest {
 
         when(bookingRepository.findById(testBooking.getId())).thenReturn(Optional.of(testBooking));
         when(authentication.getName()).thenReturn(testUser.getUsername());
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bookingRepository.transitionStatus(eq(testBooking.getId()), any(), eq(BookingStatus.CANCELLED))).thenReturn(1);
         when(dtoMapper.toBookingDto(any(Booking.class))).thenReturn(bookingDto);
 
         doNothing().when(bookingHistoryService).createAuditEntry(any(), any(), any(), any());
@@ -198,7 +303,8 @@ class BookingServiceTest {
         BookingDto result = bookingService.cancelBooking(testBooking.getId());
 
         assertEquals(BookingStatus.CANCELLED, result.getStatus());
-        verify(bookingRepository).save(testBooking);
+        assertEquals(BookingStatus.CANCELLED, testBooking.getStatus());
+        verify(bookingRepository, never()).save(any(Booking.class));
         verify(dtoMapper).toBookingDto(testBooking);
     }
 
@@ -258,7 +364,7 @@ class BookingServiceTest {
         bookingDto.setStatus(BookingStatus.REJECTED);
 
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(testBooking));
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(bookingRepository.transitionStatus(1L, Set.of(BookingStatus.PENDING), BookingStatus.REJECTED)).thenReturn(1);
         when(dtoMapper.toBookingDto(any(Booking.class))).thenReturn(bookingDto);
 
         doNothing().when(bookingHistoryService).createAuditEntry(any(), any(), any(), any());
@@ -268,7 +374,8 @@ class BookingServiceTest {
         BookingDto result = bookingService.rejectBooking(testBooking.getId(), dto);
 
         assertEquals(BookingStatus.REJECTED, result.getStatus());
-        verify(bookingRepository).save(testBooking);
+        assertEquals(BookingStatus.REJECTED, testBooking.getStatus());
+        verify(bookingRepository, never()).save(any(Booking.class));
         verify(dtoMapper).toBookingDto(testBooking);
     }
 
@@ -304,8 +411,8 @@ class BookingServiceTest {
         bookingDto.setStatus(BookingStatus.APPROVED);
 
         when(bookingRepository.findById(testBooking.getId())).thenReturn(Optional.of(testBooking));
-        when(holidayRepository.findOverlappingHolidays(any(), any())).thenReturn(Collections.emptyList());
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(holidayCalendar.overlapping(any(), any())).thenReturn(Collections.emptyList());
+        when(bookingRepository.transitionStatus(testBooking.getId(), Set.of(BookingStatus.PENDING), BookingStatus.APPROVED)).thenReturn(1);
         when(dtoMapper.toBookingDto(any(Booking.class))).thenReturn(bookingDto);
 
         doNothing().when(bookingHistoryService).createAuditEntry(any(), any(), any(), any());
@@ -313,10 +420,23 @@ class BookingServiceTest {
         BookingDto result = bookingService.approveBooking(testBooking.getId());
 
         assertEquals(BookingStatus.APPROVED, result.getStatus());
-        verify(bookingRepository).save(testBooking);
+        assertEquals(BookingStatus.APPROVED, testBooking.getStatus());
+        verify(bookingRepository, never()).save(any(Booking.class));
         verify(dtoMapper).toBookingDto(testBooking);
     }
 
+    @Test
+    void approveBooking_ConcurrentTransition_ThrowsConflictWithoutAudit() {
+        when(bookingRepository.findById(testBooking.getId())).thenReturn(Optional.of(testBooking));
+        when(holidayCalendar.overlapping(any(), any())).thenReturn(Collections.emptyList());
+        // Another admin rejected the booking between the read and the update
+        when(bookingRepository.transitionStatus(testBooking.getId(), Set.of(BookingStatus.PENDING), BookingStatus.APPROVED)).thenReturn(0);
+
+        assertThrows(ResourceConflictException.class, () -> bookingService.approveBooking(testBooking.getId()));
+        verify(bookingHistoryService, never()).createAuditEntry(any(), any(), any(), any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
     @Test
     void approveBooking_BookingNotFound_ThrowsResourceNotFound() {
         when(bookingRepository.findById(99L)).thenReturn(Optional.empty());
@@ -343,12 +463,26 @@ class BookingServiceTest {
     @Test
     void approveBooking_HolidayConflict_ThrowsResourceConflict() {
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(testBooking));
-        when(holidayRepository.findOverlappingHolidays(any(), any()))
-                .thenReturn(List.of(new Holiday(1L, "Holiday", testBooking.getStartTime(), testBooking.getEndTime())));
+        when(holidayCalendar.overlapping(any(), any()))
+                .thenReturn(List.of(new HolidayCalendar.HolidayPeriod(1L, "Holiday", testBooking.getStartTime(), testBooking.getEndTime())));
 
         assertThrows(
                 ResourceConflictException.class,
                 () -> bookingService.approveBooking(testBooking.getId())
         );
     }
+
+    private static RoomRepository.FreeRoom freeRoom(Long id, int capacity) {
+        return new RoomRepository.FreeRoom() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public int getCapacity() {
+                return capacity;
+            }
+        };
+    }
 }
@@ -2,6 +2,7 @@ package com.team2.university_room_booking.service;
 
 import com.team2.university_room_booking.dto.request.CreateDepartmentDto;
 import com.team2.university_room_booking.dto.response.DepartmentDto;
+import com.team2.university_room_booking.event.RoomCatalogChangedEvent;
 import com.team2.university_room_booking.exceptions.BadRequestException;
 import com.team2.university_room_booking.exceptions.ResourceNotFoundException;
 import com.team2.university_room_booking.mapper.DtoMapper;
@@ -15,6 +16,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -32,6 +34,9 @@ class DepartmentServiceImplTest {
     @Mock
     private DtoMapper dtoMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private DepartmentServiceImpl departmentService;
     private Department department;
@@ -64,6 +69,7 @@ class DepartmentServiceImplTest {
         assertNotNull(result);
         assertEquals("Engineering", result.getName());
         verify(departmentRepository, times(1)).save(any(Department.class));
+        verify(eventPublisher).publishEvent(any(RoomCatalogChangedEvent.class));
     }
 
     @Test
@@ -127,6 +133,7 @@ class DepartmentServiceImplTest {
         DepartmentDto result = departmentService.updateDepartment(1L, createDto);
 
         assertEquals("Engineering", result.getName());
+        verify(eventPublisher).publishEvent(any(RoomCatalogChangedEvent.class));
     }
 
     @Test
@@ -144,6 +151,7 @@ class DepartmentServiceImplTest {
 
         assertThrows(BadRequestException.class,
                 () -> departmentService.updateDepartment(1L, createDto));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -153,6 +161,7 @@ class DepartmentServiceImplTest {
         departmentService.deleteDepartment(1L);
 
         verify(departmentRepository, times(1)).deleteById(1L);
+        verify(eventPublisher).publishEvent(any(RoomCatalogChangedEvent.class));
     }
 
     @Test
@@ -2,6 +2,7 @@ package com.team2.university_room_booking.service;
 
 import com.team2.university_room_booking.dto.request.CreateRoomFeatureDto;
 import com.team2.university_room_booking.dto.response.RoomFeatureDto;
+import com.team2.university_room_booking.event.RoomCatalogChangedEvent;
 import com.team2.university_room_booking.exceptions.BadRequestException;
 import com.team2.university_room_booking.exceptions.ResourceNotFoundException;
 import com.team2.university_room_booking.mapper.DtoMapper;
@@ -13,12 +14,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +33,9 @@ class RoomFeatureServiceTest {
     @Mock
     private DtoMapper dtoMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private RoomFeatureService service;
 
@@ -62,6 +68,7 @@ class RoomFeatureServiceTest {
         assertNotNull(result);
         assertEquals("Projector", result.getName());
         verify(repository).save(feature);
+        verify(eventPublisher).publishEvent(any(RoomCatalogChangedEvent.class));
     }
 
     @Test
@@ -118,6 +125,7 @@ class RoomFeatureServiceTest {
         when(repository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> service.update(1L, featureDto));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -128,6 +136,7 @@ class RoomFeatureServiceTest {
         service.delete(1L);
 
         verify(repository).deleteById(1L);
+        verify(eventPublisher).publishEvent(any(RoomCatalogChangedEvent.class));
     }
 
     @Test
@@ -2,20 +2,28 @@ package com.team2.university_room_booking.service;
 
 import com.team2.university_room_booking.dto.request.AvailabilityRequestDto;
 import com.team2.university_room_booking.dto.request.RoomRequestDto;
+import com.team2.university_room_booking.dto.request.RoomSearchRequestDto;
+import com.team2.university_room_booking.dto.response.AvailabilityGridDto;
+import com.team2.university_room_booking.dto.response.AvailableRoomTimesDto;
 import com.team2.university_room_booking.dto.response.RoomDto;
+import com.team2.university_room_booking.dto.response.RoomSearchResponseDto;
+import com.team2.university_room_booking.event.RoomCatalogChangedEvent;
 import com.team2.university_room_booking.exceptions.BadRequestException;
 import com.team2.university_room_booking.exceptions.ResourceConflictException;
 import com.team2.university_room_booking.exceptions.ResourceNotFoundException;
 import com.team2.university_room_booking.mapper.DtoMapper;
 import com.team2.university_room_booking.model.*;
 import com.team2.university_room_booking.repository.*;
+import com.team2.university_room_booking.service.index.RoomOccupancyBitmaps;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -29,8 +37,11 @@ class RoomServiceTest {
     @Mock private RoomRepository roomRepository;
     @Mock private RoomFeatureRepository roomFeatureRepository;
     @Mock private BuildingRepository buildingRepository;
+    @Mock private DepartmentRepository departmentRepository;
     @Mock private BookingRepository bookingRepository;
     @Mock private DtoMapper dtoMapper;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private RoomOccupancyBitmaps roomOccupancyBitmaps;
 
     @InjectMocks private RoomService roomService;
     private Room room;
@@ -74,6 +85,7 @@ class RoomServiceTest {
         assertNotNull(result);
         assertEquals("A101", result.getName());
         verify(roomRepository).save(any(Room.class));
+        verify(eventPublisher).publishEvent(any(RoomCatalogChangedEvent.class));
     }
 
     @Test
@@ -114,5 +126,133 @@ class RoomServiceTest {
 
         assertThrows(BadRequestException.class, () -> roomService.getRoomAvailability(1L, req));
     }
-}
 
+    private RoomSearchRequestDto searchRequest(int size) {
+        RoomSearchRequestDto request = new RoomSearchRequestDto();
+        request.setStart(LocalDateTime.now().plusDays(1));
+        request.setEnd(LocalDateTime.now().plusDays(1).plusHours(2));
+        request.setMinCapacity(30);
+        request.setSize(size);
+        return request;
+    }
+
+    private Room roomWithCapacity(long id, int capacity) {
+        Room r = new Room();
+        r.setId(id);
+        r.setCapacity(capacity);
+        r.setBuilding(building);
+        r.setFeatures(Set.of());
+        return r;
+    }
+
+    @Test
+    void searchFreeRooms_ReturnsCursorThatResumesAfterLastRoom() {
+        when(roomRepository.searchFreeRoomsByCapacity(any(), eq(30), any(), eq(0L), any(), any(), any(),
+                eq(Integer.MIN_VALUE), eq(0L), any()))
+                .thenReturn(List.of(roomWithCapacity(4, 30), roomWithCapacity(2, 40), roomWithCapacity(9, 40)));
+        when(roomRepository.findAllWithFeaturesByIdIn(any())).thenReturn(List.of());
+        when(dtoMapper.toRoomDto(any(Room.class))).thenAnswer(inv -> new RoomDto());
+
+        RoomSearchResponseDto first = roomService.searchFreeRooms(searchRequest(2));
+
+        assertEquals(2, first.getRooms().size());
+        assertNotNull(first.getNextCursor());
+
+        RoomSearchRequestDto next = searchRequest(2);
+        next.setCursor(first.getNextCursor());
+        when(roomRepository.searchFreeRoomsByCapacity(any(), eq(30), any(), eq(0L), any(), any(), any(),
+                eq(40), eq(2L), any()))
+                .thenReturn(List.of(roomWithCapacity(9, 40)));
+
+        RoomSearchResponseDto second = roomService.searchFreeRooms(next);
+
+        assertEquals(1, second.getRooms().size());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void searchFreeRooms_CursorFromOtherSort_ThrowsBadRequest() {
+        when(roomRepository.searchFreeRoomsByCapacity(any(), anyInt(), any(), anyLong(), any(), any(), any(),
+                anyInt(), anyLong(), any()))
+                .thenReturn(List.of(roomWithCapacity(4, 30), roomWithCapacity(2, 40)));
+        when(roomRepository.findAllWithFeaturesByIdIn(any())).thenReturn(List.of());
+        when(dtoMapper.toRoomDto(any(Room.class))).thenAnswer(inv -> new RoomDto());
+        String capacityCursor = roomService.searchFreeRooms(searchRequest(1)).getNextCursor();
+
+        RoomSearchRequestDto request = searchRequest(1);
+        request.setSort("building");
+        request.setCursor(capacityCursor);
+
+        assertThrows(BadRequestException.class, () -> roomService.searchFreeRooms(request));
+        RoomSearchRequestDto garbage = searchRequest(1);
+        garbage.setCursor("not-a-cursor!");
+        assertThrows(BadRequestException.class, () -> roomService.searchFreeRooms(garbage));
+    }
+
+    @Test
+    void getBuildingAvailability_OneSweepOverAllRoomsBookings() {
+        LocalDate date = LocalDate.now().plusDays(3);
+        LocalDateTime day = date.atStartOfDay();
+        when(buildingRepository.existsById(1L)).thenReturn(true);
+        when(roomRepository.findNamesByBuildingId(1L)).thenReturn(List.of(roomName(1L, "A101"), roomName(2L, "A102"), roomName(3L, "A103")));
+        when(bookingRepository.findSlotsForRooms(eq(List.of(1L, 2L, 3L)), any(), eq(day), eq(day.plusDays(1)))).thenReturn(List.of(
+                slot(1L, day.plusHours(9), day.plusHours(11)),
+                slot(1L, day.plusHours(10), day.plusHours(12)),
+                slot(3L, day.minusHours(1), day.plusHours(8))));
+
+        AvailabilityGridDto grid = roomService.getBuildingAvailability(1L, date);
+
+        assertEquals(3, grid.getRooms().size());
+        assertEquals(List.of(new AvailableRoomTimesDto(day, day.plusHours(9)), new AvailableRoomTimesDto(day.plusHours(12), day.plusDays(1))),
+                grid.getRooms().get(0).getFree());
+        assertEquals(List.of(new AvailableRoomTimesDto(day, day.plusDays(1))), grid.getRooms().get(1).getFree());
+        assertEquals(List.of(new AvailableRoomTimesDto(day.plusHours(8), day.plusDays(1))), grid.getRooms().get(2).getFree());
+        verify(bookingRepository, times(1)).findSlotsForRooms(any(), any(), any(), any());
+    }
+
+    @Test
+    void getDepartmentAvailability_UnknownDepartment_ThrowsNotFound() {
+        when(departmentRepository.existsById(5L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> roomService.getDepartmentAvailability(5L, LocalDate.now()));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    private static RoomRepository.RoomName roomName(Long id, String name) {
+        return new RoomRepository.RoomName() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    private static BookingRepository.BookingSlot slot(Long roomId, LocalDateTime start, LocalDateTime end) {
+        return new BookingRepository.BookingSlot() {
+            @Override
+            public Long getId() {
+                return null;
+            }
+
+            @Override
+            public Long getRoomId() {
+                return roomId;
+            }
+
+            @Override
+            public LocalDateTime getStartTime() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEndTime() {
+                return end;
+            }
+        };
+    }
+}
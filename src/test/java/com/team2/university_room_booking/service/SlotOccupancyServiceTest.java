@@ -0,0 +1,81 @@
+package com.team2.university_room_booking.service;
+
+import com.team2.university_room_booking.exceptions.ResourceConflictException;
+import com.team2.university_room_booking.model.Booking;
+import com.team2.university_room_booking.model.Room;
+import com.team2.university_room_booking.repository.RoomSlotOccupancyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlotOccupancyServiceTest {
+
+    @Mock
+    private RoomSlotOccupancyRepository slotOccupancyRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SlotOccupancyService slotOccupancyService;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        slotOccupancyService = new SlotOccupancyService(slotOccupancyRepository, jdbcTemplate, true, 15);
+
+        Room room = new Room();
+        room.setId(3L);
+        booking = new Booking();
+        booking.setId(9L);
+        booking.setRoom(room);
+        booking.setStartTime(LocalDateTime.of(2030, 1, 7, 10, 5));
+        booking.setEndTime(LocalDateTime.of(2030, 1, 7, 11, 0));
+    }
+
+    @Test
+    void slotsFor_RoundsOutwardsToWholeSlots() {
+        List<LocalDateTime> slots = slotOccupancyService.slotsFor(booking.getStartTime(), booking.getEndTime());
+
+        assertEquals(List.of(
+                LocalDateTime.of(2030, 1, 7, 10, 0),
+                LocalDateTime.of(2030, 1, 7, 10, 15),
+                LocalDateTime.of(2030, 1, 7, 10, 30),
+                LocalDateTime.of(2030, 1, 7, 10, 45)), slots);
+    }
+
+    @Test
+    void claim_DuplicateSlot_ThrowsResourceConflictException() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DuplicateKeyException("uk"));
+
+        assertThrows(ResourceConflictException.class, () -> slotOccupancyService.claim(booking));
+    }
+
+    @Test
+    void disabled_DoesNotTouchTheTable() {
+        SlotOccupancyService disabled = new SlotOccupancyService(slotOccupancyRepository, jdbcTemplate, false, 15);
+
+        disabled.claim(booking);
+        disabled.release(booking.getId());
+        assertTrue(disabled.claimedSlots(3L, booking.getStartTime(), booking.getEndTime()).isEmpty());
+
+        verifyNoInteractions(jdbcTemplate, slotOccupancyRepository);
+    }
+
+    @Test
+    void invalidGranularity_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SlotOccupancyService(slotOccupancyRepository, jdbcTemplate, true, 7));
+    }
+}
@@ -0,0 +1,49 @@
+package com.team2.university_room_booking.service.allocation;
+
+import com.team2.university_room_booking.repository.BookingRepository;
+import com.team2.university_room_booking.service.allocation.RoomAllocationStrategy.AllocationRequest;
+import com.team2.university_room_booking.service.allocation.RoomAllocationStrategy.RoomCandidate;
+import com.team2.university_room_booking.service.index.BookingIntervalIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Acceptance rate and choice latency of each allocation strategy over a synthetic semester.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+class RoomAllocationBenchmark {
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+
+    @Test
+    void semesterSimulation_AcceptanceAndChoiceLatencyPerStrategy() {
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        List<RoomCandidate> rooms = RoomAllocationStrategyTest.syntheticRooms();
+        List<AllocationRequest> requests = RoomAllocationStrategyTest.syntheticRequests(base);
+
+        run(index -> new FirstFitAllocationStrategy(), rooms, requests);
+        run(index -> new BestFitAllocationStrategy(), rooms, requests);
+        run(LeastFragmentationAllocationStrategy::new, rooms, requests);
+    }
+
+    private void run(Function<BookingIntervalIndex, RoomAllocationStrategy> factory,
+                     List<RoomCandidate> rooms, List<AllocationRequest> requests) {
+        BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository);
+        RoomAllocationStrategy strategy = factory.apply(index);
+
+        List<Long> chooseNanos = RoomAllocationStrategyTest.simulate(index, strategy, rooms, requests);
+
+        long accepted = chooseNanos.size();
+        long total = chooseNanos.stream().mapToLong(Long::longValue).sum();
+        log.info("allocation strategy={} requests={} accepted={}% avgChoose={} ns",
+                strategy.name(), requests.size(), String.format("%.1f", 100.0 * accepted / requests.size()),
+                accepted == 0 ? 0 : total / accepted);
+    }
+}
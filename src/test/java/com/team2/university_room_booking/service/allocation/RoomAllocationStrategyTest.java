@@ -0,0 +1,139 @@
+package com.team2.university_room_booking.service.allocation;
+
+import com.team2.university_room_booking.repository.BookingRepository;
+import com.team2.university_room_booking.service.allocation.RoomAllocationStrategy.AllocationRequest;
+import com.team2.university_room_booking.service.allocation.RoomAllocationStrategy.RoomCandidate;
+import com.team2.university_room_booking.service.index.BookingIntervalIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomAllocationStrategyTest {
+
+    private static final int ROOMS = 30;
+    private static final int DAYS = 100;
+    private static final int REQUESTS = 12_000;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingIntervalIndex index;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingIntervalIndex(bookingRepository);
+        base = LocalDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void firstFitAndBestFit_PickLowestIdAndSmallestRoom() {
+        List<RoomCandidate> free = List.of(new RoomCandidate(3L, 40), new RoomCandidate(1L, 120), new RoomCandidate(2L, 40));
+        AllocationRequest request = new AllocationRequest(base, base.plusHours(1), 30);
+
+        assertEquals(1L, new FirstFitAllocationStrategy().choose(free, request).roomId());
+        assertEquals(2L, new BestFitAllocationStrategy().choose(free, request).roomId());
+    }
+
+    @Test
+    void leastFragmentation_PrefersRoomWithoutUnusableGap() {
+        // Room 1 would leave a 30 minute hole before its next booking, room 2 fits back-to-back
+        index.put(10L, 1L, base.plusHours(1).plusMinutes(30), base.plusHours(3));
+        index.put(20L, 2L, base.plusHours(1), base.plusHours(2));
+        List<RoomCandidate> free = List.of(new RoomCandidate(1L, 30), new RoomCandidate(2L, 60));
+
+        RoomCandidate chosen = new LeastFragmentationAllocationStrategy(index)
+                .choose(free, new AllocationRequest(base, base.plusHours(1), 20));
+
+        assertEquals(2L, chosen.roomId());
+    }
+
+    @Test
+    void roomAllocator_UnknownStrategy_Throws() {
+        List<RoomAllocationStrategy> strategies = List.of(new FirstFitAllocationStrategy(), new BestFitAllocationStrategy());
+
+        assertEquals("best-fit", new RoomAllocator(strategies, "best-fit").strategyName());
+        assertNull(new RoomAllocator(strategies, "first-fit").choose(List.of(), null));
+        assertThrows(IllegalArgumentException.class, () -> new RoomAllocator(strategies, "worst-fit"));
+    }
+
+    @Test
+    void semesterSimulation_BestFitAcceptsAtLeastAsManyAsFirstFit() {
+        List<RoomCandidate> rooms = syntheticRooms();
+        List<AllocationRequest> requests = syntheticRequests(base);
+
+        double firstFit = acceptance(simulate(new BookingIntervalIndex(bookingRepository), new FirstFitAllocationStrategy(), rooms, requests), requests);
+        double bestFit = acceptance(simulate(new BookingIntervalIndex(bookingRepository), new BestFitAllocationStrategy(), rooms, requests), requests);
+
+        assertTrue(bestFit >= firstFit, "best-fit " + bestFit + " < first-fit " + firstFit);
+    }
+
+    private static double acceptance(List<Long> chooseNanos, List<AllocationRequest> requests) {
+        return (double) chooseNanos.size() / requests.size();
+    }
+
+    /**
+     * Offers the requests in order to the strategy, booking each into the index when some room is
+     * free, and returns how long every accepted choice took.
+     */
+    static List<Long> simulate(BookingIntervalIndex index, RoomAllocationStrategy strategy,
+                               List<RoomCandidate> rooms, List<AllocationRequest> requests) {
+        List<Long> chooseNanos = new ArrayList<>();
+        long bookingId = 0;
+        for (AllocationRequest request : requests) {
+            List<RoomCandidate> free = new ArrayList<>();
+            for (RoomCandidate room : rooms) {
+                if (room.capacity() >= request.attendeeCount() && !index.overlaps(room.roomId(), request.start(), request.end())) {
+                    free.add(room);
+                }
+            }
+            if (free.isEmpty()) {
+                continue;
+            }
+            long begin = System.nanoTime();
+            RoomCandidate chosen = strategy.choose(free, request);
+            chooseNanos.add(System.nanoTime() - begin);
+            index.put(++bookingId, chosen.roomId(), request.start(), request.end());
+        }
+        return chooseNanos;
+    }
+
+    static List<RoomCandidate> syntheticRooms() {
+        // Capacities 20..200 assigned to ids in shuffled order so id order says nothing about size
+        Random random = new Random(7);
+        List<Integer> capacities = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            capacities.add(20 + (180 * i) / (ROOMS - 1));
+        }
+        Collections.shuffle(capacities, random);
+        List<RoomCandidate> rooms = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            rooms.add(new RoomCandidate((long) i + 1, capacities.get(i)));
+        }
+        return rooms;
+    }
+
+    static List<AllocationRequest> syntheticRequests(LocalDateTime base) {
+        // Mostly small groups with an occasional lecture-sized one, 1-4 hours between 08:00 and 20:00
+        Random random = new Random(42);
+        List<AllocationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            int attendees = random.nextInt(10) < 8 ? 5 + random.nextInt(40) : 60 + random.nextInt(141);
+            int hours = 1 + random.nextInt(4);
+            LocalDateTime start = base.plusDays(random.nextInt(DAYS)).plusHours(random.nextInt(13 - hours));
+            requests.add(new AllocationRequest(start, start.plusHours(hours), attendees));
+        }
+        return requests;
+    }
+}
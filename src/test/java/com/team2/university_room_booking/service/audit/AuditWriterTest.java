@@ -0,0 +1,276 @@
+package com.team2.university_room_booking.service.audit;
+
+import com.team2.university_room_booking.dto.response.AuditWriterStatsDto;
+import com.team2.university_room_booking.enums.BookingStatus;
+import com.team2.university_room_booking.model.Booking;
+import com.team2.university_room_booking.model.BookingAuditOutboxEntry;
+import com.team2.university_room_booking.model.BookingHistory;
+import com.team2.university_room_booking.model.User;
+import com.team2.university_room_booking.repository.BookingAuditOutboxRepository;
+import com.team2.university_room_booking.repository.BookingHistoryRepository;
+import com.team2.university_room_booking.repository.BookingRepository;
+import com.team2.university_room_booking.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuditWriterTest {
+
+    // Stand in for the booking_audit_outbox and booking_history tables
+    private final Map<Long, BookingAuditOutboxEntry> outbox = new ConcurrentSkipListMap<>();
+    private final Map<Long, BookingHistory> history = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final List<AuditWriter> writers = new ArrayList<>();
+
+    private BookingAuditOutboxRepository outboxRepository;
+    private BookingHistoryRepository bookingHistoryRepository;
+    private BookingRepository bookingRepository;
+    private UserRepository userRepository;
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxRepository = mock(BookingAuditOutboxRepository.class);
+        when(outboxRepository.saveAll(anyIterable())).thenAnswer(inv -> {
+            List<BookingAuditOutboxEntry> saved = new ArrayList<>();
+            for (BookingAuditOutboxEntry entry : (Iterable<BookingAuditOutboxEntry>) inv.getArgument(0)) {
+                entry.setId(ids.incrementAndGet());
+                outbox.put(entry.getId(), entry);
+                saved.add(entry);
+            }
+            return saved;
+        });
+        when(outboxRepository.findAllByIdForUpdate(anyCollection())).thenAnswer(inv -> {
+            synchronized (outbox) {
+                return ((Collection<Long>) inv.getArgument(0)).stream().map(outbox::get).filter(e -> e != null).toList();
+            }
+        });
+        doAnswer(inv -> {
+            ((Iterable<BookingAuditOutboxEntry>) inv.getArgument(0)).forEach(e -> outbox.remove(e.getId()));
+            return null;
+        }).when(outboxRepository).deleteAllInBatch(anyIterable());
+        when(outboxRepository.findIdsRecordedBefore(any())).thenAnswer(inv -> outbox.values().stream()
+                .filter(e -> e.getTimestamp().isBefore(inv.getArgument(0)))
+                .map(BookingAuditOutboxEntry::getId)
+                .toList());
+
+        bookingHistoryRepository = mock(BookingHistoryRepository.class);
+        when(bookingHistoryRepository.saveAll(anyIterable())).thenAnswer(inv -> {
+            for (BookingHistory entry : (Iterable<BookingHistory>) inv.getArgument(0)) {
+                history.put(ids.incrementAndGet(), entry);
+            }
+            return List.of();
+        });
+        bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.getReferenceById(anyLong())).thenAnswer(inv -> {
+            Booking booking = new Booking();
+            booking.setId(inv.getArgument(0));
+            return booking;
+        });
+        userRepository = mock(UserRepository.class);
+        when(userRepository.getReferenceById(anyLong())).thenAnswer(inv -> {
+            User user = new User();
+            user.setId(inv.getArgument(0));
+            return user;
+        });
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        for (AuditWriter writer : writers) {
+            writer.shutdown();
+        }
+    }
+
+    private AuditWriter writer(int batchSize, int queueCapacity, long flushIntervalMillis, long sweepIntervalSeconds) {
+        AuditWriter writer = new AuditWriter(outboxRepository, bookingHistoryRepository, bookingRepository, userRepository,
+                transactionManager, batchSize, queueCapacity, flushIntervalMillis, sweepIntervalSeconds);
+        writers.add(writer);
+        return writer;
+    }
+
+    private static BookingHistory entry(long bookingId) {
+        User owner = new User();
+        owner.setId(7L);
+        Booking booking = new Booking();
+        booking.setId(bookingId);
+        booking.setUser(owner);
+
+        BookingHistory entry = new BookingHistory();
+        entry.setBooking(booking);
+        entry.setUser(owner);
+        entry.setActor(owner);
+        entry.setStatus(BookingStatus.PENDING);
+        entry.setTimestamp(LocalDateTime.now());
+        return entry;
+    }
+
+    private static void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    private static void endTransaction(boolean commit) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (commit) {
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        }
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                commit ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private void awaitHistory(int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while ((history.size() < size || !outbox.isEmpty()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(size, history.size());
+        assertTrue(outbox.isEmpty());
+    }
+
+    @Test
+    void append_InTransaction_StoresOutboxOnceBeforeCommitAndWritesHistoryAfterwards() throws InterruptedException {
+        AuditWriter writer = writer(50, 100, 50, 30);
+
+        beginTransaction();
+        writer.append(entry(1L));
+        writer.append(entry(2L));
+        writer.appendAll(List.of(entry(3L)));
+        verifyNoInteractions(outboxRepository, bookingHistoryRepository);
+
+        endTransaction(true);
+
+        // Only the outbox is written on the request thread
+        verify(outboxRepository, times(1)).saveAll(argThat(entries -> ((List<?>) entries).size() == 3));
+        verifyNoInteractions(bookingHistoryRepository);
+        assertEquals(3, writer.stats().getQueueDepth());
+        assertFalse(TransactionSynchronizationManager.hasResource(writer));
+
+        writer.start();
+
+        awaitHistory(3);
+        verify(bookingHistoryRepository, times(1)).saveAll(anyIterable());
+        assertEquals(0, writer.stats().getQueueDepth());
+    }
+
+    @Test
+    void append_RollbackStoresNothingAndNoTransactionQueuesImmediately() {
+        AuditWriter writer = writer(50, 100, 50, 30);
+
+        beginTransaction();
+        writer.append(entry(1L));
+        endTransaction(false);
+        verifyNoInteractions(outboxRepository);
+        assertEquals(0, writer.stats().getQueueDepth());
+        assertFalse(TransactionSynchronizationManager.hasResource(writer));
+
+        writer.append(entry(2L));
+        verify(outboxRepository, times(1)).saveAll(anyIterable());
+        assertEquals(1, writer.stats().getQueueDepth());
+    }
+
+    @Test
+    void writer_FlushesFullBatchesAndTheRestAfterTheInterval() throws InterruptedException {
+        AuditWriter writer = writer(2, 100, 100, 30);
+        for (long i = 1; i <= 5; i++) {
+            writer.append(entry(i));
+        }
+
+        writer.start();
+
+        awaitHistory(5);
+        verify(bookingHistoryRepository, times(3)).saveAll(argThat(entries -> ((List<?>) entries).size() <= 2));
+        AuditWriterStatsDto stats = writer.stats();
+        assertEquals(3, stats.getFlushes());
+        assertEquals(5, stats.getEntriesWritten());
+        assertTrue(stats.getMaxFlushMillis() >= stats.getLastFlushMillis());
+    }
+
+    @Test
+    void queueFull_EntriesStayInOutboxUntilTheSweep() throws InterruptedException {
+        AuditWriter writer = writer(50, 1, 50, 30);
+
+        beginTransaction();
+        writer.appendAll(List.of(entry(1L), entry(2L), entry(3L)));
+        endTransaction(true);
+
+        AuditWriterStatsDto stats = writer.stats();
+        assertEquals(1, stats.getQueueDepth());
+        assertEquals(1, stats.getQueueCapacity());
+        assertEquals(2, stats.getOverflowed());
+        assertEquals(3, outbox.size());
+
+        // The sweep on start queues what is in the outbox and not already queued
+        writer.start();
+
+        awaitHistory(3);
+    }
+
+    @Test
+    void start_WritesEntriesLeftInOutboxByAPreviousRun() throws InterruptedException {
+        writer(50, 100, 50, 30).append(entry(1L));
+        AuditWriter restarted = writer(50, 100, 50, 30);
+
+        restarted.start();
+
+        awaitHistory(1);
+        assertEquals(1L, history.values().iterator().next().getBooking().getId());
+    }
+
+    @Test
+    void flush_FailureLeavesEntriesForTheNextSweep() throws InterruptedException {
+        AuditWriter writer = writer(50, 100, 50, 1);
+        when(bookingHistoryRepository.saveAll(anyIterable()))
+                .thenThrow(new IllegalStateException("Connection reset"))
+                .thenAnswer(inv -> {
+                    inv.<Iterable<BookingHistory>>getArgument(0).forEach(e -> history.put(ids.incrementAndGet(), e));
+                    return List.of();
+                });
+        writer.start();
+
+        writer.append(entry(1L));
+
+        awaitHistory(1);
+        assertEquals(1, writer.stats().getFailedFlushes());
+    }
+
+    @Test
+    void flush_EntryAlreadyWrittenElsewhereIsSkipped() {
+        AuditWriter writer = writer(50, 100, 50, 30);
+        writer.append(entry(1L));
+        outbox.clear();
+
+        writer.flushQueued();
+
+        assertTrue(history.isEmpty());
+        verify(bookingHistoryRepository, never()).saveAll(anyIterable());
+    }
+}
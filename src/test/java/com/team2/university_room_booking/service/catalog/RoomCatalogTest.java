@@ -0,0 +1,92 @@
+package com.team2.university_room_booking.service.catalog;
+
+import com.team2.university_room_booking.enums.RoomType;
+import com.team2.university_room_booking.event.RoomCatalogChangedEvent;
+import com.team2.university_room_booking.model.Room;
+import com.team2.university_room_booking.model.RoomFeature;
+import com.team2.university_room_booking.repository.RoomFeatureRepository;
+import com.team2.university_room_booking.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RoomCatalogTest {
+
+    private RoomRepository roomRepository;
+    private RoomFeatureRepository roomFeatureRepository;
+    private RoomCatalog catalog;
+    private List<RoomFeature> features;
+
+    @BeforeEach
+    void setUp() {
+        roomRepository = mock(RoomRepository.class);
+        roomFeatureRepository = mock(RoomFeatureRepository.class);
+        catalog = new RoomCatalog(roomRepository, roomFeatureRepository);
+
+        // More than 64 features so the bitsets span several words
+        features = new ArrayList<>();
+        for (long id = 1; id <= 70; id++) {
+            features.add(new RoomFeature(id, "feature-" + id));
+        }
+        when(roomFeatureRepository.findAll()).thenReturn(features);
+    }
+
+    private Room room(long id, RoomType type, int capacity, boolean available, long... featureIds) {
+        Set<RoomFeature> roomFeatures = new HashSet<>();
+        for (long featureId : featureIds) {
+            roomFeatures.add(features.get((int) featureId - 1));
+        }
+        return new Room(id, "Room " + id, type, capacity, available, null, roomFeatures);
+    }
+
+    @Test
+    void candidates_FiltersByTypeAndFeaturesSmallestFirst() {
+        when(roomRepository.findAllForCatalog()).thenReturn(List.of(
+                room(1, RoomType.LAB, 40, true, 1, 2, 70),
+                room(2, RoomType.LAB, 20, true, 1, 2, 70),
+                room(3, RoomType.LAB, 10, true, 1, 2),
+                room(4, RoomType.LAB, 5, false, 1, 2, 70),
+                room(5, RoomType.CLASSROOM, 15, true, 1, 2, 70)
+        ));
+        catalog.load();
+
+        List<RoomCatalog.CatalogRoom> labs = catalog.candidates(RoomType.LAB, Set.of(2L, 70L));
+        assertEquals(List.of(2L, 1L), labs.stream().map(RoomCatalog.CatalogRoom::id).toList());
+
+        List<RoomCatalog.CatalogRoom> any = catalog.candidates(null, Set.of(1L));
+        assertEquals(List.of(3L, 5L, 2L, 1L), any.stream().map(RoomCatalog.CatalogRoom::id).toList());
+
+        assertTrue(catalog.candidates(RoomType.LAB, Set.of(999L)).isEmpty());
+        assertTrue(catalog.hasAllFeatures(1L, Set.of(1L, 2L, 70L)));
+        assertFalse(catalog.hasAllFeatures(3L, Set.of(70L)));
+    }
+
+    @Test
+    void onCatalogChanged_RebuildsSnapshot() {
+        when(roomRepository.findAllForCatalog())
+                .thenReturn(List.of(room(1, RoomType.LAB, 40, true, 1)))
+                .thenReturn(List.of(room(1, RoomType.LAB, 40, true, 1), room(2, RoomType.LAB, 10, true, 1)));
+        catalog.load();
+        assertEquals(1, catalog.candidates(RoomType.LAB, Set.of(1L)).size());
+
+        catalog.onCatalogChanged(new RoomCatalogChangedEvent("room created id=2"));
+
+        assertEquals(List.of(2L, 1L), catalog.candidates(RoomType.LAB, Set.of(1L)).stream().map(RoomCatalog.CatalogRoom::id).toList());
+        verify(roomRepository, times(2)).findAllForCatalog();
+    }
+
+    @Test
+    void candidates_LoadsLazilyBeforeStartup() {
+        when(roomRepository.findAllForCatalog()).thenReturn(List.of(room(1, RoomType.LAB, 40, true)));
+
+        assertEquals(1, catalog.candidates(null, null).size());
+        assertTrue(catalog.find(1L).isPresent());
+    }
+}
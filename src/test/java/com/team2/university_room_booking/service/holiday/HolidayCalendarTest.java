@@ -0,0 +1,101 @@
+package com.team2.university_room_booking.service.holiday;
+
+import com.team2.university_room_booking.enums.HolidayRecurrence;
+import com.team2.university_room_booking.event.HolidayChangedEvent;
+import com.team2.university_room_booking.model.Holiday;
+import com.team2.university_room_booking.repository.HolidayRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HolidayCalendarTest {
+
+    @Mock private HolidayRepository holidayRepository;
+
+    @InjectMocks
+    private HolidayCalendar holidayCalendar;
+
+    private final LocalDateTime base = LocalDateTime.of(2026, 1, 5, 0, 0);
+
+    @Test
+    void overlapping_FindsLongHolidaysStartingWellBeforeTheWindow() {
+        when(holidayRepository.findAll()).thenReturn(List.of(
+                oneOff(1L, "Winter break", base, base.plusDays(14)),
+                oneOff(2L, "Founders day", base.plusDays(10), base.plusDays(11)),
+                oneOff(3L, "Spring break", base.plusDays(60), base.plusDays(67))));
+
+        List<HolidayCalendar.HolidayPeriod> hits = holidayCalendar.overlapping(base.plusDays(10).plusHours(9), base.plusDays(10).plusHours(11));
+
+        assertEquals(List.of(1L, 2L), hits.stream().map(HolidayCalendar.HolidayPeriod::id).toList());
+        assertTrue(holidayCalendar.overlapping(base.plusDays(20), base.plusDays(21)).isEmpty());
+        // Touching the end is not an overlap
+        assertTrue(holidayCalendar.firstOverlapping(base.plusDays(14), base.plusDays(14).plusHours(1)).isEmpty());
+        assertEquals("Spring break", holidayCalendar.firstOverlapping(base.plusDays(66), base.plusDays(68)).orElseThrow().name());
+        verify(holidayRepository, times(1)).findAll();
+    }
+
+    @Test
+    void overlapping_ExpandsRecurringRulesPerYear() {
+        when(holidayRepository.findAll()).thenReturn(List.of(
+                // Fixed date every year from 2024 to 2030
+                recurring(1L, "New Year", LocalDateTime.of(2024, 1, 1, 0, 0), 1, HolidayRecurrence.YEARLY_FIXED_DATE, 2030),
+                // Fourth Thursday of November, two days long
+                recurring(2L, "Thanksgiving", LocalDateTime.of(2025, 11, 27, 0, 0), 2, HolidayRecurrence.YEARLY_NTH_WEEKDAY, null),
+                // Last Monday of May
+                recurring(3L, "Memorial day", LocalDateTime.of(2025, 5, 26, 0, 0), 1, HolidayRecurrence.YEARLY_NTH_WEEKDAY, null)));
+
+        assertEquals("New Year", holidayCalendar.firstOverlapping(
+                LocalDateTime.of(2027, 1, 1, 9, 0), LocalDateTime.of(2027, 1, 1, 10, 0)).orElseThrow().name());
+        assertTrue(holidayCalendar.firstOverlapping(
+                LocalDateTime.of(2031, 1, 1, 9, 0), LocalDateTime.of(2031, 1, 1, 10, 0)).isEmpty());
+        assertTrue(holidayCalendar.firstOverlapping(
+                LocalDateTime.of(2023, 1, 1, 9, 0), LocalDateTime.of(2023, 1, 1, 10, 0)).isEmpty());
+
+        // 2026-11-26 is the fourth Thursday; the occurrence spans into Friday
+        assertEquals("Thanksgiving", holidayCalendar.firstOverlapping(
+                LocalDateTime.of(2026, 11, 27, 15, 0), LocalDateTime.of(2026, 11, 27, 16, 0)).orElseThrow().name());
+        assertTrue(holidayCalendar.firstOverlapping(
+                LocalDateTime.of(2026, 11, 19, 9, 0), LocalDateTime.of(2026, 11, 19, 10, 0)).isEmpty());
+        // 2026-05-25 is the last Monday of May
+        assertEquals("Memorial day", holidayCalendar.firstOverlapping(
+                LocalDateTime.of(2026, 5, 25, 9, 0), LocalDateTime.of(2026, 5, 25, 10, 0)).orElseThrow().name());
+
+        // A window across New Year's Eve finds the occurrence in the following year
+        List<HolidayCalendar.HolidayPeriod> hits = holidayCalendar.overlapping(
+                LocalDateTime.of(2026, 12, 31, 22, 0), LocalDateTime.of(2027, 1, 1, 2, 0));
+        assertEquals(LocalDateTime.of(2027, 1, 1, 0, 0), hits.get(0).start());
+        verify(holidayRepository, times(1)).findAll();
+    }
+
+    @Test
+    void onHolidayChanged_SwapsInTheNewTable() {
+        when(holidayRepository.findAll())
+                .thenReturn(List.of(oneOff(1L, "Winter break", base, base.plusDays(14))))
+                .thenReturn(List.of());
+        holidayCalendar.load();
+        assertTrue(holidayCalendar.firstOverlapping(base.plusDays(1), base.plusDays(2)).isPresent());
+
+        holidayCalendar.onHolidayChanged(new HolidayChangedEvent(null, "deleted 1"));
+
+        assertTrue(holidayCalendar.firstOverlapping(base.plusDays(1), base.plusDays(2)).isEmpty());
+        verify(holidayRepository, times(2)).findAll();
+    }
+
+    private static Holiday oneOff(Long id, String name, LocalDateTime start, LocalDateTime end) {
+        return new Holiday(id, name, start, end, null, null);
+    }
+
+    private static Holiday recurring(Long id, String name, LocalDateTime start, int days,
+                                     HolidayRecurrence recurrence, Integer endYear) {
+        return new Holiday(id, name, start, start.plusDays(days), recurrence, endYear);
+    }
+}
@@ -0,0 +1,113 @@
+package com.team2.university_room_booking.service.holiday;
+
+import com.team2.university_room_booking.dto.response.HolidayImpactDto;
+import com.team2.university_room_booking.enums.HolidayRecurrence;
+import com.team2.university_room_booking.event.HolidayChangedEvent;
+import com.team2.university_room_booking.exceptions.ResourceConflictException;
+import com.team2.university_room_booking.model.Holiday;
+import com.team2.university_room_booking.repository.BookingRepository;
+import com.team2.university_room_booking.repository.HolidayRepository;
+import com.team2.university_room_booking.service.BookingBatchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HolidayReconcilerTest {
+
+    @Mock private HolidayRepository holidayRepository;
+    @Mock private BookingRepository bookingRepository;
+    @Mock private BookingBatchService bookingBatchService;
+
+    private HolidayReconciler reconciler;
+    private final LocalDateTime start = LocalDateTime.now().plusDays(10).withNano(0);
+
+    @BeforeEach
+    void setUp() {
+        reconciler = new HolidayReconciler(holidayRepository, bookingRepository, bookingBatchService, 100, 3, 0);
+    }
+
+    @Test
+    void reconcile_OneRangeQueryThenBatchedCancellations() {
+        Holiday holiday = new Holiday(7L, "Exam break", start, start.plusDays(2), null, null);
+        when(holidayRepository.findById(7L)).thenReturn(Optional.of(holiday));
+        List<Long> ids = LongStream.rangeClosed(1, 250).boxed().toList();
+        when(bookingRepository.findIdsOverlapping(any(), eq(start), eq(start.plusDays(2)))).thenReturn(ids);
+        when(bookingBatchService.cancelOverlapping(anyList(), eq(start), eq(start.plusDays(2)), eq("Holiday: Exam break")))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        assertEquals(250, reconciler.reconcile(7L));
+
+        verify(bookingRepository, times(1)).findIdsOverlapping(any(), any(), any());
+        verify(bookingBatchService).cancelOverlapping(eq(ids.subList(0, 100)), any(), any(), any());
+        verify(bookingBatchService).cancelOverlapping(eq(ids.subList(100, 200)), any(), any(), any());
+        verify(bookingBatchService).cancelOverlapping(eq(ids.subList(200, 250)), any(), any(), any());
+    }
+
+    @Test
+    void reconcile_FailedBatchIsRetried() {
+        Holiday holiday = new Holiday(7L, "Exam break", start, start.plusDays(2), null, null);
+        when(holidayRepository.findById(7L)).thenReturn(Optional.of(holiday));
+        List<Long> ids = LongStream.rangeClosed(1, 150).boxed().toList();
+        when(bookingRepository.findIdsOverlapping(any(), any(), any())).thenReturn(ids);
+        when(bookingBatchService.cancelOverlapping(eq(ids.subList(0, 100)), any(), any(), any()))
+                .thenThrow(new ResourceConflictException("Bookings were changed by another request, please retry"))
+                .thenAnswer(inv -> inv.getArgument(0));
+        when(bookingBatchService.cancelOverlapping(eq(ids.subList(100, 150)), any(), any(), any()))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        assertEquals(150, reconciler.reconcile(7L));
+
+        verify(bookingBatchService, times(2)).cancelOverlapping(eq(ids.subList(0, 100)), any(), any(), any());
+        verify(bookingBatchService, times(1)).cancelOverlapping(eq(ids.subList(100, 150)), any(), any(), any());
+    }
+
+    @Test
+    void reconcile_BatchFailingEveryAttempt_IsSkippedAndTheRestCancelled() {
+        Holiday holiday = new Holiday(7L, "Exam break", start, start.plusDays(2), null, null);
+        when(holidayRepository.findById(7L)).thenReturn(Optional.of(holiday));
+        List<Long> ids = LongStream.rangeClosed(1, 150).boxed().toList();
+        when(bookingRepository.findIdsOverlapping(any(), any(), any())).thenReturn(ids);
+        when(bookingBatchService.cancelOverlapping(eq(ids.subList(0, 100)), any(), any(), any()))
+                .thenThrow(new ResourceConflictException("Bookings were changed by another request, please retry"));
+        when(bookingBatchService.cancelOverlapping(eq(ids.subList(100, 150)), any(), any(), any()))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        assertEquals(50, reconciler.reconcile(7L));
+
+        verify(bookingBatchService, times(3)).cancelOverlapping(eq(ids.subList(0, 100)), any(), any(), any());
+    }
+
+    @Test
+    void preview_CountsOnlyOccurrencesInsideTheHorizon() {
+        // Yearly from last year: only this year's occurrence, ten days out, can hold bookings
+        Holiday holiday = new Holiday(null, "Founders day", start.minusYears(1), start.minusYears(1).plusDays(1),
+                HolidayRecurrence.YEARLY_FIXED_DATE, null);
+        LocalDateTime occurrence = start.minusYears(1).plusYears(1);
+        when(bookingRepository.countOverlapping(any(), eq(occurrence), eq(occurrence.plusDays(1)))).thenReturn(12L);
+
+        HolidayImpactDto impact = reconciler.preview(holiday);
+
+        assertEquals(12L, impact.getAffectedBookings());
+        verify(bookingRepository, times(1)).countOverlapping(any(), any(), any());
+        verifyNoInteractions(bookingBatchService);
+    }
+
+    @Test
+    void onHolidayChanged_DeletedHoliday_DoesNothing() {
+        reconciler.onHolidayChanged(new HolidayChangedEvent(null, "holiday deleted name=Exam break"));
+
+        verifyNoInteractions(holidayRepository, bookingRepository, bookingBatchService);
+    }
+}
@@ -0,0 +1,263 @@
+package com.team2.university_room_booking.service.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.team2.university_room_booking.dto.request.RejectBookingDto;
+import com.team2.university_room_booking.dto.response.BookingDto;
+import com.team2.university_room_booking.enums.BookingStatus;
+import com.team2.university_room_booking.enums.IdempotencyState;
+import com.team2.university_room_booking.exceptions.BadRequestException;
+import com.team2.university_room_booking.exceptions.ResourceConflictException;
+import com.team2.university_room_booking.model.IdempotencyRecord;
+import com.team2.university_room_booking.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.net.URI;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    // Stands in for the idempotency_records table, which is shared by every instance
+    private final Map<String, IdempotencyRecord> rows = new ConcurrentHashMap<>();
+    // Keys inserted by each open transaction, innermost first
+    private final Deque<List<String>> transactions = new ArrayDeque<>();
+
+    private IdempotencyRecordRepository repository;
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IdempotencyRecordRepository.class);
+        when(repository.findById(anyString())).thenAnswer(inv -> Optional.ofNullable(rows.get(inv.<String>getArgument(0))));
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(inv -> execute(inv.getArguments()));
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> {
+            transactions.push(new ArrayList<>());
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(inv -> {
+            List<String> inserted = transactions.pop();
+            if (inv.<TransactionStatus>getArgument(0).isRollbackOnly()) {
+                rows.keySet().removeAll(inserted);
+            }
+            return null;
+        }).when(transactionManager).commit(any());
+        doAnswer(inv -> rows.keySet().removeAll(transactions.pop())).when(transactionManager).rollback(any());
+        idempotencyService = newInstance();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private IdempotencyService newInstance() {
+        return new IdempotencyService(repository, jdbcTemplate, transactionManager,
+                new ObjectMapper().findAndRegisterModules(), 100, 24);
+    }
+
+    private int execute(Object[] args) {
+        String sql = (String) args[0];
+        String key = (String) args[1];
+        if (sql.startsWith("DELETE")) {
+            IdempotencyRecord row = rows.get(key);
+            return row != null && row.getExpiresAt().isBefore(((Timestamp) args[2]).toLocalDateTime())
+                    && rows.remove(key, row) ? 1 : 0;
+        }
+        if (sql.startsWith("INSERT")) {
+            IdempotencyRecord row = new IdempotencyRecord(key, (String) args[2], (String) args[3], (String) args[4],
+                    IdempotencyState.valueOf((String) args[5]), 0, null, null,
+                    ((Timestamp) args[6]).toLocalDateTime(), ((Timestamp) args[7]).toLocalDateTime());
+            if (rows.putIfAbsent(key, row) != null) {
+                throw new DuplicateKeyException("Duplicate entry for idempotency_records.PRIMARY");
+            }
+            transactions.peek().add(key);
+            return 1;
+        }
+        // UPDATE ... SET state, status_code, location, response_body WHERE record_key AND state
+        IdempotencyRecord row = rows.get((String) args[5]);
+        if (row == null || !row.getState().name().equals(args[6])) {
+            return 0;
+        }
+        row.setState(IdempotencyState.valueOf((String) args[1]));
+        row.setStatusCode((Integer) args[2]);
+        row.setLocation((String) args[3]);
+        row.setResponseBody((String) args[4]);
+        return 1;
+    }
+
+    private BookingDto approved() {
+        BookingDto dto = new BookingDto();
+        dto.setId(42L);
+        dto.setStatus(BookingStatus.APPROVED);
+        dto.setStartTime(LocalDateTime.of(2030, 1, 7, 9, 0));
+        return dto;
+    }
+
+    @Test
+    void execute_SameKey_ReplaysWithoutRunningAgain() {
+        AtomicInteger calls = new AtomicInteger();
+
+        ResponseEntity<BookingDto> first = idempotencyService.execute("key-1", "POST /api/bookings/42/approve", null,
+                BookingDto.class, () -> {
+                    calls.incrementAndGet();
+                    return ResponseEntity.ok(approved());
+                });
+        ResponseEntity<BookingDto> second = idempotencyService.execute("key-1", "POST /api/bookings/42/approve", null,
+                BookingDto.class, () -> {
+                    calls.incrementAndGet();
+                    return ResponseEntity.ok(approved());
+                });
+
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertEquals(first.getBody(), second.getBody());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(IdempotencyState.COMPLETED, rows.values().iterator().next().getState());
+    }
+
+    @Test
+    void execute_PersistedRecord_ReplaysLocationAfterCacheMiss() {
+        AtomicInteger calls = new AtomicInteger();
+        idempotencyService.execute("key-2", "POST /api/bookings", null, Void.class, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.created(URI.create("/bookings/7")).build();
+        });
+
+        // A fresh instance has an empty cache and must fall back to the table
+        IdempotencyService restarted = newInstance();
+
+        ResponseEntity<Void> replayed = restarted.execute("key-2", "POST /api/bookings", null, Void.class, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.ok().build();
+        });
+
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.CREATED, replayed.getStatusCode());
+        assertEquals(URI.create("/bookings/7"), replayed.getHeaders().getLocation());
+    }
+
+    @Test
+    void execute_KeyReusedForDifferentRequest_ThrowsBadRequest() {
+        RejectBookingDto first = new RejectBookingDto();
+        first.setReason("Room under maintenance");
+        RejectBookingDto second = new RejectBookingDto();
+        second.setReason("Exam week");
+
+        idempotencyService.execute("key-3", "POST /api/bookings/5/reject", first, BookingDto.class,
+                () -> ResponseEntity.ok(approved()));
+
+        assertThrows(BadRequestException.class, () -> idempotencyService.execute("key-3", "POST /api/bookings/5/reject",
+                second, BookingDto.class, () -> ResponseEntity.ok(approved())));
+    }
+
+    @Test
+    void execute_FailedAction_IsNotStored() {
+        assertThrows(ResourceConflictException.class, () -> idempotencyService.execute("key-4", "POST /api/bookings", null,
+                Void.class, () -> {
+                    throw new ResourceConflictException("Requested time overlaps with an existing booking");
+                }));
+
+        ResponseEntity<Void> retried = idempotencyService.execute("key-4", "POST /api/bookings", null, Void.class,
+                () -> ResponseEntity.created(URI.create("/bookings/8")).build());
+
+        assertEquals(HttpStatus.CREATED, retried.getStatusCode());
+        assertNull(retried.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_ErrorResponse_ReleasesKey() {
+        idempotencyService.execute("key-6", "POST /api/bookings", null, Void.class,
+                () -> ResponseEntity.badRequest().build());
+
+        // Rolled back rather than completed, so a retry runs the mutation again
+        assertTrue(rows.isEmpty());
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE"), any(Object[].class));
+    }
+
+    @Test
+    void execute_ConcurrentDuplicate_ThrowsConflict() {
+        assertThrows(ResourceConflictException.class, () -> idempotencyService.execute("key-5", "POST /api/bookings", null,
+                Void.class, () -> idempotencyService.execute("key-5", "POST /api/bookings", null, Void.class,
+                        () -> ResponseEntity.ok().build())));
+    }
+
+    @Test
+    void execute_KeyPendingOnAnotherInstance_ThrowsConflictWithoutRunning() {
+        AtomicInteger calls = new AtomicInteger();
+        // The other instance inserts its PENDING row and is still running the mutation
+        newInstance().execute("key-7", "POST /api/bookings", null, Void.class, () -> {
+            assertThrows(ResourceConflictException.class, () -> idempotencyService.execute("key-7", "POST /api/bookings",
+                    null, Void.class, () -> {
+                        calls.incrementAndGet();
+                        return ResponseEntity.ok().build();
+                    }));
+            return ResponseEntity.created(URI.create("/bookings/9")).build();
+        });
+
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void execute_AnotherInstanceCommitsFirst_ReplaysItsResponse() {
+        AtomicInteger calls = new AtomicInteger();
+        IdempotencyService other = newInstance();
+        // The lookup misses, and the other instance commits before this one inserts its row
+        when(repository.findById(anyString())).thenAnswer(inv -> {
+            other.execute("key-8", "POST /api/bookings", null, Void.class,
+                    () -> ResponseEntity.created(URI.create("/bookings/10")).build());
+            return Optional.empty();
+        }).thenAnswer(inv -> Optional.ofNullable(rows.get(inv.<String>getArgument(0))));
+
+        ResponseEntity<Void> response = idempotencyService.execute("key-8", "POST /api/bookings", null, Void.class, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.ok().build();
+        });
+
+        assertEquals(0, calls.get());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("true", response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_RecordCannotBeCompleted_FailsAndRollsBackMutation() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("key-9", "POST /api/bookings", null,
+                Void.class, () -> {
+                    rows.clear();
+                    return ResponseEntity.created(URI.create("/bookings/11")).build();
+                }));
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+}
@@ -0,0 +1,112 @@
+package com.team2.university_room_booking.service.index;
+
+import com.team2.university_room_booking.enums.BookingStatus;
+import com.team2.university_room_booking.event.BookingChangedEvent;
+import com.team2.university_room_booking.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingIntervalIndex index;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingIntervalIndex(bookingRepository);
+        base = LocalDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void overlaps_DetectsIntersectingIntervals() {
+        index.put(1L, 10L, base, base.plusHours(2));
+
+        assertTrue(index.overlaps(10L, base.plusHours(1), base.plusHours(3)));
+        assertTrue(index.overlaps(10L, base.minusHours(1), base.plusMinutes(1)));
+        assertTrue(index.overlaps(10L, base.plusMinutes(30), base.plusMinutes(45)));
+    }
+
+    @Test
+    void overlaps_TouchingIntervalsDoNotConflict() {
+        index.put(1L, 10L, base, base.plusHours(2));
+
+        assertFalse(index.overlaps(10L, base.plusHours(2), base.plusHours(3)));
+        assertFalse(index.overlaps(10L, base.minusHours(1), base));
+        assertFalse(index.overlaps(11L, base, base.plusHours(2)));
+    }
+
+    @Test
+    void overlaps_FindsLongIntervalStartingWellBeforeQuery() {
+        index.put(1L, 10L, base, base.plusHours(4));
+        index.put(2L, 10L, base.plusHours(1), base.plusHours(2));
+
+        // Latest interval starting before the query ends has already finished, the long one has not
+        assertTrue(index.overlaps(10L, base.plusHours(3), base.plusHours(5)));
+    }
+
+    @Test
+    void onBookingChanged_RemovesInactiveBookings() {
+        index.put(1L, 10L, base, base.plusHours(2));
+
+        index.onBookingChanged(new BookingChangedEvent(1L, 10L, 5L, base, base.plusHours(2),
+                BookingStatus.PENDING, BookingStatus.CANCELLED));
+
+        assertFalse(index.overlaps(10L, base, base.plusHours(2)));
+    }
+
+    @Test
+    void overlapping_ReturnsIntervalsSortedByStart() {
+        index.put(3L, 10L, base.plusHours(4), base.plusHours(5));
+        index.put(1L, 10L, base, base.plusHours(1));
+        index.put(2L, 10L, base.plusHours(2), base.plusHours(3));
+
+        List<BookingIntervalIndex.BookedInterval> result = index.overlapping(10L, base, base.plusHours(6));
+
+        assertEquals(List.of(1L, 2L, 3L), result.stream().map(BookingIntervalIndex.BookedInterval::bookingId).toList());
+    }
+
+    @Test
+    void sweep_DropsEndedIntervalsAndKeepsTheRest() {
+        index.put(1L, 10L, base, base.plusHours(1));
+        index.put(2L, 10L, base.plusHours(2), base.plusHours(3));
+        long version = index.version(10L);
+
+        index.sweep(base.plusHours(2));
+
+        assertEquals(List.of(2L), index.overlapping(10L, base, base.plusHours(4)).stream()
+                .map(BookingIntervalIndex.BookedInterval::bookingId).toList());
+        assertTrue(index.version(10L) > version);
+        assertEquals(base.plusHours(3), index.previousEnd(10L, base.plusHours(5)).orElseThrow());
+    }
+
+    @Test
+    void load_PopulatesFromRepository() {
+        BookingRepository.BookingSlot slot = new BookingRepository.BookingSlot() {
+            public Long getId() { return 7L; }
+            public Long getRoomId() { return 10L; }
+            public LocalDateTime getStartTime() { return base; }
+            public LocalDateTime getEndTime() { return base.plusHours(1); }
+        };
+        when(bookingRepository.findActiveSlots(any(), any())).thenReturn(List.of(slot));
+
+        assertFalse(index.isLoaded());
+        index.load();
+
+        assertTrue(index.isLoaded());
+        assertTrue(index.overlaps(10L, base, base.plusMinutes(10)));
+    }
+}
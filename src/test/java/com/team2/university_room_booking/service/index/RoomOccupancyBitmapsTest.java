@@ -0,0 +1,119 @@
+package com.team2.university_room_booking.service.index;
+
+import com.team2.university_room_booking.dto.response.AvailableRoomTimesDto;
+import com.team2.university_room_booking.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomOccupancyBitmapsTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingIntervalIndex index;
+    private RoomOccupancyBitmaps bitmaps;
+    private LocalDateTime day;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingIntervalIndex(bookingRepository);
+        index.load();
+        bitmaps = new RoomOccupancyBitmaps(index);
+        day = LocalDateTime.now().toLocalDate().plusDays(2).atStartOfDay();
+    }
+
+    @Test
+    void freeSlots_AlignedBookings_AnsweredFromBitmap() {
+        index.put(1L, 10L, day.plusHours(9), day.plusHours(10).plusMinutes(30));
+        index.put(2L, 10L, day.plusHours(10).plusMinutes(30), day.plusHours(11));
+        index.put(3L, 10L, day.plusHours(23), day.plusDays(1).plusHours(1));
+
+        Optional<List<AvailableRoomTimesDto>> free = bitmaps.freeSlots(10L, day.plusHours(8).plusMinutes(5), day.plusDays(1).plusHours(3));
+
+        assertEquals(Optional.of(List.of(
+                new AvailableRoomTimesDto(day.plusHours(8).plusMinutes(5), day.plusHours(9)),
+                new AvailableRoomTimesDto(day.plusHours(11), day.plusHours(23)),
+                new AvailableRoomTimesDto(day.plusDays(1).plusHours(1), day.plusDays(1).plusHours(3)))), free);
+        assertEquals(Optional.of(false), bitmaps.isFree(10L, day.plusHours(10).plusMinutes(50), day.plusHours(12)));
+        assertEquals(Optional.of(true), bitmaps.isFree(10L, day.plusHours(11), day.plusHours(12)));
+    }
+
+    @Test
+    void unalignedBooking_FreeSlotsFallBack_IsFreeStaysExact() {
+        index.put(1L, 10L, day.plusHours(9), day.plusHours(9).plusMinutes(10));
+
+        assertTrue(bitmaps.freeSlots(10L, day.plusHours(8), day.plusHours(12)).isEmpty());
+        assertEquals(Optional.of(true), bitmaps.isFree(10L, day.plusHours(9).plusMinutes(10), day.plusHours(10)));
+        assertEquals(Optional.of(false), bitmaps.isFree(10L, day.plusHours(9).plusMinutes(5), day.plusHours(10)));
+    }
+
+    @Test
+    void cancelledBooking_FreesSlotsOnNextRead() {
+        index.put(1L, 10L, day.plusHours(9), day.plusHours(10));
+        assertEquals(Optional.of(false), bitmaps.isFree(10L, day.plusHours(9), day.plusHours(10)));
+
+        index.remove(1L);
+
+        assertEquals(Optional.of(true), bitmaps.isFree(10L, day.plusHours(9), day.plusHours(10)));
+        assertEquals(1, bitmaps.cachedDays());
+    }
+
+    @Test
+    void windowsOutsideHorizonOrInPast_NotAnswered() {
+        assertTrue(bitmaps.isFree(10L, day.minusDays(5), day.minusDays(5).plusHours(1)).isEmpty());
+        assertTrue(bitmaps.freeSlots(10L, day.plusDays(200), day.plusDays(200).plusHours(1)).isEmpty());
+    }
+
+    @Test
+    void randomAlignedSchedules_MatchSweepOverIndex() {
+        Random random = new Random(11);
+        long bookingId = 0;
+        for (int room = 1; room <= 20; room++) {
+            LocalDateTime cursor = day;
+            while (cursor.isBefore(day.plusDays(3))) {
+                cursor = cursor.plusMinutes(15L * random.nextInt(12));
+                LocalDateTime end = cursor.plusMinutes(15L * (1 + random.nextInt(16)));
+                index.put(++bookingId, (long) room, cursor, end);
+                cursor = end;
+            }
+        }
+
+        for (int i = 0; i < 500; i++) {
+            long room = 1 + random.nextInt(20);
+            LocalDateTime start = day.plusMinutes(random.nextInt(3 * 24 * 60));
+            LocalDateTime end = start.plusMinutes(1 + random.nextInt(24 * 60));
+
+            assertEquals(Optional.of(sweep(room, start, end)), bitmaps.freeSlots(room, start, end));
+            assertEquals(Optional.of(!index.overlaps(room, start, end)), bitmaps.isFree(room, start, end));
+        }
+    }
+
+    private List<AvailableRoomTimesDto> sweep(Long roomId, LocalDateTime start, LocalDateTime end) {
+        List<AvailableRoomTimesDto> free = new ArrayList<>();
+        LocalDateTime current = start;
+        for (BookingIntervalIndex.BookedInterval b : index.overlapping(roomId, start, end)) {
+            if (current.isBefore(b.start())) {
+                free.add(new AvailableRoomTimesDto(current, b.start()));
+            }
+            if (b.end().isAfter(current)) {
+                current = b.end();
+            }
+        }
+        if (current.isBefore(end)) {
+            free.add(new AvailableRoomTimesDto(current, end));
+        }
+        return free;
+    }
+}
@@ -0,0 +1,369 @@
+package com.team2.university_room_booking.service.intake;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.team2.university_room_booking.dto.request.CreateBookingRequestDto;
+import com.team2.university_room_booking.dto.response.BatchBookingItemResultDto;
+import com.team2.university_room_booking.dto.response.BookingTicketDto;
+import com.team2.university_room_booking.enums.IntakeStatus;
+import com.team2.university_room_booking.enums.Role;
+import com.team2.university_room_booking.exceptions.AccessDeniedException;
+import com.team2.university_room_booking.exceptions.QuotaExceededException;
+import com.team2.university_room_booking.exceptions.ResourceConflictException;
+import com.team2.university_room_booking.exceptions.ServiceUnavailableException;
+import com.team2.university_room_booking.model.BookingIntakeTicket;
+import com.team2.university_room_booking.model.User;
+import com.team2.university_room_booking.repository.BookingIntakeTicketRepository;
+import com.team2.university_room_booking.repository.BookingRepository;
+import com.team2.university_room_booking.repository.UserRepository;
+import com.team2.university_room_booking.service.BookingBatchService;
+import com.team2.university_room_booking.service.BookingBatchService.OwnedBookingRequest;
+import com.team2.university_room_booking.service.catalog.RoomCatalog;
+import com.team2.university_room_booking.service.quota.BookingQuotaProperties;
+import com.team2.university_room_booking.service.quota.BookingQuotas;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BookingIntakeServiceTest {
+
+    // Committed ticket rows; the outbox works on copies until it saves them, like a transaction
+    private final Map<String, BookingIntakeTicket> rows = new ConcurrentHashMap<>();
+
+    private BookingBatchService bookingBatchService;
+    private BookingQuotas bookingQuotas;
+    private BookingIntakeOutbox outbox;
+    private BookingIntakeService intakeService;
+    private User owner;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        bookingBatchService = mock(BookingBatchService.class);
+        bookingQuotas = mock(BookingQuotas.class);
+        owner = new User();
+        owner.setId(1L);
+        owner.setRole(Role.STUDENT);
+
+        BookingIntakeTicketRepository ticketRepository = mock(BookingIntakeTicketRepository.class);
+        when(ticketRepository.save(any())).thenAnswer(inv -> store(inv.getArgument(0)));
+        when(ticketRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<BookingIntakeTicket> tickets = inv.getArgument(0);
+            tickets.forEach(this::store);
+            return tickets;
+        });
+        doAnswer(inv -> rows.remove(inv.<String>getArgument(0))).when(ticketRepository).deleteById(any());
+        when(ticketRepository.findById(any())).thenAnswer(inv -> Optional.ofNullable(rows.get(inv.<String>getArgument(0))).map(BookingIntakeServiceTest::copy));
+        when(ticketRepository.findAllByIdForUpdate(anyCollection())).thenAnswer(inv -> ((Collection<String>) inv.getArgument(0)).stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .map(BookingIntakeServiceTest::copy)
+                .toList());
+        when(ticketRepository.findByStatusAndSubmittedAtBeforeOrderBySubmittedAt(eq(IntakeStatus.PENDING), any())).thenAnswer(inv -> rows.values().stream()
+                .filter(t -> t.getStatus() == IntakeStatus.PENDING && t.getSubmittedAt().isBefore(inv.getArgument(1)))
+                .sorted(Comparator.comparing(BookingIntakeTicket::getSubmittedAt))
+                .map(BookingIntakeServiceTest::copy)
+                .toList());
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findAllById(any())).thenReturn(List.of(owner));
+
+        outbox = new BookingIntakeOutbox(ticketRepository, userRepository, bookingBatchService, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (intakeService != null) {
+            intakeService.shutdown();
+        }
+    }
+
+    private BookingIntakeTicket store(BookingIntakeTicket ticket) {
+        rows.put(ticket.getId(), copy(ticket));
+        return ticket;
+    }
+
+    private static BookingIntakeTicket copy(BookingIntakeTicket t) {
+        return new BookingIntakeTicket(t.getId(), t.getOwnerId(), t.getRoomId(), t.getPayload(), t.getStatus(),
+                t.getBookingId(), t.getError(), t.getSubmittedAt(), t.getCompletedAt());
+    }
+
+    private BookingIntakeService startedService(BookingQuotas quotas, int shards, int queueCapacity, int maxBatchSize) {
+        return startedService(quotas, shards, queueCapacity, maxBatchSize, 30);
+    }
+
+    private BookingIntakeService startedService(BookingQuotas quotas, int shards, int queueCapacity, int maxBatchSize, long sweepSeconds) {
+        BookingIntakeService service = new BookingIntakeService(outbox, quotas, shards, queueCapacity, maxBatchSize, 60, sweepSeconds);
+        service.start();
+        return service;
+    }
+
+    private CreateBookingRequestDto request(Long roomId) {
+        CreateBookingRequestDto request = new CreateBookingRequestDto();
+        request.setRoomId(roomId);
+        request.setStartTime(LocalDateTime.now().plusDays(1));
+        request.setEndTime(LocalDateTime.now().plusDays(1).plusHours(1));
+        request.setPurpose("Study group");
+        return request;
+    }
+
+    private BookingTicketDto awaitDone(String ticketId) throws InterruptedException {
+        return awaitDone(ticketId, 5_000);
+    }
+
+    private BookingTicketDto awaitDone(String ticketId, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < deadline) {
+            BookingTicketDto ticket = intakeService.getTicket(ticketId, owner);
+            if (ticket.getStatus() != IntakeStatus.PENDING) {
+                return ticket;
+            }
+            Thread.sleep(10);
+        }
+        fail("ticket " + ticketId + " still pending");
+        return null;
+    }
+
+    private static List<BatchBookingItemResultDto> allCreated(List<OwnedBookingRequest> items, AtomicLong ids) {
+        List<BatchBookingItemResultDto> results = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            results.add(BatchBookingItemResultDto.created(i, ids.incrementAndGet()));
+        }
+        return results;
+    }
+
+    @Test
+    void submit_ProcessesQueuedRequestsInBatches() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong ids = new AtomicLong();
+        List<Integer> batchSizes = new ArrayList<>();
+        when(bookingBatchService.createAll(anyList())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            List<OwnedBookingRequest> items = inv.getArgument(0);
+            synchronized (batchSizes) {
+                batchSizes.add(items.size());
+            }
+            List<BatchBookingItemResultDto> results = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                results.add(i % 2 == 0
+                        ? BatchBookingItemResultDto.created(i, ids.incrementAndGet())
+                        : BatchBookingItemResultDto.failed(i, "Requested time overlaps with an existing booking"));
+            }
+            return results;
+        });
+        intakeService = startedService(bookingQuotas, 1, 100, 50);
+
+        List<BookingTicketDto> tickets = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            BookingTicketDto ticket = intakeService.submit(request(7L), owner);
+            assertEquals(IntakeStatus.PENDING, ticket.getStatus());
+            tickets.add(ticket);
+        }
+        release.countDown();
+
+        for (BookingTicketDto ticket : tickets) {
+            BookingTicketDto done = awaitDone(ticket.getTicketId());
+            assertNotEquals(IntakeStatus.PENDING, done.getStatus());
+            assertEquals(done.getStatus() == IntakeStatus.CREATED, done.getBookingId() != null);
+        }
+        // The first request is committed alone while the rest queue up behind it as one batch
+        assertTrue(batchSizes.size() < tickets.size(), "batches=" + batchSizes);
+        assertEquals(tickets.size(), batchSizes.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void submit_StoresTicketAndPayloadBeforeAcknowledging() {
+        // Not started: nothing is processed, yet the accepted request is already stored
+        intakeService = new BookingIntakeService(outbox, bookingQuotas, 1, 10, 10, 60, 30);
+
+        BookingTicketDto ticket = intakeService.submit(request(4L), owner);
+
+        BookingIntakeTicket row = rows.get(ticket.getTicketId());
+        assertNotNull(row);
+        assertEquals(IntakeStatus.PENDING, row.getStatus());
+        assertEquals(1L, row.getOwnerId());
+        assertEquals(4L, row.getRoomId());
+        assertTrue(row.getPayload().contains("Study group"));
+        verifyNoInteractions(bookingBatchService);
+    }
+
+    @Test
+    void start_RecoversTicketsLeftPendingByAPreviousRun() throws Exception {
+        AtomicLong ids = new AtomicLong(40);
+        when(bookingBatchService.createAll(anyList())).thenAnswer(inv -> allCreated(inv.getArgument(0), ids));
+        // Accepted by an instance that stopped before its writers ran
+        BookingIntakeService crashed = new BookingIntakeService(outbox, bookingQuotas, 1, 10, 10, 60, 30);
+        BookingTicketDto first = crashed.submit(request(4L), owner);
+        BookingTicketDto second = crashed.submit(request(5L), owner);
+
+        intakeService = startedService(bookingQuotas, 2, 10, 10);
+
+        assertEquals(IntakeStatus.CREATED, awaitDone(first.getTicketId()).getStatus());
+        assertEquals(IntakeStatus.CREATED, awaitDone(second.getTicketId()).getStatus());
+        verify(bookingBatchService, atLeastOnce()).createAll(argThat((List<OwnedBookingRequest> items) ->
+                items.stream().allMatch(i -> "Study group".equals(i.request().getPurpose()) && i.owner() == owner)));
+    }
+
+    @Test
+    void submit_InsideTransaction_QueuesTicketOnlyAfterCommit() throws Exception {
+        AtomicLong ids = new AtomicLong();
+        when(bookingBatchService.createAll(anyList())).thenAnswer(inv -> allCreated(inv.getArgument(0), ids));
+        intakeService = startedService(bookingQuotas, 1, 10, 10);
+
+        BookingTicketDto committed;
+        BookingTicketDto rolledBack;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            committed = intakeService.submit(request(4L), owner);
+            Thread.sleep(200);
+            verifyNoInteractions(bookingBatchService);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            rolledBack = intakeService.submit(request(4L), owner);
+            rows.remove(rolledBack.getTicketId());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(IntakeStatus.CREATED, awaitDone(committed.getTicketId()).getStatus());
+        verify(bookingQuotas, timeout(2_000).times(2)).release(any(), any());
+    }
+
+    @Test
+    void sweep_QueuesPendingTicketThatMissedItsQueue() throws Exception {
+        AtomicLong ids = new AtomicLong();
+        when(bookingBatchService.createAll(anyList())).thenAnswer(inv -> allCreated(inv.getArgument(0), ids));
+        intakeService = startedService(bookingQuotas, 1, 10, 10, 1);
+
+        // Stored but never queued, e.g. committed while the queue was full
+        BookingIntakeTicket stranded = outbox.accept(request(4L), owner);
+
+        assertEquals(IntakeStatus.CREATED, awaitDone(stranded.getId(), 5_000).getStatus());
+    }
+
+    @Test
+    void commit_TicketDeliveredTwice_IsBookedOnce() {
+        when(bookingBatchService.createAll(anyList())).thenAnswer(inv -> allCreated(inv.getArgument(0), new AtomicLong()));
+        BookingIntakeTicket ticket = outbox.accept(request(4L), owner);
+
+        assertEquals(1, outbox.commit(List.of(ticket.getId())).size());
+        assertEquals(0, outbox.commit(List.of(ticket.getId())).size());
+
+        verify(bookingBatchService, times(1)).createAll(anyList());
+        assertEquals(IntakeStatus.CREATED, rows.get(ticket.getId()).getStatus());
+    }
+
+    @Test
+    void submit_CountsQueuedTicketsAgainstQuota() throws Exception {
+        BookingQuotaProperties properties = new BookingQuotaProperties();
+        BookingQuotaProperties.Limit limit = new BookingQuotaProperties.Limit();
+        limit.setMaxActiveBookings(2);
+        properties.getRoles().put(Role.STUDENT, limit);
+        BookingQuotas quotas = new BookingQuotas(mock(BookingRepository.class), mock(RoomCatalog.class), properties);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookingBatchService.createAll(anyList())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            List<OwnedBookingRequest> items = inv.getArgument(0);
+            List<BatchBookingItemResultDto> results = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                results.add(BatchBookingItemResultDto.failed(i, "Requested time overlaps with an existing booking"));
+            }
+            return results;
+        });
+        intakeService = startedService(quotas, 1, 10, 10);
+
+        intakeService.submit(request(3L), owner);
+        BookingTicketDto second = intakeService.submit(request(3L), owner);
+        assertThrows(QuotaExceededException.class, () -> intakeService.submit(request(3L), owner));
+
+        // Finished tickets stop counting once their batch has returned
+        release.countDown();
+        awaitDone(second.getTicketId());
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (true) {
+            try {
+                intakeService.submit(request(3L), owner);
+                break;
+            } catch (QuotaExceededException e) {
+                assertTrue(System.currentTimeMillis() < deadline, "claims never released");
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    @Test
+    void submit_QueueFull_ThrowsServiceUnavailableAndDropsTheTicket() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bookingBatchService.createAll(anyList())).thenAnswer(inv -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(BatchBookingItemResultDto.created(0, 1L));
+        });
+        intakeService = startedService(bookingQuotas, 1, 1, 1);
+
+        intakeService.submit(request(3L), owner);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        intakeService.submit(request(3L), owner);
+
+        assertThrows(ServiceUnavailableException.class, () -> intakeService.submit(request(3L), owner));
+        assertEquals(2, rows.size());
+        release.countDown();
+    }
+
+    @Test
+    void batchFailure_MarksEveryTicketFailed() throws Exception {
+        when(bookingBatchService.createAll(anyList()))
+                .thenThrow(new ResourceConflictException("Room is busy with another booking request, please retry"));
+        intakeService = startedService(bookingQuotas, 2, 10, 10);
+
+        BookingTicketDto ticket = intakeService.submit(request(4L), owner);
+
+        BookingTicketDto done = awaitDone(ticket.getTicketId());
+        assertEquals(IntakeStatus.FAILED, done.getStatus());
+        assertEquals("Room is busy with another booking request, please retry", done.getError());
+    }
+
+    @Test
+    void getTicket_OtherUser_ThrowsAccessDenied() {
+        intakeService = new BookingIntakeService(outbox, bookingQuotas, 1, 10, 10, 60, 30);
+        BookingTicketDto ticket = intakeService.submit(request(4L), owner);
+
+        User other = new User();
+        other.setId(2L);
+        other.setRole(Role.STUDENT);
+        User admin = new User();
+        admin.setId(3L);
+        admin.setRole(Role.ADMIN);
+
+        assertThrows(AccessDeniedException.class, () -> intakeService.getTicket(ticket.getTicketId(), other));
+        assertDoesNotThrow(() -> intakeService.getTicket(ticket.getTicketId(), admin));
+    }
+}
@@ -0,0 +1,37 @@
+package com.team2.university_room_booking.service.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Throughput of lock-guarded check-and-insert as threads are added. Run with {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+class RoomLockManagerBenchmark {
+
+    @Test
+    void contendedCheckAndInsert_ThroughputByThreadCount() throws Exception {
+        RoomLockManager manager = new RoomLockManager(64, 10_000);
+
+        for (int threads : new int[]{1, 2, 4, 8, 16}) {
+            Map<Long, List<Integer>> bookedSlots = new ConcurrentHashMap<>();
+            AtomicInteger created = new AtomicInteger();
+
+            long elapsed = RoomLockManagerTest.runContended(manager, threads, bookedSlots, created);
+
+            for (List<Integer> slots : bookedSlots.values()) {
+                assertEquals(slots.stream().distinct().count(), slots.size());
+            }
+            double opsPerSecond = (threads * RoomLockManagerTest.ATTEMPTS_PER_THREAD) / (elapsed / 1_000_000_000.0);
+            log.info("room-lock threads={} attempts={} created={} throughput={} ops/s",
+                    threads, threads * RoomLockManagerTest.ATTEMPTS_PER_THREAD, created.get(), Math.round(opsPerSecond));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.team2.university_room_booking.service.lock;
+
+import com.team2.university_room_booking.exceptions.ResourceConflictException;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomLockManagerTest {
+
+    static final int ROOMS = 8;
+    static final int SLOTS_PER_ROOM = 40;
+    static final int ATTEMPTS_PER_THREAD = 400;
+
+    @Test
+    void stripeCount_RoundsUpToPowerOfTwo() {
+        assertEquals(64, new RoomLockManager(64, 1000).stripeCount());
+        assertEquals(16, new RoomLockManager(10, 1000).stripeCount());
+        assertEquals(1, new RoomLockManager(1, 1000).stripeCount());
+    }
+
+    @Test
+    void lockForCurrentTransaction_HeldUntilTransactionCompletes() throws Exception {
+        RoomLockManager manager = new RoomLockManager(16, 50);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            manager.lockForCurrentTransaction(1L);
+
+            // Another "transaction" on the same room times out while the first is still open
+            AtomicBoolean blocked = new AtomicBoolean();
+            Thread other = new Thread(() -> {
+                try {
+                    manager.lockForCurrentTransaction(1L);
+                } catch (ResourceConflictException e) {
+                    blocked.set(true);
+                }
+            });
+            other.start();
+            other.join();
+            assertTrue(blocked.get());
+
+            completeTransaction();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Released after completion: a fresh non-transactional acquire succeeds immediately
+        assertDoesNotThrow(() -> manager.lockForCurrentTransaction(1L));
+    }
+
+    @Test
+    void concurrentCheckAndInsert_NoDoubleBookings() throws Exception {
+        RoomLockManager manager = new RoomLockManager(64, 10_000);
+        Map<Long, List<Integer>> bookedSlots = new ConcurrentHashMap<>();
+        AtomicInteger created = new AtomicInteger();
+
+        runContended(manager, 8, bookedSlots, created);
+
+        for (Map.Entry<Long, List<Integer>> room : bookedSlots.entrySet()) {
+            List<Integer> slots = room.getValue();
+            assertEquals(slots.stream().distinct().count(), slots.size(), "double booking in room " + room.getKey());
+        }
+        assertTrue(created.get() <= ROOMS * SLOTS_PER_ROOM);
+    }
+
+    /**
+     * Runs a deliberately non-atomic check-then-insert of random room slots from several threads,
+     * each attempt guarded by the room lock, and returns the wall time taken.
+     */
+    static long runContended(RoomLockManager manager, int threads,
+                              Map<Long, List<Integer>> bookedSlots, AtomicInteger created) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    long roomId = random.nextInt(ROOMS);
+                    int slot = random.nextInt(SLOTS_PER_ROOM);
+
+                    TransactionSynchronizationManager.initSynchronization();
+                    try {
+                        manager.lockForCurrentTransaction(roomId);
+                        // Check-then-insert, deliberately non-atomic without the lock
+                        List<Integer> slots = bookedSlots.computeIfAbsent(roomId, id -> new ArrayList<>());
+                        boolean taken;
+                        synchronized (slots) {
+                            taken = slots.contains(slot);
+                        }
+                        Thread.yield();
+                        if (!taken) {
+                            synchronized (slots) {
+                                slots.add(slot);
+                            }
+                            created.incrementAndGet();
+                        }
+                        completeTransaction();
+                    } finally {
+                        TransactionSynchronizationManager.clearSynchronization();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - begin;
+        pool.shutdown();
+        return elapsed;
+    }
+
+    static void completeTransaction() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+    }
+}
@@ -0,0 +1,154 @@
+package com.team2.university_room_booking.service.quota;
+
+import com.team2.university_room_booking.enums.BookingStatus;
+import com.team2.university_room_booking.enums.Role;
+import com.team2.university_room_booking.event.BookingChangedEvent;
+import com.team2.university_room_booking.exceptions.QuotaExceededException;
+import com.team2.university_room_booking.model.User;
+import com.team2.university_room_booking.repository.BookingRepository;
+import com.team2.university_room_booking.service.catalog.RoomCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingQuotasTest {
+
+    private static final long DEPARTMENT = 3L;
+
+    @Mock private BookingRepository bookingRepository;
+    @Mock private RoomCatalog roomCatalog;
+
+    private BookingQuotaProperties properties;
+    private BookingQuotas quotas;
+    private User student;
+    // Monday of next week, 09:00
+    private final LocalDateTime nextWeek = LocalDateTime.now()
+            .with(TemporalAdjusters.next(DayOfWeek.MONDAY)).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+    @BeforeEach
+    void setUp() {
+        properties = new BookingQuotaProperties();
+        properties.getRoles().put(Role.STUDENT, limit(3, 6));
+        quotas = new BookingQuotas(bookingRepository, roomCatalog, properties);
+        lenient().when(roomCatalog.find(anyLong())).thenAnswer(inv -> Optional.of(
+                new RoomCatalog.CatalogRoom(inv.getArgument(0), "R", null, 10, true, 1L, DEPARTMENT, new long[1])));
+        student = new User();
+        student.setId(1L);
+        student.setRole(Role.STUDENT);
+    }
+
+    @Test
+    void enforce_CountsLoadedBookingsAndFollowsStatusChanges() {
+        when(bookingRepository.findActiveUsage(any(), any())).thenReturn(List.of(
+                usage(1L, 1L, nextWeek, nextWeek.plusHours(1)),
+                usage(2L, 1L, nextWeek.plusDays(1), nextWeek.plusDays(1).plusHours(1))));
+        quotas.load();
+
+        quotas.onBookingChanged(event(3L, nextWeek.plusDays(2), null, BookingStatus.PENDING));
+        // Approval does not count the booking twice
+        quotas.onBookingChanged(event(3L, nextWeek.plusDays(2), BookingStatus.PENDING, BookingStatus.APPROVED));
+        assertEquals(3, quotas.activeBookings(1L));
+        assertThrows(QuotaExceededException.class,
+                () -> quotas.enforce(student, 5L, nextWeek.plusDays(3), nextWeek.plusDays(3).plusHours(1)));
+
+        quotas.onBookingChanged(event(3L, nextWeek.plusDays(2), BookingStatus.APPROVED, BookingStatus.CANCELLED));
+        assertDoesNotThrow(() -> quotas.enforce(student, 5L, nextWeek.plusDays(3), nextWeek.plusDays(3).plusHours(1)));
+        verify(bookingRepository, times(1)).findActiveUsage(any(), any());
+    }
+
+    @Test
+    void enforce_WeeklyHoursPerUserAndPerDepartment() {
+        properties.getDepartments().put(DEPARTMENT, limit(null, 5));
+        quotas.onBookingChanged(event(1L, nextWeek, null, BookingStatus.PENDING, 2L, 4));
+
+        // The department already has 4 of its 5 hours booked that week by someone else
+        assertThrows(QuotaExceededException.class,
+                () -> quotas.enforce(student, 5L, nextWeek.plusDays(1), nextWeek.plusDays(1).plusHours(2)));
+        // The following week is free
+        assertDoesNotThrow(() -> quotas.enforce(student, 5L, nextWeek.plusDays(7), nextWeek.plusDays(7).plusHours(2)));
+
+        // A weekly series is checked as a whole against the active-booking limit
+        List<LocalDateTime[]> series = List.of(
+                new LocalDateTime[]{nextWeek.plusDays(7), nextWeek.plusDays(7).plusHours(1)},
+                new LocalDateTime[]{nextWeek.plusDays(14), nextWeek.plusDays(14).plusHours(1)},
+                new LocalDateTime[]{nextWeek.plusDays(21), nextWeek.plusDays(21).plusHours(1)},
+                new LocalDateTime[]{nextWeek.plusDays(28), nextWeek.plusDays(28).plusHours(1)});
+        assertThrows(QuotaExceededException.class, () -> quotas.enforce(student, 5L, series));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void enforce_WithClaims_CountsUncommittedBookingsUntilReleased() {
+        quotas.onBookingChanged(event(1L, nextWeek, null, BookingStatus.PENDING));
+        BookingQuotas.Claims claims = quotas.newClaims();
+
+        BookingQuotas.Usage second = quotas.enforce(student, 5L, nextWeek.plusDays(1), nextWeek.plusDays(1).plusHours(1), claims);
+        quotas.enforce(student, 5L, nextWeek.plusDays(2), nextWeek.plusDays(2).plusHours(1), claims);
+        // One committed and two claimed bookings use up the limit of three
+        assertThrows(QuotaExceededException.class,
+                () -> quotas.enforce(student, 5L, nextWeek.plusDays(3), nextWeek.plusDays(3).plusHours(1), claims));
+        // Claims do not count for checks made without them
+        assertDoesNotThrow(() -> quotas.enforce(student, 5L, nextWeek.plusDays(3), nextWeek.plusDays(3).plusHours(1)));
+
+        quotas.release(claims, second);
+        assertDoesNotThrow(() -> quotas.enforce(student, 5L, nextWeek.plusDays(3), nextWeek.plusDays(3).plusHours(1), claims));
+        assertEquals(1, quotas.activeBookings(1L));
+    }
+
+    @Test
+    void load_EndedBookingsKeepTheirHoursButAreNotActive() {
+        LocalDateTime ended = LocalDateTime.now().minusMinutes(30);
+        when(bookingRepository.findActiveUsage(any(), any())).thenReturn(List.of(
+                usage(1L, 1L, ended.minusHours(4), ended),
+                usage(2L, 1L, ended.minusHours(2), ended.minusHours(1))));
+        properties.getRoles().put(Role.STUDENT, limit(1, 6));
+
+        quotas.load();
+
+        assertEquals(0, quotas.activeBookings(1L));
+        // Bookings ended earlier this week still use 5 of the 6 hours (unless the week just rolled over)
+        if (!ended.minusHours(4).toLocalDate().isBefore(LocalDateTime.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toLocalDate())) {
+            LocalDateTime later = LocalDateTime.now().plusMinutes(5);
+            assertThrows(QuotaExceededException.class, () -> quotas.enforce(student, 5L, later, later.plusHours(2)));
+        }
+    }
+
+    private static BookingQuotaProperties.Limit limit(Integer maxActive, Integer maxWeeklyHours) {
+        BookingQuotaProperties.Limit limit = new BookingQuotaProperties.Limit();
+        limit.setMaxActiveBookings(maxActive);
+        limit.setMaxWeeklyHours(maxWeeklyHours);
+        return limit;
+    }
+
+    private static BookingChangedEvent event(Long bookingId, LocalDateTime start, BookingStatus previous, BookingStatus status) {
+        return event(bookingId, start, previous, status, 1L, 1);
+    }
+
+    private static BookingChangedEvent event(Long bookingId, LocalDateTime start, BookingStatus previous, BookingStatus status,
+                                             Long userId, int hours) {
+        return new BookingChangedEvent(bookingId, 5L, userId, start, start.plusHours(hours), previous, status);
+    }
+
+    private static BookingRepository.BookingUsage usage(Long id, Long userId, LocalDateTime start, LocalDateTime end) {
+        return new BookingRepository.BookingUsage() {
+            public Long getId() { return id; }
+            public Long getUserId() { return userId; }
+            public Long getRoomId() { return 5L; }
+            public LocalDateTime getStartTime() { return start; }
+            public LocalDateTime getEndTime() { return end; }
+        };
+    }
+}
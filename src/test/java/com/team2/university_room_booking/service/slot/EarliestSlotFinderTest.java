@@ -0,0 +1,148 @@
+package com.team2.university_room_booking.service.slot;
+
+import com.team2.university_room_booking.dto.request.EarliestSlotRequestDto;
+import com.team2.university_room_booking.dto.response.AvailableSlotDto;
+import com.team2.university_room_booking.enums.RoomType;
+import com.team2.university_room_booking.exceptions.BadRequestException;
+import com.team2.university_room_booking.repository.BookingRepository;
+import com.team2.university_room_booking.service.holiday.HolidayCalendar;
+import com.team2.university_room_booking.service.catalog.RoomCatalog;
+import com.team2.university_room_booking.service.index.BookingIntervalIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EarliestSlotFinderTest {
+
+    @Mock private RoomCatalog roomCatalog;
+    @Mock private BookingRepository bookingRepository;
+    @Mock private HolidayCalendar holidayCalendar;
+
+    private BookingIntervalIndex index;
+    private EarliestSlotFinder finder;
+    private LocalDateTime day;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingIntervalIndex(bookingRepository);
+        index.load();
+        finder = new EarliestSlotFinder(roomCatalog, index, bookingRepository, holidayCalendar);
+        day = LocalDateTime.now().toLocalDate().plusDays(1).atStartOfDay();
+    }
+
+    @Test
+    void findEarliest_MergesRoomsInStartOrder() {
+        catalog(room(1L), room(2L));
+        // Room 1 busy until 10:00, room 2 busy 08:30-09:00 and 11:00-12:00
+        index.put(1L, 1L, day, day.plusHours(10));
+        index.put(2L, 2L, day, day.plusHours(8).plusMinutes(30));
+        index.put(3L, 2L, day.plusHours(9), day.plusHours(11));
+
+        List<AvailableSlotDto> slots = finder.findEarliest(request(120, day, day.plusHours(14), 3));
+
+        assertEquals(List.of(
+                new AvailableSlotDto(1L, "R1", day.plusHours(10), day.plusHours(12)),
+                new AvailableSlotDto(2L, "R2", day.plusHours(11), day.plusHours(13))), slots);
+    }
+
+    @Test
+    void findEarliest_SkipsHolidays() {
+        catalog(room(1L));
+        when(holidayCalendar.overlapping(any(), any()))
+                .thenReturn(List.of(new HolidayCalendar.HolidayPeriod(1L, "Closed", day, day.plusHours(12))));
+
+        List<AvailableSlotDto> slots = finder.findEarliest(request(60, day, day.plusDays(1), 1));
+
+        assertEquals(day.plusHours(12), slots.get(0).getStart());
+    }
+
+    @Test
+    void findEarliest_UnalignedBookingEnd_RoundsUpToQuarterHour() {
+        catalog(room(1L));
+        // Busy until 10:07 and again from 12:22, so the gaps after both start on the quarter hour
+        index.put(1L, 1L, day, day.plusHours(10).plusMinutes(7));
+        index.put(2L, 1L, day.plusHours(12).plusMinutes(22), day.plusHours(12).plusMinutes(50));
+
+        List<AvailableSlotDto> slots = finder.findEarliest(request(120, day, day.plusHours(16), 2));
+
+        assertEquals(List.of(
+                new AvailableSlotDto(1L, "R1", day.plusHours(10).plusMinutes(15), day.plusHours(12).plusMinutes(15)),
+                new AvailableSlotDto(1L, "R1", day.plusHours(13), day.plusHours(15))), slots);
+    }
+
+    @Test
+    void findEarliest_DurationOutsidePolicy_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> finder.findEarliest(request(30, day, day.plusDays(1), 1)));
+        assertThrows(BadRequestException.class, () -> finder.findEarliest(request(300, day, day.plusDays(1), 1)));
+    }
+
+    @Test
+    void findEarliest_RandomSchedules_MatchMinuteScan() {
+        Random random = new Random(5);
+        List<RoomCatalog.CatalogRoom> rooms = new ArrayList<>();
+        long bookingId = 0;
+        for (long roomId = 1; roomId <= 15; roomId++) {
+            rooms.add(room(roomId));
+            LocalDateTime cursor = day;
+            while (cursor.isBefore(day.plusDays(2))) {
+                cursor = cursor.plusMinutes(5L * random.nextInt(30));
+                LocalDateTime end = cursor.plusMinutes(5L * (6 + random.nextInt(40)));
+                index.put(++bookingId, roomId, cursor, end);
+                cursor = end;
+            }
+        }
+        catalog(rooms.toArray(RoomCatalog.CatalogRoom[]::new));
+
+        for (int duration : new int[]{60, 120, 180}) {
+            List<AvailableSlotDto> slots = finder.findEarliest(request(duration, day, day.plusDays(2), 10));
+            for (AvailableSlotDto slot : slots) {
+                assertEquals(0, slot.getStart().getMinute() % 15, "unaligned start " + slot.getStart());
+                assertFalse(index.overlaps(slot.getRoomId(), slot.getStart(), slot.getEnd()));
+            }
+            // No quarter-hour start earlier than the first answer is free in any room
+            LocalDateTime first = slots.isEmpty() ? day.plusDays(2).minusMinutes(duration) : slots.get(0).getStart();
+            for (LocalDateTime t = day; t.isBefore(first); t = t.plusMinutes(15)) {
+                for (RoomCatalog.CatalogRoom room : rooms) {
+                    assertTrue(index.overlaps(room.id(), t, t.plusMinutes(duration)), "missed slot at " + t);
+                }
+            }
+            for (int i = 1; i < slots.size(); i++) {
+                assertFalse(slots.get(i).getStart().isBefore(slots.get(i - 1).getStart()));
+            }
+        }
+    }
+
+    private void catalog(RoomCatalog.CatalogRoom... rooms) {
+        when(roomCatalog.candidates(eq(RoomType.LAB), eq(Set.of(3L)), anyInt())).thenReturn(List.of(rooms));
+    }
+
+    private static RoomCatalog.CatalogRoom room(Long id) {
+        return new RoomCatalog.CatalogRoom(id, "R" + id, RoomType.LAB, 30, true, null, null, new long[1]);
+    }
+
+    private static EarliestSlotRequestDto request(int minutes, LocalDateTime from, LocalDateTime to, int limit) {
+        EarliestSlotRequestDto request = new EarliestSlotRequestDto();
+        request.setDurationMinutes(minutes);
+        request.setType(RoomType.LAB);
+        request.setFeatureIds(Set.of(3L));
+        request.setFrom(from);
+        request.setTo(to);
+        request.setLimit(limit);
+        return request;
+    }
+}
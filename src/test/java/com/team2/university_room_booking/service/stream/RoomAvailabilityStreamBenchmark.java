@@ -0,0 +1,101 @@
+package com.team2.university_room_booking.service.stream;
+
+import com.team2.university_room_booking.enums.BookingStatus;
+import com.team2.university_room_booking.event.BookingChangedEvent;
+import com.team2.university_room_booking.service.catalog.RoomCatalog;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Idle cost and fan-out latency of the availability stream with thousands of subscribers.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+class RoomAvailabilityStreamBenchmark {
+
+    private static final int SUBSCRIBERS = 5_000;
+    private static final int ROOMS = 500;
+
+    @Test
+    void idleThenFanOut_ManySubscribers() throws Exception {
+        RoomCatalog roomCatalog = mock(RoomCatalog.class);
+        when(roomCatalog.find(anyLong())).thenAnswer(inv -> {
+            Long id = inv.getArgument(0);
+            return Optional.of(new RoomCatalog.CatalogRoom(id, "R" + id, null, 10, true, id * 10, null, new long[1]));
+        });
+        RoomAvailabilityStream stream = new RoomAvailabilityStream(roomCatalog, 50, 1, SUBSCRIBERS + 10, 30, 4, 16);
+        try {
+            List<CountingEmitter> emitters = new ArrayList<>();
+            for (int i = 0; i < SUBSCRIBERS; i++) {
+                CountingEmitter emitter = new CountingEmitter();
+                emitters.add(emitter);
+                stream.register(emitter, Set.of((long) (i % ROOMS)), null);
+            }
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            long cpuBefore = streamThreadsCpuNanos(threads);
+            long idleStart = System.nanoTime();
+            Thread.sleep(5_000);
+            long idleNanos = System.nanoTime() - idleStart;
+            long idleCpu = streamThreadsCpuNanos(threads) - cpuBefore;
+            log.info("room-stream idle subscribers={} heartbeatSeconds=1 wall={} ms streamThreadsCpu={} ms",
+                    SUBSCRIBERS, idleNanos / 1_000_000, idleCpu / 1_000_000);
+            // Heartbeats only: a polling or spinning publisher would burn a large share of the wall time
+            assertTrue(idleCpu < idleNanos / 5, "stream threads used " + idleCpu / 1_000_000 + " ms while idle");
+
+            long fanOutStart = System.nanoTime();
+            for (long room = 0; room < ROOMS; room++) {
+                LocalDateTime start = LocalDateTime.now().plusDays(1);
+                stream.onBookingChanged(new BookingChangedEvent(1L, room, 1L, start, start.plusHours(1), null, BookingStatus.PENDING));
+            }
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (emitters.stream().anyMatch(e -> e.events.get() == 0) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            long fanOutNanos = System.nanoTime() - fanOutStart;
+
+            assertTrue(emitters.stream().allMatch(e -> e.events.get() >= 1));
+            log.info("room-stream fan-out rooms={} subscribers={} flushes={} elapsed={} ms",
+                    ROOMS, SUBSCRIBERS, stream.flushCount(), fanOutNanos / 1_000_000);
+        } finally {
+            stream.shutdown();
+        }
+    }
+
+    // CPU time of the publisher and sender threads, which are alive for the whole run
+    private static long streamThreadsCpuNanos(ThreadMXBean threads) {
+        long total = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("room-availability-")) {
+                total += Math.max(0, threads.getThreadCpuTime(thread.getId()));
+            }
+        }
+        return total;
+    }
+
+    private static final class CountingEmitter extends SseEmitter {
+        private final AtomicInteger events = new AtomicInteger();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (builder.build().stream().anyMatch(part -> part.getData().toString().contains("event:" + RoomAvailabilityStream.EVENT_NAME))) {
+                events.incrementAndGet();
+            }
+        }
+    }
+}
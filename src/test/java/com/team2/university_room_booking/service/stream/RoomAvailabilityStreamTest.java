@@ -0,0 +1,228 @@
+package com.team2.university_room_booking.service.stream;
+
+import com.team2.university_room_booking.enums.BookingStatus;
+import com.team2.university_room_booking.event.BookingChangedEvent;
+import com.team2.university_room_booking.exceptions.ServiceUnavailableException;
+import com.team2.university_room_booking.service.catalog.RoomCatalog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class RoomAvailabilityStreamTest {
+
+    private static final int IDLE_SUBSCRIBERS = 200;
+
+    @Mock
+    private RoomCatalog roomCatalog;
+
+    private RoomAvailabilityStream stream;
+
+    @BeforeEach
+    void setUp() {
+        // Room n lives in building n * 10
+        lenient().when(roomCatalog.find(anyLong())).thenAnswer(inv -> {
+            Long id = inv.getArgument(0);
+            return Optional.of(new RoomCatalog.CatalogRoom(id, "R" + id, null, 10, true, id * 10, null, new long[1]));
+        });
+        stream = new RoomAvailabilityStream(roomCatalog, 50, 0, IDLE_SUBSCRIBERS + 10, 30, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void burstOfChanges_CoalescedIntoOneEventPerSubscriber() throws Exception {
+        CountingEmitter byRoom = new CountingEmitter();
+        CountingEmitter byBuilding = new CountingEmitter();
+        CountingEmitter everything = new CountingEmitter();
+        CountingEmitter unrelated = new CountingEmitter();
+        stream.register(byRoom, Set.of(1L), null);
+        stream.register(byBuilding, null, Set.of(20L));
+        stream.register(everything, null, null);
+        stream.register(unrelated, Set.of(9L), null);
+
+        for (int i = 0; i < 200; i++) {
+            stream.onBookingChanged(changed(1 + (i % 2)));
+        }
+        awaitFlushes(1);
+
+        assertTrue(stream.flushCount() <= 2, "flushes=" + stream.flushCount());
+        assertEquals(1, byRoom.sent.get());
+        assertEquals(1, byBuilding.sent.get());
+        assertTrue(everything.sent.get() >= 1 && everything.sent.get() <= stream.flushCount());
+        assertEquals(0, unrelated.sent.get());
+    }
+
+    @Test
+    void brokenConnection_SubscriberDropped() throws Exception {
+        stream.register(new CountingEmitter(true), Set.of(1L), null);
+        assertEquals(1, stream.subscriberCount());
+
+        stream.onBookingChanged(changed(1));
+        awaitFlushes(1);
+
+        assertEquals(0, stream.subscriberCount());
+    }
+
+    @Test
+    void tooManySubscribers_ServiceUnavailable() {
+        RoomAvailabilityStream small = new RoomAvailabilityStream(roomCatalog, 50, 0, 1, 30, 1, 1);
+        try {
+            small.register(new CountingEmitter(), Set.of(1L), null);
+            assertThrows(ServiceUnavailableException.class, () -> small.register(new CountingEmitter(), Set.of(1L), null));
+        } finally {
+            small.shutdown();
+        }
+    }
+
+    @Test
+    void slowSubscriber_DoesNotHoldUpOthers_AndIsDroppedWhenItsBufferFills() throws Exception {
+        CountDownLatch unblock = new CountDownLatch(1);
+        BlockingEmitter slow = new BlockingEmitter(unblock);
+        CountingEmitter fast = new CountingEmitter();
+        stream.register(slow, Set.of(1L), null);
+        stream.register(fast, Set.of(1L), null);
+
+        stream.onBookingChanged(changed(1));
+        awaitFlushes(1);
+        assertTrue(slow.entered.await(5, TimeUnit.SECONDS));
+        assertEquals(1, fast.events.get());
+
+        // Two more events fit the slow subscriber's buffer, the third overflows it
+        for (int i = 2; i <= 4; i++) {
+            stream.onBookingChanged(changed(1));
+            awaitFlushes(i);
+        }
+        assertEquals(4, fast.events.get());
+        assertEquals(1, stream.subscriberCount());
+
+        unblock.countDown();
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, slow.sent.get());
+    }
+
+    @Test
+    void idleSubscribers_OnlyHeartbeatsWhileNothingChanges() throws Exception {
+        RoomAvailabilityStream withHeartbeat = new RoomAvailabilityStream(roomCatalog, 50, 1, IDLE_SUBSCRIBERS + 10, 30, 2, 2);
+        try {
+            List<CountingEmitter> emitters = new ArrayList<>();
+            for (int i = 0; i < IDLE_SUBSCRIBERS; i++) {
+                CountingEmitter emitter = new CountingEmitter();
+                emitters.add(emitter);
+                withHeartbeat.register(emitter, Set.of((long) (i % 50)), null);
+            }
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (emitters.stream().anyMatch(e -> e.sent.get() == 0) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // A heartbeat went out, and nothing else; idle CPU is measured by RoomAvailabilityStreamBenchmark
+            assertEquals(0, withHeartbeat.flushCount());
+            assertTrue(emitters.stream().allMatch(e -> e.events.get() == 0 && e.sent.get() >= 1));
+
+            for (long room = 0; room < 50; room++) {
+                withHeartbeat.onBookingChanged(changed(room));
+            }
+            deadline = System.currentTimeMillis() + 5_000;
+            while (emitters.stream().anyMatch(e -> e.events.get() == 0) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(emitters.stream().allMatch(e -> e.events.get() >= 1 && e.events.get() <= withHeartbeat.flushCount()));
+        } finally {
+            withHeartbeat.shutdown();
+        }
+    }
+
+    private void awaitFlushes(long flushes) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (stream.flushCount() < flushes && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // Let a possible second window for late arrivals pass
+        Thread.sleep(150);
+    }
+
+    private static BookingChangedEvent changed(long roomId) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        return new BookingChangedEvent(1L, roomId, 1L, start, start.plusHours(1), null, BookingStatus.PENDING);
+    }
+
+    private static boolean isAvailabilityEvent(SseEmitter.SseEventBuilder builder) {
+        return builder.build().stream().anyMatch(part -> part.getData().toString().contains("event:" + RoomAvailabilityStream.EVENT_NAME));
+    }
+
+    private static final class CountingEmitter extends SseEmitter {
+        private final AtomicInteger sent = new AtomicInteger();
+        // Availability events only, without heartbeats
+        private final AtomicInteger events = new AtomicInteger();
+        private final boolean broken;
+
+        CountingEmitter() {
+            this(false);
+        }
+
+        CountingEmitter(boolean broken) {
+            this.broken = broken;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("connection reset");
+            }
+            sent.incrementAndGet();
+            if (isAvailabilityEvent(builder)) {
+                events.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class BlockingEmitter extends SseEmitter {
+        private final AtomicInteger sent = new AtomicInteger();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch unblock;
+
+        BlockingEmitter(CountDownLatch unblock) {
+            this.unblock = unblock;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            entered.countDown();
+            try {
+                unblock.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sent.incrementAndGet();
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}
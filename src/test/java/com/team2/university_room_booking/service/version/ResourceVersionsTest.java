@@ -0,0 +1,57 @@
+package com.team2.university_room_booking.service.version;
+
+import com.team2.university_room_booking.enums.BookingStatus;
+import com.team2.university_room_booking.event.BookingChangedEvent;
+import com.team2.university_room_booking.event.HolidayChangedEvent;
+import com.team2.university_room_booking.event.RoomCatalogChangedEvent;
+import com.team2.university_room_booking.model.Booking;
+import com.team2.university_room_booking.model.Room;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceVersionsTest {
+
+    private final ResourceVersions versions = new ResourceVersions();
+
+    @Test
+    void bookingChange_BumpsOnlyThatRoomsETag() {
+        String room1 = versions.roomAvailabilityETag(1L);
+        String room2 = versions.roomAvailabilityETag(2L);
+        String catalog = versions.catalogETag();
+
+        versions.onBookingChanged(BookingChangedEvent.of(booking(1L), null));
+
+        assertNotEquals(room1, versions.roomAvailabilityETag(1L));
+        assertEquals(room2, versions.roomAvailabilityETag(2L));
+        assertEquals(catalog, versions.catalogETag());
+        assertTrue(room1.startsWith("\"") && room1.endsWith("\""), "strong ETags are quoted");
+    }
+
+    @Test
+    void catalogAndHolidayChanges_BumpTheirOwnETags() {
+        String catalog = versions.catalogETag();
+        String holidays = versions.holidaysETag();
+
+        versions.onCatalogChanged(new RoomCatalogChangedEvent("room created id=1"));
+        assertNotEquals(catalog, versions.catalogETag());
+        assertEquals(holidays, versions.holidaysETag());
+
+        versions.onHolidayChanged(new HolidayChangedEvent(1L, "holiday created id=1"));
+        assertNotEquals(holidays, versions.holidaysETag());
+    }
+
+    private static Booking booking(Long roomId) {
+        Room room = new Room();
+        room.setId(roomId);
+        Booking booking = new Booking();
+        booking.setId(10L);
+        booking.setRoom(room);
+        booking.setStatus(BookingStatus.PENDING);
+        booking.setStartTime(LocalDateTime.now().plusDays(1));
+        booking.setEndTime(LocalDateTime.now().plusDays(1).plusHours(1));
+        return booking;
+    }
+}